@@ -19,6 +19,7 @@
 
 package com.enrico;
 
+import com.enrico.batch.BatchSolver;
 import com.enrico.project.loader.GenericProjectLoader;
 import com.enrico.project.loader.MolecularShapeProjectLoader;
 import com.enrico.windows.main.MainWindow;
@@ -31,6 +32,12 @@ import java.util.Properties;
 
 public final class Main {
     public static void main(String[] args) {
+        // Solving a file of formulas without showing any window.
+        if (args.length > 0 && args[0].equals(BatchSolver.BATCH_ARGUMENT)) {
+            System.exit(BatchSolver.runFromCommandLine(args, System.err));
+            return;
+        }
+
         try {
             // Raising exception if the Aluminium look and feel is not found.
             Class.forName("com.jtattoo.plaf.aluminium.AluminiumLookAndFeel");
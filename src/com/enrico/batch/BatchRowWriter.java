@@ -0,0 +1,164 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.batch;
+
+import com.enrico.chemistry.formulaparser.ParseResult;
+import com.enrico.chemistry.solvedformula.SolvedFormula;
+
+/**
+ * This class writes the result of a single formula as a CSV or NDJSON row.
+ */
+final class BatchRowWriter {
+    static final String CSV_HEADER = "formula,canonical_formula,shape,compound_type,elements,error_code,error_offset,error\n";
+
+    private BatchRowWriter() {
+    }
+
+    /**
+     * @param output The builder where the row is appended.
+     * @param outputFormat The format of the row.
+     * @param formula The formula as it was read from the input.
+     * @param solvedFormula The solution of the formula.
+     */
+    static void writeRow(StringBuilder output, BatchSolver.OutputFormat outputFormat, String formula,
+                         SolvedFormula solvedFormula) {
+        String canonicalFormula = solvedFormula.getCanonicalFormula();
+        int elementsNum = solvedFormula.getElementsNum();
+        String shape = null;
+        String compoundType = null;
+
+        if (solvedFormula.isShapeSolved())
+            shape = solvedFormula.getMoleculeShape().toString();
+        if (solvedFormula.isCompoundTypeSolved())
+            compoundType = solvedFormula.getCompoundType().toString();
+
+        ParseResult parseResult = solvedFormula.getParseResult();
+        ParseResult.ErrorCode errorCode = null;
+        int errorOffset = -1;
+        String error = null;
+
+        if (!parseResult.isValid()) {
+            errorCode = parseResult.getErrorCode();
+            errorOffset = parseResult.getErrorOffset();
+            error = parseResult.getMessage();
+        } else if (shape == null && compoundType == null) {
+            errorCode = ParseResult.ErrorCode.InvalidMolecule;
+            error = solvedFormula.getShapeError();
+        }
+
+        if (outputFormat == BatchSolver.OutputFormat.CSV) {
+            appendCsvField(output, formula).append(',');
+            appendCsvField(output, canonicalFormula).append(',');
+            appendCsvField(output, shape).append(',');
+            appendCsvField(output, compoundType).append(',');
+            output.append(elementsNum).append(',');
+            appendCsvField(output, errorCode != null ? errorCode.name() : null).append(',');
+            if (errorOffset >= 0)
+                output.append(errorOffset);
+            output.append(',');
+            appendCsvField(output, error).append('\n');
+        } else {
+            output.append("{\"formula\":");
+            appendJsonString(output, formula);
+            output.append(",\"canonicalFormula\":");
+            appendJsonString(output, canonicalFormula);
+            output.append(",\"shape\":");
+            appendJsonString(output, shape);
+            output.append(",\"compoundType\":");
+            appendJsonString(output, compoundType);
+            output.append(",\"elements\":").append(elementsNum);
+            output.append(",\"errorCode\":");
+            appendJsonString(output, errorCode != null ? errorCode.name() : null);
+            output.append(",\"errorOffset\":");
+            if (errorOffset >= 0)
+                output.append(errorOffset);
+            else
+                output.append("null");
+            output.append(",\"error\":");
+            appendJsonString(output, error);
+            output.append("}\n");
+        }
+    }
+
+    private static StringBuilder appendCsvField(StringBuilder output, String field) {
+        if (field == null)
+            return output;
+
+        boolean needsQuotes = false;
+        for (int i = 0; i < field.length() && !needsQuotes; i++) {
+            char c = field.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!needsQuotes)
+            return output.append(field);
+
+        output.append('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"')
+                output.append('"');
+            output.append(c);
+        }
+
+        return output.append('"');
+    }
+
+    private static void appendJsonString(StringBuilder output, String value) {
+        if (value == null) {
+            output.append("null");
+            return;
+        }
+
+        output.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    output.append("\\\"");
+                break;
+
+                case '\\':
+                    output.append("\\\\");
+                break;
+
+                case '\n':
+                    output.append("\\n");
+                break;
+
+                case '\r':
+                    output.append("\\r");
+                break;
+
+                case '\t':
+                    output.append("\\t");
+                break;
+
+                default:
+                    if (c < 0x20)
+                        output.append(String.format("\\u%04x", (int) c));
+                    else
+                        output.append(c);
+                break;
+            }
+        }
+        output.append('"');
+    }
+}
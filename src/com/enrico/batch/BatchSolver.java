@@ -0,0 +1,200 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.batch;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * This class solves a file of formulas (one per line) without showing any window.
+ *
+ * The input file is memory mapped one region at a time and every region is split, at line boundaries, into chunks
+ * that are solved in parallel by a fork join pool. The outputs of the chunks are written in the same order of the
+ * input, so the n-th output row always belongs to the n-th input line.
+ *
+ * Usage: --batch input_file [--output output_file] [--format csv|ndjson] [--threads threads_number]
+ * If no output file is given, the rows are written to the standard output.
+ */
+public final class BatchSolver {
+    public static final String BATCH_ARGUMENT = "--batch";
+
+    // The capacity of the cache of every worker thread.
+    static final int WORKER_CACHE_CAPACITY = 4096;
+
+    // The maximum size of a mapped region of the input file, a single line can't be longer than this.
+    private static final int MAX_REGION_SIZE = 1 << 28;
+
+    // The size of a chunk solved by a single task, it is extended up to the end of its last line.
+    private static final int CHUNK_SIZE = 1 << 18;
+
+    // The number of chunks that can be solved (and kept in memory) for every thread while waiting to be written.
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    public enum OutputFormat {
+        CSV,
+        NDJSON
+    }
+
+    private final OutputFormat outputFormat;
+    private final int threadsNumber;
+
+    public BatchSolver(OutputFormat outputFormat, int threadsNumber) {
+        if (threadsNumber <= 0)
+            throw new IllegalArgumentException("The number of threads must be positive.");
+
+        this.outputFormat = outputFormat;
+        this.threadsNumber = threadsNumber;
+    }
+
+    /**
+     * This method solves every formula of the input file.
+     * @param inputPath The file with one formula per line.
+     * @param outputChannel The channel where the rows are written, it is closed at the end.
+     *
+     * @throws IOException if the input file can't be read, if a line is too long or if the output can't be written.
+     */
+    public void solve(Path inputPath, WritableByteChannel outputChannel) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threadsNumber);
+
+        try (FileChannel inputChannel = FileChannel.open(inputPath, StandardOpenOption.READ);
+             ChannelWriter writer = new ChannelWriter(outputChannel, ChannelWriter.DEFAULT_BUFFER_SIZE)) {
+
+            if (outputFormat == OutputFormat.CSV)
+                writer.write(BatchRowWriter.CSV_HEADER.getBytes(StandardCharsets.US_ASCII));
+
+            ArrayDeque<ForkJoinTask<byte[]>> pendingTasks = new ArrayDeque<>();
+            int maxPendingTasks = threadsNumber * CHUNKS_PER_THREAD;
+
+            long fileSize = inputChannel.size();
+            long regionPosition = 0;
+
+            while (regionPosition < fileSize) {
+                int regionSize = (int) Math.min(MAX_REGION_SIZE, fileSize - regionPosition);
+                MappedByteBuffer region = inputChannel.map(FileChannel.MapMode.READ_ONLY, regionPosition, regionSize);
+
+                // The region must end with a complete line, unless it is the last one.
+                if (regionPosition + regionSize < fileSize) {
+                    int lastLineEnd = regionSize - 1;
+                    while (lastLineEnd >= 0 && region.get(lastLineEnd) != '\n')
+                        lastLineEnd--;
+
+                    if (lastLineEnd < 0)
+                        throw new IOException("Line too long at byte " + regionPosition + ".");
+
+                    regionSize = lastLineEnd + 1;
+                }
+
+                int chunkStart = 0;
+                while (chunkStart < regionSize) {
+                    int chunkEnd = Math.min(chunkStart + CHUNK_SIZE, regionSize);
+                    while (chunkEnd < regionSize && region.get(chunkEnd - 1) != '\n')
+                        chunkEnd++;
+
+                    // Writing the oldest chunk before submitting a new one, so that the memory used is bounded.
+                    if (pendingTasks.size() == maxPendingTasks)
+                        writer.write(pendingTasks.removeFirst().join());
+
+                    pendingTasks.addLast(pool.submit(new FormulaChunkTask(region, chunkStart, chunkEnd, outputFormat)));
+                    chunkStart = chunkEnd;
+                }
+
+                regionPosition += regionSize;
+            }
+
+            while (!pendingTasks.isEmpty())
+                writer.write(pendingTasks.removeFirst().join());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * This method runs the batch solver from the arguments of the command line.
+     * @param args The arguments of the command line, the first one is the batch argument.
+     * @param err The stream where the errors are printed.
+     * @return the exit status of the program.
+     */
+    public static int runFromCommandLine(String[] args, PrintStream err) {
+        String inputFile = null;
+        String outputFile = null;
+        OutputFormat outputFormat = OutputFormat.CSV;
+        int threadsNumber = Runtime.getRuntime().availableProcessors();
+
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--output":
+                        outputFile = args[++i];
+                    break;
+
+                    case "--format":
+                        outputFormat = OutputFormat.valueOf(args[++i].toUpperCase());
+                    break;
+
+                    case "--threads":
+                        threadsNumber = Integer.parseInt(args[++i]);
+                    break;
+
+                    default:
+                        if (inputFile != null)
+                            throw new IllegalArgumentException("Unknown argument: " + args[i]);
+
+                        inputFile = args[i];
+                    break;
+                }
+            }
+
+            if (inputFile == null)
+                throw new IllegalArgumentException("Missing input file.");
+
+            BatchSolver solver = new BatchSolver(outputFormat, threadsNumber);
+
+            WritableByteChannel outputChannel;
+            if (outputFile == null)
+                outputChannel = Channels.newChannel(System.out);
+            else
+                outputChannel = FileChannel.open(Paths.get(outputFile), StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+            solver.solve(Paths.get(inputFile), outputChannel);
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing argument value." : e.getMessage());
+            err.println("Usage: " + BATCH_ARGUMENT
+                    + " input_file [--output output_file] [--format csv|ndjson] [--threads threads_number]");
+            return 2;
+        } catch (IOException e) {
+            err.println(e.getMessage());
+            return 1;
+        }
+
+        return 0;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.batch;
+
+import com.enrico.chemistry.solvedformula.SolvedFormulaCache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This task solves every formula (one per line) inside a chunk of the input file and returns the encoded output rows
+ * of the chunk.
+ *
+ * The chunk always starts at the beginning of a line and ends right after a line separator (or at the end of the
+ * file), so chunks can be solved independently and their outputs joined in order.
+ */
+final class FormulaChunkTask extends RecursiveTask<byte[]> {
+    // Every worker thread keeps its own cache, so that threads never contend for the same lock.
+    private static final ThreadLocal<SolvedFormulaCache> workerCache =
+            ThreadLocal.withInitial(() -> new SolvedFormulaCache(BatchSolver.WORKER_CACHE_CAPACITY));
+
+    private static final ThreadLocal<byte[]> workerLineBuffer = ThreadLocal.withInitial(() -> new byte[256]);
+
+    private final ByteBuffer region;
+    private final int start;
+    private final int end;
+    private final BatchSolver.OutputFormat outputFormat;
+
+    /**
+     * @param region The mapped region of the input file. It is only read with absolute gets, so it can be shared by
+     *               all of the tasks.
+     * @param start The index of the first byte of the chunk inside the region.
+     * @param end The index after the last byte of the chunk inside the region.
+     * @param outputFormat The format of the output rows.
+     */
+    FormulaChunkTask(ByteBuffer region, int start, int end, BatchSolver.OutputFormat outputFormat) {
+        this.region = region;
+        this.start = start;
+        this.end = end;
+        this.outputFormat = outputFormat;
+    }
+
+    @Override
+    protected byte[] compute() {
+        SolvedFormulaCache cache = workerCache.get();
+        StringBuilder output = new StringBuilder((end - start) * 4);
+
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && region.get(lineEnd) != '\n')
+                lineEnd++;
+
+            int nextLineStart = lineEnd + 1;
+
+            // Windows line separators.
+            if (lineEnd > lineStart && region.get(lineEnd - 1) == '\r')
+                lineEnd--;
+
+            // Invalid formulas don't throw, so a file full of them is solved as fast as a valid one.
+            String formula = readLine(lineStart, lineEnd);
+            BatchRowWriter.writeRow(output, outputFormat, formula, cache.trySolve(formula));
+
+            lineStart = nextLineStart;
+        }
+
+        return output.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String readLine(int lineStart, int lineEnd) {
+        int length = lineEnd - lineStart;
+
+        byte[] lineBuffer = workerLineBuffer.get();
+        if (lineBuffer.length < length) {
+            lineBuffer = new byte[Math.max(length, lineBuffer.length * 2)];
+            workerLineBuffer.set(lineBuffer);
+        }
+
+        for (int i = 0; i < length; i++)
+            lineBuffer[i] = region.get(lineStart + i);
+
+        return new String(lineBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry;
+
+import com.enrico.chemistry.atoms.scientific.CarbonScientificAtom;
+import com.enrico.chemistry.atoms.scientific.GenericScientificAtom;
+import com.enrico.chemistry.atoms.scientific.HydrogenScientificAtom;
+import com.enrico.chemistry.atoms.scientific.ScientificAtomRegistry;
+import com.enrico.chemistry.formulaparser.FormulaScanner;
+
+import java.util.Arrays;
+
+/**
+ * This class is the composition of a formula: which elements it contains, how many atoms of each and its charge.
+ * Formulas that only differ in the way they are written ("C,O2", "O2,C", "O,C,O", "CO2") have equal compositions.
+ *
+ * The elements are kept in Hill order (Carbon, Hydrogen, then the other elements in alphabetical order; if there's no
+ * Carbon, every element is in alphabetical order). Every element is packed in a single int, with the atomic number in
+ * the high bits and the number of atoms in the low bits. The 64-bit hash is computed once, so compositions are cheap
+ * keys for maps and caches, and they can be written to a compact binary form.
+ */
+public final class Composition {
+    // The number of atoms takes the low 20 bits, enough for FormulaScanner.MAX_ATOMS_NUMBER.
+    private static final int COUNT_BITS = 20;
+    private static final int COUNT_MASK = (1 << COUNT_BITS) - 1;
+
+    // Position of every element in alphabetical order of symbols, indexed by atomic number.
+    private static final int[] alphabeticalRanks = new int[ScientificAtomRegistry.ELEMENTS_NUMBER + 1];
+
+    static {
+        Integer[] atomicNumbers = new Integer[ScientificAtomRegistry.ELEMENTS_NUMBER];
+        for (int i = 0; i < atomicNumbers.length; i++)
+            atomicNumbers[i] = i + 1;
+
+        Arrays.sort(atomicNumbers, (atomicNumber1, atomicNumber2) ->
+                ScientificAtomRegistry.getSymbol(atomicNumber1).compareTo(ScientificAtomRegistry.getSymbol(atomicNumber2)));
+
+        for (int i = 0; i < atomicNumbers.length; i++)
+            alphabeticalRanks[atomicNumbers[i]] = i;
+    }
+
+    private final int[] packedElements;
+    private final int charge;
+    private final long hash;
+
+    private Composition(int[] packedElements, int charge) {
+        this.packedElements = packedElements;
+        this.charge = charge;
+        this.hash = computeHash(packedElements, charge);
+    }
+
+    /**
+     * @param elementCounts The number of atoms of every element, indexed by atomic number.
+     * @param charge The charge of the formula.
+     * @return the composition.
+     *
+     * @throws IllegalArgumentException if a number of atoms is negative or too big.
+     */
+    public static Composition fromElementCounts(int[] elementCounts, int charge) throws IllegalArgumentException {
+        int elementsNumber = 0;
+        for (int atomicNumber = 1; atomicNumber < elementCounts.length; atomicNumber++)
+            if (elementCounts[atomicNumber] != 0)
+                elementsNumber++;
+
+        int[] atomicNumbers = new int[elementsNumber];
+        int position = 0;
+        for (int atomicNumber = 1; atomicNumber < elementCounts.length; atomicNumber++)
+            if (elementCounts[atomicNumber] != 0)
+                atomicNumbers[position++] = atomicNumber;
+
+        return create(atomicNumbers, elementCounts, charge);
+    }
+
+    /**
+     * @param scanner A scanner that has just scanned a formula without errors.
+     * @return the composition of the formula scanned.
+     */
+    public static Composition fromScanner(FormulaScanner scanner) {
+        int[] atomicNumbers = new int[scanner.getDistinctElementsNumber()];
+        for (int i = 0; i < atomicNumbers.length; i++)
+            atomicNumbers[i] = scanner.getElementAt(i);
+
+        return create(atomicNumbers, scanner.getElementCounts(), scanner.getCharge());
+    }
+
+    /**
+     * @param atoms The atoms of a molecule.
+     * @return the composition of the atoms, without charge.
+     */
+    public static Composition fromAtoms(GenericScientificAtom[] atoms) {
+        int[] elementCounts = new int[ScientificAtomRegistry.ELEMENTS_NUMBER + 1];
+        for (GenericScientificAtom atom : atoms)
+            elementCounts[atom.getAtomicNumber()]++;
+
+        return fromElementCounts(elementCounts, 0);
+    }
+
+    // The atomic numbers are sorted in Hill order by insertion, a formula never has more than a few elements.
+    private static Composition create(int[] atomicNumbers, int[] elementCounts, int charge) {
+        boolean containsCarbon = false;
+        for (int atomicNumber : atomicNumbers)
+            containsCarbon |= atomicNumber == CarbonScientificAtom.ATOMIC_NUMBER;
+
+        for (int i = 1; i < atomicNumbers.length; i++) {
+            int atomicNumber = atomicNumbers[i];
+            int rank = getHillRank(atomicNumber, containsCarbon);
+
+            int position = i;
+            while (position > 0 && getHillRank(atomicNumbers[position - 1], containsCarbon) > rank) {
+                atomicNumbers[position] = atomicNumbers[position - 1];
+                position--;
+            }
+
+            atomicNumbers[position] = atomicNumber;
+        }
+
+        int[] packedElements = new int[atomicNumbers.length];
+        for (int i = 0; i < atomicNumbers.length; i++) {
+            int count = elementCounts[atomicNumbers[i]];
+            if (count <= 0 || count > COUNT_MASK)
+                throw new IllegalArgumentException("Invalid number of atoms: " + count);
+
+            packedElements[i] = (atomicNumbers[i] << COUNT_BITS) | count;
+        }
+
+        return new Composition(packedElements, charge);
+    }
+
+    private static int getHillRank(int atomicNumber, boolean containsCarbon) {
+        if (containsCarbon) {
+            if (atomicNumber == CarbonScientificAtom.ATOMIC_NUMBER)
+                return 0;
+            if (atomicNumber == HydrogenScientificAtom.ATOMIC_NUMBER)
+                return 1;
+
+            return 2 + alphabeticalRanks[atomicNumber];
+        }
+
+        return alphabeticalRanks[atomicNumber];
+    }
+
+    private static long computeHash(int[] packedElements, int charge) {
+        long hash = 0x9E3779B97F4A7C15L;
+
+        for (int packedElement : packedElements)
+            hash = mix(hash ^ packedElement);
+
+        return mix(hash ^ ((long) charge << 32) ^ packedElements.length);
+    }
+
+    // Finalizer of MurmurHash3, every bit of the input changes about half of the bits of the output.
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    public int getElementsNumber() {
+        return packedElements.length;
+    }
+
+    /**
+     * @param position The position of the element in Hill order.
+     * @return the atomic number of the element.
+     */
+    public int getAtomicNumberAt(int position) {
+        return packedElements[position] >>> COUNT_BITS;
+    }
+
+    /**
+     * @param position The position of the element in Hill order.
+     * @return the number of atoms of the element.
+     */
+    public int getCountAt(int position) {
+        return packedElements[position] & COUNT_MASK;
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @return the number of atoms of the element, 0 if the element is not part of the composition.
+     */
+    public int getCount(int atomicNumber) {
+        for (int packedElement : packedElements)
+            if (packedElement >>> COUNT_BITS == atomicNumber)
+                return packedElement & COUNT_MASK;
+
+        return 0;
+    }
+
+    public int getAtomsNumber() {
+        int atomsNumber = 0;
+        for (int packedElement : packedElements)
+            atomsNumber += packedElement & COUNT_MASK;
+
+        return atomsNumber;
+    }
+
+    public int getCharge() {
+        return charge;
+    }
+
+    public long getHash64() {
+        return hash;
+    }
+
+    /**
+     * This method writes the composition in a compact binary form: the number of elements, then the atomic number
+     * (one byte) and the number of atoms (variable length) of every element, then the charge (variable length).
+     * @return the encoded composition.
+     */
+    public byte[] toBytes() {
+        byte[] buffer = new byte[1 + packedElements.length * 4 + 5];
+        int length = 0;
+
+        buffer[length++] = (byte) packedElements.length;
+
+        for (int packedElement : packedElements) {
+            buffer[length++] = (byte) (packedElement >>> COUNT_BITS);
+            length = writeVarInt(buffer, length, packedElement & COUNT_MASK);
+        }
+
+        // Zig-zag encoding, so that small negative charges take a single byte too.
+        length = writeVarInt(buffer, length, (charge << 1) ^ (charge >> 31));
+
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * @param bytes A composition written by toBytes().
+     * @return the composition.
+     *
+     * @throws IllegalArgumentException if the bytes are not a valid composition.
+     */
+    public static Composition fromBytes(byte[] bytes) throws IllegalArgumentException {
+        int[] position = {0};
+
+        int elementsNumber = readByte(bytes, position);
+        int[] atomicNumbers = new int[elementsNumber];
+        int[] elementCounts = new int[ScientificAtomRegistry.ELEMENTS_NUMBER + 1];
+
+        for (int i = 0; i < elementsNumber; i++) {
+            int atomicNumber = readByte(bytes, position);
+            if (atomicNumber <= 0 || atomicNumber > ScientificAtomRegistry.ELEMENTS_NUMBER || elementCounts[atomicNumber] != 0)
+                throw new IllegalArgumentException("Invalid composition encoding.");
+
+            atomicNumbers[i] = atomicNumber;
+            elementCounts[atomicNumber] = readVarInt(bytes, position);
+        }
+
+        int encodedCharge = readVarInt(bytes, position);
+        if (position[0] != bytes.length)
+            throw new IllegalArgumentException("Invalid composition encoding.");
+
+        return create(atomicNumbers, elementCounts, (encodedCharge >>> 1) ^ -(encodedCharge & 1));
+    }
+
+    private static int writeVarInt(byte[] buffer, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static int readByte(byte[] bytes, int[] position) {
+        if (position[0] >= bytes.length)
+            throw new IllegalArgumentException("Invalid composition encoding.");
+
+        return bytes[position[0]++] & 0xFF;
+    }
+
+    private static int readVarInt(byte[] bytes, int[] position) {
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            int currentByte = readByte(bytes, position);
+            value |= (currentByte & 0x7F) << shift;
+
+            if ((currentByte & 0x80) == 0)
+                return value;
+        }
+
+        throw new IllegalArgumentException("Invalid composition encoding.");
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object)
+            return true;
+        if (!(object instanceof Composition))
+            return false;
+
+        Composition composition = (Composition) object;
+        return hash == composition.hash && charge == composition.charge &&
+               Arrays.equals(packedElements, composition.packedElements);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * @return the formula written in Hill order, with the charge at the end (eg: "CO2", "O4S^2-").
+     */
+    @Override
+    public String toString() {
+        StringBuilder formula = new StringBuilder();
+
+        for (int i = 0; i < packedElements.length; i++) {
+            formula.append(ScientificAtomRegistry.getSymbol(getAtomicNumberAt(i)));
+            if (getCountAt(i) > 1)
+                formula.append(getCountAt(i));
+        }
+
+        if (charge != 0) {
+            formula.append('^');
+            if (Math.abs(charge) > 1)
+                formula.append(Math.abs(charge));
+            formula.append(charge > 0 ? '+' : '-');
+        }
+
+        return formula.toString();
+    }
+}
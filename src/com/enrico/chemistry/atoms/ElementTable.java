@@ -0,0 +1,333 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.atoms;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class holds the data of every element of the periodic table, indexed by atomic number.
+ *
+ * The data is stored once, as a structure of arrays: atoms only keep their atomic number and read everything else
+ * from here, so that a canvas with thousands of atoms doesn't hold thousands of copies of the same element data.
+ * Index 0 is not an element and it is left empty.
+ *
+ * The arrays are filled once, when the class is loaded, from the element catalogue resource: a CSV file with an
+ * element per line. A missing or broken catalogue is an internal error and it stops the class from loading.
+ *
+ * The rules that depend on the kind of element (can it be used, is it a metal, can it double bond etc...) are
+ * precomputed into a capability bitmask per element, so that checking a rule is a single mask test.
+ */
+public final class ElementTable {
+    public static final int ELEMENTS_NUMBER = 118;
+
+    public static final String CATALOGUE_RESOURCE = "elements/element_catalogue.csv";
+
+    // The atomic numbers of the noble gasses, which close every period (0 opens the first one).
+    private static final int[] NOBLE_GAS_ATOMIC_NUMBERS = {0, 2, 10, 18, 36, 54, 86, 118};
+
+    private static final int CATALOGUE_COLUMNS = 13;
+
+    // Capabilities of the elements.
+    public static final int CAPABILITY_USABLE = 1;
+    public static final int CAPABILITY_METAL = 1 << 1;
+    public static final int CAPABILITY_NON_METAL = 1 << 2;
+    public static final int CAPABILITY_NOBLE_GAS = 1 << 3;
+    public static final int CAPABILITY_HALOGEN = 1 << 4;
+    public static final int CAPABILITY_DOUBLE_BOND = 1 << 5;
+    public static final int CAPABILITY_TRIPLE_BOND = 1 << 6;
+    // Only Fluorine can bond to noble gasses.
+    public static final int CAPABILITY_NOBLE_GAS_BOND = 1 << 7;
+
+    // The maximum valence (the standard bonds of the molecule builder) is stored inside the upper bits of the mask.
+    private static final int MAX_VALENCE_SHIFT = 8;
+    private static final int MAX_VALENCE_MASK = 0xF << MAX_VALENCE_SHIFT;
+
+    private static final String NOBLE_GAS_BONDING_SYMBOL = "F";
+
+    private static final String[] symbols = new String[ELEMENTS_NUMBER + 1];
+    private static final String[] completeNames = new String[ELEMENTS_NUMBER + 1];
+    private static final double[] atomicMasses = new double[ELEMENTS_NUMBER + 1];
+    private static final double[] electronegativities = new double[ELEMENTS_NUMBER + 1];
+    private static final int[] bondElectronsNumbers = new int[ELEMENTS_NUMBER + 1];
+    private static final int[] doublets = new int[ELEMENTS_NUMBER + 1];
+    private static final int[] ionizationEnergies = new int[ELEMENTS_NUMBER + 1];
+    private static final GenericAtom.AtomClassType[] classTypes = new GenericAtom.AtomClassType[ELEMENTS_NUMBER + 1];
+
+    private static final int[] capabilities = new int[ELEMENTS_NUMBER + 1];
+
+    // Molecule builder data.
+    private static final String[] iconPaths = new String[ELEMENTS_NUMBER + 1];
+
+    static {
+        try (InputStream stream = ElementTable.class.getClassLoader().getResourceAsStream(CATALOGUE_RESOURCE)) {
+            if (stream == null)
+                throw new IllegalStateException("Element catalogue " + CATALOGUE_RESOURCE + " not found.");
+
+            loadCatalogue(new BufferedReader(new InputStreamReader(stream, StandardCharsets.US_ASCII)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't read the element catalogue: " + e.getMessage(), e);
+        }
+    }
+
+    private ElementTable() {
+    }
+
+    private static void loadCatalogue(BufferedReader reader) throws IOException {
+        String line;
+        int lineNumber = 0;
+        int elementsLoaded = 0;
+        boolean headerFound = false;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+
+            // The first line that is not a comment holds the names of the columns.
+            if (!headerFound) {
+                headerFound = true;
+                continue;
+            }
+
+            String[] columns = line.split(",", -1);
+            if (columns.length != CATALOGUE_COLUMNS)
+                throw new IllegalStateException("Element catalogue, line " + lineNumber + ": expected " +
+                                                CATALOGUE_COLUMNS + " columns, found " + columns.length + ".");
+
+            try {
+                int atomicNumber = Integer.parseInt(columns[0]);
+                if (!isElement(atomicNumber) || symbols[atomicNumber] != null)
+                    throw new IllegalStateException("Element catalogue, line " + lineNumber +
+                                                    ": invalid atomic number " + atomicNumber + ".");
+
+                symbols[atomicNumber] = columns[1];
+                completeNames[atomicNumber] = columns[2];
+                atomicMasses[atomicNumber] = Double.parseDouble(columns[3]);
+                electronegativities[atomicNumber] = Double.parseDouble(columns[4]);
+                bondElectronsNumbers[atomicNumber] = Integer.parseInt(columns[5]);
+                doublets[atomicNumber] = Integer.parseInt(columns[6]);
+                ionizationEnergies[atomicNumber] = Integer.parseInt(columns[7]);
+                classTypes[atomicNumber] = GenericAtom.AtomClassType.valueOf(columns[8]);
+                capabilities[atomicNumber] = computeCapabilities(atomicNumber, Integer.parseInt(columns[9]),
+                                                                 columns[10].equals("1"), columns[11].equals("1"));
+                iconPaths[atomicNumber] = columns[12].isEmpty() ? null : columns[12];
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException is an IllegalArgumentException too.
+                throw new IllegalStateException("Element catalogue, line " + lineNumber + ": " + e.getMessage(), e);
+            }
+
+            elementsLoaded++;
+        }
+
+        if (elementsLoaded != ELEMENTS_NUMBER)
+            throw new IllegalStateException("Element catalogue: expected " + ELEMENTS_NUMBER + " elements, found " +
+                                            elementsLoaded + ".");
+    }
+
+    private static int computeCapabilities(int atomicNumber, int maxValence, boolean doubleBond, boolean tripleBond) {
+        if (maxValence < 0 || maxValence > (MAX_VALENCE_MASK >> MAX_VALENCE_SHIFT))
+            throw new IllegalArgumentException("invalid standard bonds " + maxValence + ".");
+
+        GenericAtom.AtomClassType classType = classTypes[atomicNumber];
+        int mask = maxValence << MAX_VALENCE_SHIFT;
+
+        // Elements whose electronegativity is not known can't be used for any operation.
+        if (electronegativities[atomicNumber] != 0)
+            mask |= CAPABILITY_USABLE;
+
+        if (classType == GenericAtom.AtomClassType.NotMetals || classType == GenericAtom.AtomClassType.NobleGasses)
+            mask |= CAPABILITY_NON_METAL;
+        else if (classType != GenericAtom.AtomClassType.Halogens)
+            mask |= CAPABILITY_METAL;
+
+        if (classType == GenericAtom.AtomClassType.NobleGasses)
+            mask |= CAPABILITY_NOBLE_GAS;
+        if (classType == GenericAtom.AtomClassType.Halogens)
+            mask |= CAPABILITY_HALOGEN;
+
+        if (doubleBond)
+            mask |= CAPABILITY_DOUBLE_BOND;
+        if (tripleBond)
+            mask |= CAPABILITY_TRIPLE_BOND;
+
+        if (symbols[atomicNumber].equals(NOBLE_GAS_BONDING_SYMBOL))
+            mask |= CAPABILITY_NOBLE_GAS_BOND;
+
+        return mask;
+    }
+
+    /**
+     * @param atomicNumber The atomic number to check.
+     * @return true if an element with this atomic number exists.
+     */
+    public static boolean isElement(int atomicNumber) {
+        return atomicNumber > 0 && atomicNumber <= ELEMENTS_NUMBER;
+    }
+
+    public static String getSymbol(int atomicNumber) {
+        return symbols[atomicNumber];
+    }
+
+    public static String getCompleteName(int atomicNumber) {
+        return completeNames[atomicNumber];
+    }
+
+    public static double getAtomicMass(int atomicNumber) {
+        return atomicMasses[atomicNumber];
+    }
+
+    public static double getElectronegativity(int atomicNumber) {
+        return electronegativities[atomicNumber];
+    }
+
+    public static int getBondElectronsNumber(int atomicNumber) {
+        return bondElectronsNumbers[atomicNumber];
+    }
+
+    public static int getDoublets(int atomicNumber) {
+        return doublets[atomicNumber];
+    }
+
+    public static int getIonizationEnergy(int atomicNumber) {
+        return ionizationEnergies[atomicNumber];
+    }
+
+    public static GenericAtom.AtomClassType getClassType(int atomicNumber) {
+        return classTypes[atomicNumber];
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @return the number of bonds that a graphical atom of the element can do.
+     */
+    public static int getMaxValence(int atomicNumber) {
+        return (capabilities[atomicNumber] & MAX_VALENCE_MASK) >> MAX_VALENCE_SHIFT;
+    }
+
+    public static boolean canDoubleBond(int atomicNumber) {
+        return hasCapabilities(atomicNumber, CAPABILITY_DOUBLE_BOND);
+    }
+
+    public static boolean canTripleBond(int atomicNumber) {
+        return hasCapabilities(atomicNumber, CAPABILITY_TRIPLE_BOND);
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @return the resource path of the icon of the element, or null if the element can't be drawn.
+     */
+    public static String getIconPath(int atomicNumber) {
+        return iconPaths[atomicNumber];
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @return true if the element can be drawn inside the molecule builder.
+     */
+    public static boolean isDrawable(int atomicNumber) {
+        return isElement(atomicNumber) && iconPaths[atomicNumber] != null;
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @return the capability bitmask of the element, made of the CAPABILITY_ flags and of the maximum valence.
+     */
+    public static int getCapabilities(int atomicNumber) {
+        return capabilities[atomicNumber];
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @param capabilityMask One or more CAPABILITY_ flags.
+     * @return true if the element has all of the capabilities.
+     */
+    public static boolean hasCapabilities(int atomicNumber, int capabilityMask) {
+        return (capabilities[atomicNumber] & capabilityMask) == capabilityMask;
+    }
+
+    /**
+     * @param capabilities A capability bitmask.
+     * @param capabilityMask One or more CAPABILITY_ flags.
+     * @return true if the bitmask contains at least one of the capabilities, it is meant to be used with the union of
+     * the masks of many elements.
+     */
+    public static boolean hasAnyCapability(int capabilities, int capabilityMask) {
+        return (capabilities & capabilityMask) != 0;
+    }
+
+    public static boolean isMetal(int atomicNumber) {
+        return hasCapabilities(atomicNumber, CAPABILITY_METAL);
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @return the period (row) of the element inside the periodic table, from 1 to 7.
+     */
+    public static int getPeriod(int atomicNumber) {
+        int period = 1;
+        while (atomicNumber > NOBLE_GAS_ATOMIC_NUMBERS[period])
+            period++;
+
+        return period;
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @return true if the element belongs to the s or p block (the main groups).
+     */
+    public static boolean isMainGroup(int atomicNumber) {
+        int period = getPeriod(atomicNumber);
+        int position = atomicNumber - NOBLE_GAS_ATOMIC_NUMBERS[period - 1];
+
+        if (period <= 3)
+            return true;
+
+        // The d block is 10 elements long from period 4, the f block adds 14 more from period 6.
+        int innerBlocks = period <= 5 ? 10 : 24;
+        return position <= 2 || position > innerBlocks + 2;
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @return the number of valence electrons of the element: the electrons of its outer shell for the main groups,
+     * the s and d electrons for the transition metals and 3 for the lanthanides and the actinides.
+     */
+    public static int getValenceElectrons(int atomicNumber) {
+        int period = getPeriod(atomicNumber);
+        int position = atomicNumber - NOBLE_GAS_ATOMIC_NUMBERS[period - 1];
+
+        if (period <= 3 || position <= 2)
+            return position;
+
+        if (period <= 5)
+            return position > 12 ? position - 10 : position;
+
+        if (position > 26)
+            return position - 24;
+
+        // d block after the f block.
+        return position > 16 ? position - 14 : 3;
+    }
+}
@@ -21,17 +21,8 @@ package com.enrico.chemistry.atoms;
 
 public abstract class GenericAtom {
 
-    protected final String symbol;
-    protected final String completeName;
-
+    // The element data is shared by all of the atoms of the same element, inside the element table.
     protected final int atomicNumber;
-    protected final double atomicMass;
-    protected final double electronegativity;
-    protected final int doublets;
-    protected final int bondElectronsNumber;
-    protected final int ionizationEnergy;
-
-    protected final AtomClassType classType;
 
     public enum AtomClassType {
         AlkalineMetals {
@@ -96,17 +87,16 @@ public abstract class GenericAtom {
         }
     }
 
-    public GenericAtom(String symbol, String completeName, int atomicNumber, double atomicMass, double electronegativity,
-                                 int bondElectronsNumber, int doublets, int ionizationEnergy, AtomClassType classType) {
-        this.symbol = symbol;
-        this.completeName = completeName;
+    /**
+     * @param atomicNumber The atomic number of the atom, used to read its data from the element table.
+     *
+     * @throws IllegalArgumentException if there's no element with this atomic number.
+     */
+    public GenericAtom(int atomicNumber) throws IllegalArgumentException {
+        if (!ElementTable.isElement(atomicNumber))
+            throw new IllegalArgumentException("Invalid atomic number: " + atomicNumber);
+
         this.atomicNumber = atomicNumber;
-        this.atomicMass = atomicMass;
-        this.electronegativity = electronegativity;
-        this.doublets = doublets;
-        this.classType = classType;
-        this.bondElectronsNumber = bondElectronsNumber;
-        this.ionizationEnergy = ionizationEnergy;
     }
 
     public int getAtomicNumber() {
@@ -114,38 +104,53 @@ public abstract class GenericAtom {
     }
 
     public double getAtomicMass() {
-        return atomicMass;
+        return ElementTable.getAtomicMass(atomicNumber);
     }
 
     public double getElectronegativity() {
-        return electronegativity;
+        return ElementTable.getElectronegativity(atomicNumber);
     }
 
     public String getSymbol() {
-        return symbol;
+        return ElementTable.getSymbol(atomicNumber);
     }
 
     public String getCompleteName() {
-        return completeName;
+        return ElementTable.getCompleteName(atomicNumber);
     }
 
     public AtomClassType getClassType() {
-        return classType;
+        return ElementTable.getClassType(atomicNumber);
     }
 
     public int getDoublets() {
-        return doublets;
+        return ElementTable.getDoublets(atomicNumber);
     }
 
     public int getBondElectronsNumber() {
-        return bondElectronsNumber;
+        return ElementTable.getBondElectronsNumber(atomicNumber);
     }
 
     public int getIonizationEnergy() {
-        return ionizationEnergy;
+        return ElementTable.getIonizationEnergy(atomicNumber);
     }
 
     public boolean isMetal() {
-        return classType != AtomClassType.Halogens && classType != AtomClassType.NotMetals && classType != AtomClassType.NobleGasses;
+        return ElementTable.isMetal(atomicNumber);
+    }
+
+    /**
+     * @return the capability bitmask of the element of the atom.
+     */
+    public int getCapabilities() {
+        return ElementTable.getCapabilities(atomicNumber);
+    }
+
+    /**
+     * @param capabilityMask One or more ElementTable.CAPABILITY_ flags.
+     * @return true if the atom has all of the capabilities.
+     */
+    public boolean hasCapabilities(int capabilityMask) {
+        return ElementTable.hasCapabilities(atomicNumber, capabilityMask);
     }
 }
@@ -24,7 +24,6 @@ import com.enrico.interfaces.atoms.nonmetals.CarbonAtomInterface;
 public class CarbonScientificAtom extends GenericScientificAtom implements CarbonAtomInterface {
 
     public CarbonScientificAtom() {
-        super(ATOM_SYMBOL, ATOM_NAME, ATOMIC_NUMBER, ATOMIC_MASS, ELECTRONEGATIVITY,
-              BONDING_ELECTRONS, DOUBLETS, IONIZATION_NUMBER, AtomClassType.NotMetals);
+        super(ATOMIC_NUMBER);
     }
 }
@@ -24,7 +24,6 @@ import com.enrico.interfaces.atoms.halogens.ChlorineAtomInterface;
 public class ChlorineScientificAtom extends GenericScientificAtom implements ChlorineAtomInterface {
 
     public ChlorineScientificAtom() {
-        super(ATOM_SYMBOL, ATOM_NAME, ATOMIC_NUMBER, ATOMIC_MASS, ELECTRONEGATIVITY,
-                BONDING_ELECTRONS, DOUBLETS, IONIZATION_NUMBER, CLASS_TYPE);
+        super(ATOMIC_NUMBER);
     }
 }
@@ -1,4 +1,3 @@
-
 /*
  * Chem solver. A multi-platform chemistry and physics problem solver.
  *  Copyright (C) 2019 - 2020  Giacalone Enrico
@@ -18,18 +17,15 @@
  *
  */
 
-package com.enrico.interfaces.atoms.actinides;
+package com.enrico.chemistry.atoms.scientific;
 
-import com.enrico.chemistry.atoms.GenericAtom;
+/**
+ * This class is a scientific atom whose data is read from the element table, it is used for all of the elements
+ * that don't need a class of their own.
+ */
+public class ElementScientificAtom extends GenericScientificAtom {
 
-public interface CuriumAtomInterface {
-    String ATOM_SYMBOL = "Cm";
-    String ATOM_NAME = "Curium";
-    int ATOMIC_NUMBER = 96;
-    int BONDING_ELECTRONS = 2;
-    int IONIZATION_NUMBER = 581;
-    int DOUBLETS = 1;
-    double ATOMIC_MASS = 247;
-    double ELECTRONEGATIVITY = 1.3;
-    GenericAtom.AtomClassType CLASS_TYPE = GenericAtom.AtomClassType.Actinides;
+    public ElementScientificAtom(int atomicNumber) {
+        super(atomicNumber);
+    }
 }
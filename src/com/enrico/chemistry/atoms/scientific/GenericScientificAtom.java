@@ -19,7 +19,7 @@
 
 package com.enrico.chemistry.atoms.scientific;
 
-import com.enrico.annotations.chemistry.UnusableAtom;
+import com.enrico.chemistry.atoms.ElementTable;
 import com.enrico.chemistry.atoms.GenericAtom;
 
 public abstract class GenericScientificAtom extends GenericAtom {
@@ -30,10 +30,8 @@ public abstract class GenericScientificAtom extends GenericAtom {
         Ionic
     }
 
-    public GenericScientificAtom(String symbol, String completeName, int atomicNumber, double atomicMass, double electronegativity,
-                                 int bondElectronsNumber, int doublets, int ionizationEnergy, AtomClassType classType) {
-
-        super(symbol, completeName, atomicNumber, atomicMass, electronegativity, bondElectronsNumber, doublets, ionizationEnergy, classType);
+    public GenericScientificAtom(int atomicNumber) {
+        super(atomicNumber);
     }
 
     public static double getElectronegativityDifference(GenericScientificAtom genericAtom1, GenericScientificAtom genericAtom2) {
@@ -75,9 +73,17 @@ public abstract class GenericScientificAtom extends GenericAtom {
     }
 
     public static void checkIfUsable(GenericScientificAtom genericAtom) throws IllegalArgumentException {
-        if (genericAtom.getClass().isAnnotationPresent(UnusableAtom.class))
-            throw new IllegalArgumentException("Atom " + genericAtom.getCompleteName()
-                    + "(" + genericAtom.getSymbol()+") is not usable and no operations can be" +
-                    " done with it.");
+        if (!isUsable(genericAtom))
+            throw new IllegalArgumentException(getUnusableAtomMessage(genericAtom));
+    }
+
+    public static boolean isUsable(GenericScientificAtom genericAtom) {
+        return genericAtom.hasCapabilities(ElementTable.CAPABILITY_USABLE);
+    }
+
+    public static String getUnusableAtomMessage(GenericScientificAtom genericAtom) {
+        return "Atom " + genericAtom.getCompleteName()
+                + "(" + genericAtom.getSymbol()+") is not usable and no operations can be" +
+                " done with it.";
     }
-}
\ No newline at end of file
+}
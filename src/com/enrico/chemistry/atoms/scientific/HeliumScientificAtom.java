@@ -26,7 +26,6 @@ import com.enrico.interfaces.atoms.noblegasses.HeliumAtomInterface;
 public class HeliumScientificAtom extends GenericScientificAtom implements HeliumAtomInterface {
 
     public HeliumScientificAtom() {
-        super(ATOM_SYMBOL, ATOM_NAME, ATOMIC_NUMBER, ATOMIC_MASS, ELECTRONEGATIVITY,
-              BONDING_ELECTRONS, DOUBLETS, IONIZATION_ENERGY, CLASS_TYPE);
+        super(ATOMIC_NUMBER);
     }
 }
@@ -24,7 +24,6 @@ import com.enrico.interfaces.atoms.nonmetals.HydrogenAtomInterface;
 public class HydrogenScientificAtom extends GenericScientificAtom implements HydrogenAtomInterface {
 
     public HydrogenScientificAtom() {
-        super(ATOM_SYMBOL, ATOM_NAME, ATOMIC_NUMBER, ATOMIC_MASS, ELECTRONEGATIVITY,
-                BONDING_ELECTRONS, DOUBLETS, IONIZATION_ENERGY, CLASS_TYPE);
+        super(ATOMIC_NUMBER);
     }
 }
@@ -0,0 +1,139 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.atoms.scientific;
+
+import com.enrico.chemistry.atoms.ElementTable;
+
+/**
+ * This class holds a single, immutable scientific atom for every element of the periodic table.
+ *
+ * Symbols are resolved through a table indexed by their characters: the first (upper case) letter selects a row and
+ * the second (lower case) letter, if any, selects a column. Resolving a symbol never allocates and takes constant time.
+ * Elements without a known electronegativity, like the noble gasses that don't bond, are unusable atoms.
+ */
+public final class ScientificAtomRegistry {
+    public static final int ELEMENTS_NUMBER = ElementTable.ELEMENTS_NUMBER;
+
+    // A column for every lower case letter, plus the first column used by single letter symbols.
+    private static final int SYMBOL_TABLE_ROW_SIZE = 27;
+
+    private static final GenericScientificAtom[] atoms = new GenericScientificAtom[ELEMENTS_NUMBER + 1];
+    private static final byte[] symbolTable = new byte[26 * SYMBOL_TABLE_ROW_SIZE];
+
+    static {
+        // Elements that have a class of their own.
+        register(new HydrogenScientificAtom());
+        register(new HeliumScientificAtom());
+        register(new CarbonScientificAtom());
+        register(new NitrogenScientificAtom());
+        register(new OxygenScientificAtom());
+        register(new FluorineScientificAtom());
+        register(new SiliconScientificAtom());
+        register(new PhosphorusScientificAtom());
+        register(new SulfurScientificAtom());
+        register(new ChlorineScientificAtom());
+
+        for (int atomicNumber = 1; atomicNumber <= ELEMENTS_NUMBER; atomicNumber++) {
+            if (atoms[atomicNumber] != null)
+                continue;
+
+            if (!ElementTable.hasCapabilities(atomicNumber, ElementTable.CAPABILITY_USABLE))
+                register(new UnusableElementScientificAtom(atomicNumber));
+            else
+                register(new ElementScientificAtom(atomicNumber));
+        }
+    }
+
+    private ScientificAtomRegistry() {
+    }
+
+    private static void register(GenericScientificAtom atom) {
+        String symbol = atom.getSymbol();
+        int symbolIndex = getSymbolIndex(symbol.charAt(0), symbol.length() > 1 ? symbol.charAt(1) : 0);
+
+        atoms[atom.getAtomicNumber()] = atom;
+        symbolTable[symbolIndex] = (byte) atom.getAtomicNumber();
+    }
+
+    // Returns the index of a symbol inside the symbol table, or -1 if the characters can't make up a symbol.
+    private static int getSymbolIndex(char firstChar, char secondChar) {
+        if (firstChar < 'A' || firstChar > 'Z')
+            return -1;
+
+        if (secondChar == 0)
+            return (firstChar - 'A') * SYMBOL_TABLE_ROW_SIZE;
+
+        if (secondChar < 'a' || secondChar > 'z')
+            return -1;
+
+        return (firstChar - 'A') * SYMBOL_TABLE_ROW_SIZE + (secondChar - 'a' + 1);
+    }
+
+    /**
+     * This method returns the atomic number of an atom starting from the characters of its symbol.
+     * @param firstChar The first character of the symbol.
+     * @param secondChar The second character of the symbol, 0 for single letter symbols.
+     * @return the atomic number of the atom, or 0 if the symbol is not known.
+     */
+    public static int getAtomicNumber(char firstChar, char secondChar) {
+        int symbolIndex = getSymbolIndex(firstChar, secondChar);
+        return symbolIndex < 0 ? 0 : symbolTable[symbolIndex];
+    }
+
+    /**
+     * @param symbol The symbol of the atom, eg: "Fe".
+     * @return the atomic number of the atom, or 0 if the symbol is not known.
+     */
+    public static int getAtomicNumber(CharSequence symbol) {
+        if (symbol.length() == 1)
+            return getAtomicNumber(symbol.charAt(0), (char) 0);
+        if (symbol.length() == 2)
+            return getAtomicNumber(symbol.charAt(0), symbol.charAt(1));
+
+        return 0;
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the atom.
+     * @return the atom, or null if the atomic number is not valid.
+     */
+    public static GenericScientificAtom getAtom(int atomicNumber) {
+        if (atomicNumber <= 0 || atomicNumber > ELEMENTS_NUMBER)
+            return null;
+
+        return atoms[atomicNumber];
+    }
+
+    /**
+     * @param symbol The symbol of the atom, eg: "Fe".
+     * @return the atom, or null if the symbol is not known.
+     */
+    public static GenericScientificAtom getAtom(CharSequence symbol) {
+        return getAtom(getAtomicNumber(symbol));
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the atom.
+     * @return the symbol of the atom, or null if the atomic number is not valid.
+     */
+    public static String getSymbol(int atomicNumber) {
+        return ElementTable.isElement(atomicNumber) ? ElementTable.getSymbol(atomicNumber) : null;
+    }
+}
@@ -1,4 +1,3 @@
-
 /*
  * Chem solver. A multi-platform chemistry and physics problem solver.
  *  Copyright (C) 2019 - 2020  Giacalone Enrico
@@ -18,18 +17,18 @@
  *
  */
 
-package com.enrico.interfaces.atoms.actinides;
+package com.enrico.chemistry.atoms.scientific;
+
+import com.enrico.annotations.chemistry.UnusableAtom;
 
-import com.enrico.chemistry.atoms.GenericAtom;
+/**
+ * This class is an element scientific atom that can't be used for any operation, like the noble gasses that don't
+ * bond or the elements whose electronegativity is not known.
+ */
+@UnusableAtom
+public class UnusableElementScientificAtom extends ElementScientificAtom {
 
-public interface CaliforniumAtomInterface {
-    String ATOM_SYMBOL = "Cf";
-    String ATOM_NAME = "Californium";
-    int ATOMIC_NUMBER = 98;
-    int BONDING_ELECTRONS = 2;
-    int IONIZATION_NUMBER = 608;
-    int DOUBLETS = 1;
-    double ATOMIC_MASS = 251;
-    double ELECTRONEGATIVITY = 1.3;
-    GenericAtom.AtomClassType CLASS_TYPE = GenericAtom.AtomClassType.Actinides;
+    public UnusableElementScientificAtom(int atomicNumber) {
+        super(atomicNumber);
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.equation;
+
+/**
+ * This class is the result of the balancing of a chemical equation.
+ *
+ * Like a solved formula, it never throws: if the equation can't be balanced, the error message is stored instead of
+ * the coefficients.
+ */
+public final class BalancedEquation {
+    private final String equation;
+    private final String[] reactants;
+    private final String[] products;
+    private final long[] coefficients;
+    private final String error;
+
+    BalancedEquation(String equation, String[] reactants, String[] products, long[] coefficients) {
+        this.equation = equation;
+        this.reactants = reactants;
+        this.products = products;
+        this.coefficients = coefficients;
+        this.error = null;
+    }
+
+    BalancedEquation(String equation, String[] reactants, String[] products, String error) {
+        this.equation = equation;
+        this.reactants = reactants;
+        this.products = products;
+        this.coefficients = null;
+        this.error = error;
+    }
+
+    public String getEquation() {
+        return equation;
+    }
+
+    public boolean isBalanced() {
+        return coefficients != null;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public int getReactantsNumber() {
+        return reactants != null ? reactants.length : 0;
+    }
+
+    public int getProductsNumber() {
+        return products != null ? products.length : 0;
+    }
+
+    /**
+     * @param species The index of the species, reactants come first and then products.
+     * @return the formula of the species.
+     */
+    public String getFormula(int species) {
+        return species < reactants.length ? reactants[species] : products[species - reactants.length];
+    }
+
+    /**
+     * @param species The index of the species, reactants come first and then products.
+     * @return the coefficient of the species.
+     */
+    public long getCoefficient(int species) {
+        return coefficients[species];
+    }
+
+    /**
+     * @return a copy of the coefficients, reactants first and then products, or null if the equation isn't balanced.
+     */
+    public long[] getCoefficients() {
+        return coefficients != null ? coefficients.clone() : null;
+    }
+
+    /**
+     * @return the balanced equation (eg: "2H2 + O2 -> 2H2O"), or the error if the equation can't be balanced.
+     */
+    @Override
+    public String toString() {
+        if (coefficients == null)
+            return error;
+
+        StringBuilder balancedEquation = new StringBuilder();
+
+        for (int i = 0; i < coefficients.length; i++) {
+            if (i == reactants.length)
+                balancedEquation.append(" -> ");
+            else if (i > 0)
+                balancedEquation.append(" + ");
+
+            if (coefficients[i] != 1)
+                balancedEquation.append(coefficients[i]);
+            balancedEquation.append(getFormula(i));
+        }
+
+        return balancedEquation.toString();
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.equation;
+
+import com.enrico.chemistry.Composition;
+import com.enrico.chemistry.formulaparser.FormulaParser;
+import com.enrico.chemistry.formulaparser.ParseResult;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class balances chemical equations written as "reactants -> products" (eg: "H2 + O2 -> H2O").
+ *
+ * Every species is parsed with FormulaParser and the matrix of the atoms of every element (and the charge, if any)
+ * for every species is built, with negative values for the products. The coefficients are the null space of this
+ * matrix, found with fraction-free (Bareiss) Gaussian elimination: every division is exact, so the whole calculation
+ * is done on longs without fractions and without round-off. An overflow is reported as an error.
+ *
+ * Coefficients already written in front of the species are ignored. The arrow can be written as "->", "=>", "=", "<->",
+ * "<=>" or with the arrow character, and the species are separated by a '+', with or without spaces ("H2+O2->H2O").
+ * A '+' is read as a charge when it belongs to a charge written after '^' ("Fe^3++Cl^-") or when it ends a species,
+ * that is when it is followed by another '+' or by the end of the side ("Na++Cl- -> NaCl").
+ */
+public final class EquationBalancer {
+    // Under this number of equations a batch is balanced by a single task.
+    private static final int BATCH_THRESHOLD = 64;
+
+    private static final String[] arrows = {"<=>", "<->", "->", "=>", "\u2192", "\u21CC", "="};
+
+    private EquationBalancer() {
+    }
+
+    /**
+     * @param equation The equation to balance.
+     * @return the balanced equation, or the reason why it can't be balanced.
+     */
+    public static BalancedEquation balance(String equation) {
+        String reactantsSide = null;
+        String productsSide = null;
+
+        for (String arrow : arrows) {
+            int arrowIndex = equation.indexOf(arrow);
+            if (arrowIndex >= 0) {
+                reactantsSide = equation.substring(0, arrowIndex);
+                productsSide = equation.substring(arrowIndex + arrow.length());
+                break;
+            }
+        }
+
+        if (reactantsSide == null)
+            return new BalancedEquation(equation, null, null, "Missing arrow between reactants and products.");
+
+        String[] reactants = splitSpecies(reactantsSide);
+        String[] products = splitSpecies(productsSide);
+
+        if (reactants.length == 0 || products.length == 0)
+            return new BalancedEquation(equation, reactants, products, "Missing reactants or products.");
+
+        int speciesNumber = reactants.length + products.length;
+        Composition[] compositions = new Composition[speciesNumber];
+
+        for (int i = 0; i < speciesNumber; i++) {
+            String formula = i < reactants.length ? reactants[i] : products[i - reactants.length];
+
+            FormulaParser parser = new FormulaParser(formula);
+            ParseResult parseResult = parser.validate();
+            if (!parseResult.isValid())
+                return new BalancedEquation(equation, reactants, products, formula + ": " + parseResult.getMessage());
+
+            compositions[i] = parser.getComposition();
+        }
+
+        try {
+            long[] coefficients = solveNullSpace(buildMatrix(compositions, reactants.length), speciesNumber);
+            if (coefficients == null || !isBalanced(buildMatrix(compositions, reactants.length), coefficients))
+                return new BalancedEquation(equation, reactants, products, "The equation can't be balanced.");
+
+            return new BalancedEquation(equation, reactants, products, coefficients);
+        } catch (ArithmeticException e) {
+            return new BalancedEquation(equation, reactants, products, "The coefficients of the equation are too big.");
+        }
+    }
+
+    /**
+     * This method balances many equations in parallel.
+     * @param equations The equations to balance.
+     * @return the balanced equations, in the same order.
+     */
+    public static BalancedEquation[] balanceAll(String[] equations) {
+        BalancedEquation[] balancedEquations = new BalancedEquation[equations.length];
+        ForkJoinPool.commonPool().invoke(new BalanceTask(equations, balancedEquations, 0, equations.length));
+
+        return balancedEquations;
+    }
+
+    private static final class BalanceTask extends RecursiveAction {
+        private final String[] equations;
+        private final BalancedEquation[] balancedEquations;
+        private final int start;
+        private final int end;
+
+        BalanceTask(String[] equations, BalancedEquation[] balancedEquations, int start, int end) {
+            this.equations = equations;
+            this.balancedEquations = balancedEquations;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= BATCH_THRESHOLD) {
+                for (int i = start; i < end; i++)
+                    balancedEquations[i] = balance(equations[i]);
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new BalanceTask(equations, balancedEquations, start, middle),
+                      new BalanceTask(equations, balancedEquations, middle, end));
+        }
+    }
+
+    // Splits a side of the equation on the '+' between the species, removing the coefficients already written.
+    private static String[] splitSpecies(String side) {
+        ArrayList<String> species = new ArrayList<>();
+        int speciesStart = 0;
+        int i = 0;
+
+        while (i <= side.length()) {
+            if (i < side.length() && side.charAt(i) == '^') {
+                i = skipCaretCharge(side, i + 1);
+                continue;
+            }
+
+            boolean separator = i == side.length() || (side.charAt(i) == '+' && isSeparator(side, i));
+
+            if (separator) {
+                String formula = side.substring(speciesStart, i).trim();
+
+                int formulaStart = 0;
+                while (formulaStart < formula.length() && Character.isDigit(formula.charAt(formulaStart)))
+                    formulaStart++;
+                formula = formula.substring(formulaStart).trim();
+
+                if (!formula.isEmpty())
+                    species.add(formula);
+
+                speciesStart = i + 1;
+            }
+
+            i++;
+        }
+
+        return species.toArray(new String[0]);
+    }
+
+    // Returns the index after a charge written after '^': digits and a sign ("^2+") or a sign and digits ("^+2").
+    private static int skipCaretCharge(String side, int chargeStart) {
+        int i = chargeStart;
+        while (i < side.length() && Character.isDigit(side.charAt(i)))
+            i++;
+
+        boolean digits = i > chargeStart;
+
+        if (i < side.length() && isSign(side.charAt(i))) {
+            i++;
+
+            while (!digits && i < side.length() && Character.isDigit(side.charAt(i)))
+                i++;
+        }
+
+        return i;
+    }
+
+    /**
+     * A '+' is the sign of a charge when it ends a species: when it is followed by another '+' or by the end of the
+     * side (eg: "NH4+ + OH-", "Na++Cl-"), or by digits that are not the coefficient of the next species (eg: "Fe+3").
+     * @param side The side of the equation.
+     * @param plusIndex The index of the '+'.
+     * @return true if the '+' separates two species.
+     */
+    private static boolean isSeparator(String side, int plusIndex) {
+        int i = plusIndex + 1;
+        while (i < side.length() && Character.isWhitespace(side.charAt(i)))
+            i++;
+
+        if (i == side.length() || side.charAt(i) == '+')
+            return false;
+
+        // A coefficient is either written after a space or followed by its species (eg: "+ 2H2O", "+2H2O").
+        if (!Character.isDigit(side.charAt(i)) || i > plusIndex + 1)
+            return true;
+
+        while (i < side.length() && Character.isDigit(side.charAt(i)))
+            i++;
+
+        return i < side.length() && !Character.isWhitespace(side.charAt(i)) && !isSign(side.charAt(i));
+    }
+
+    private static boolean isSign(char c) {
+        return c == '+' || c == '-' || c == '\u2212';
+    }
+
+    // One row for every element (and one for the charge), one column for every species.
+    private static long[][] buildMatrix(Composition[] compositions, int reactantsNumber) {
+        ArrayList<Integer> atomicNumbers = new ArrayList<>();
+        boolean charged = false;
+
+        for (Composition composition : compositions) {
+            for (int i = 0; i < composition.getElementsNumber(); i++)
+                if (!atomicNumbers.contains(composition.getAtomicNumberAt(i)))
+                    atomicNumbers.add(composition.getAtomicNumberAt(i));
+
+            charged |= composition.getCharge() != 0;
+        }
+
+        long[][] matrix = new long[atomicNumbers.size() + (charged ? 1 : 0)][compositions.length];
+
+        for (int column = 0; column < compositions.length; column++) {
+            int sign = column < reactantsNumber ? 1 : -1;
+
+            for (int row = 0; row < atomicNumbers.size(); row++)
+                matrix[row][column] = sign * compositions[column].getCount(atomicNumbers.get(row));
+
+            if (charged)
+                matrix[atomicNumbers.size()][column] = sign * compositions[column].getCharge();
+        }
+
+        return matrix;
+    }
+
+    /**
+     * This method finds the smallest positive integer vector x such that matrix * x = 0.
+     * @return the vector, or null if the null space is not made of a single positive vector.
+     *
+     * @throws ArithmeticException if a value overflows.
+     */
+    private static long[] solveNullSpace(long[][] matrix, int columns) throws ArithmeticException {
+        int rows = matrix.length;
+        int[] pivotColumns = new int[Math.min(rows, columns)];
+        int rank = 0;
+        long previousPivot = 1;
+
+        // Fraction-free forward elimination.
+        for (int column = 0; column < columns && rank < rows; column++) {
+            int pivotRow = rank;
+            while (pivotRow < rows && matrix[pivotRow][column] == 0)
+                pivotRow++;
+
+            if (pivotRow == rows)
+                continue;
+
+            long[] swap = matrix[rank];
+            matrix[rank] = matrix[pivotRow];
+            matrix[pivotRow] = swap;
+
+            long pivot = matrix[rank][column];
+
+            for (int row = rank + 1; row < rows; row++) {
+                long factor = matrix[row][column];
+
+                for (int j = column + 1; j < columns; j++)
+                    matrix[row][j] = Math.subtractExact(Math.multiplyExact(pivot, matrix[row][j]),
+                                                        Math.multiplyExact(factor, matrix[rank][j])) / previousPivot;
+
+                matrix[row][column] = 0;
+            }
+
+            previousPivot = pivot;
+            pivotColumns[rank++] = column;
+        }
+
+        // A single free column means a single way to balance the equation.
+        if (columns - rank != 1)
+            return null;
+
+        int freeColumn = 0;
+        for (int i = 0; i < rank && pivotColumns[i] == freeColumn; i++)
+            freeColumn++;
+
+        long[] solution = new long[columns];
+        solution[freeColumn] = 1;
+
+        // Back substitution, scaling the whole solution when a division is not exact.
+        for (int i = rank - 1; i >= 0; i--) {
+            int pivotColumn = pivotColumns[i];
+
+            long sum = 0;
+            for (int j = pivotColumn + 1; j < columns; j++)
+                sum = Math.addExact(sum, Math.multiplyExact(matrix[i][j], solution[j]));
+
+            long pivot = matrix[i][pivotColumn];
+            long scale = pivot / gcd(pivot, sum);
+
+            if (scale < 0)
+                scale = -scale;
+
+            if (scale != 1)
+                for (int j = 0; j < columns; j++)
+                    solution[j] = Math.multiplyExact(solution[j], scale);
+
+            solution[pivotColumn] = -Math.multiplyExact(sum, scale) / pivot;
+        }
+
+        long divisor = 0;
+        for (long value : solution)
+            divisor = gcd(divisor, value);
+
+        boolean negative = solution[0] < 0;
+        for (int j = 0; j < columns; j++) {
+            solution[j] /= negative ? -divisor : divisor;
+            if (solution[j] <= 0)
+                return null;
+        }
+
+        return solution;
+    }
+
+    private static boolean isBalanced(long[][] matrix, long[] coefficients) throws ArithmeticException {
+        for (long[] row : matrix) {
+            long sum = 0;
+            for (int j = 0; j < coefficients.length; j++)
+                sum = Math.addExact(sum, Math.multiplyExact(row[j], coefficients[j]));
+
+            if (sum != 0)
+                return false;
+        }
+
+        return true;
+    }
+
+    private static long gcd(long a, long b) {
+        a = Math.abs(a);
+        b = Math.abs(b);
+
+        while (b != 0) {
+            long rest = a % b;
+            a = b;
+            b = rest;
+        }
+
+        return a;
+    }
+}
@@ -19,14 +19,17 @@
 
 package com.enrico.chemistry.formulaparser;
 
+import com.enrico.chemistry.Composition;
 import com.enrico.chemistry.atoms.scientific.*;
-import com.enrico.chemistry.formulaparser.exceptions.IllegalFormulaException;
-
-import java.util.ArrayList;
 
 public class FormulaParser {
     private String formula;
 
+    private final FormulaScanner scanner = new FormulaScanner();
+
+    // The formula scanned last without errors, its atoms are still inside the scanner.
+    private String scannedFormula = null;
+
     public FormulaParser(String formula) {
         this.formula = formula;
     }
@@ -39,100 +42,93 @@ public class FormulaParser {
         this.formula = formula;
     }
 
+    /**
+     * This method checks the formula without throwing any exception, it is meant to be used when many invalid formulas
+     * are expected (eg: while the user is typing or when a whole file is solved).
+     * @return the result of the validation, with the error code, the offset and the message of the first error found.
+     */
+    public ParseResult validate() {
+        // The formula is not scanned again if it has just been scanned.
+        if (formula != null && formula == scannedFormula)
+            return ParseResult.VALID;
+
+        ParseResult result = scanner.validate(formula);
+        scannedFormula = result.isValid() ? formula : null;
+
+        return result;
+    }
+
+    private int[] scan() throws IllegalArgumentException {
+        validate().throwIfSyntaxError();
+        return scanner.getElementCounts();
+    }
+
+    /**
+     * This method scans the formula and returns the number of atoms of every element.
+     * @return a vector indexed by atomic number, owned by this parser and overwritten by the next call.
+     *
+     * @throws IllegalArgumentException if the formula is not valid.
+     */
+    public int[] getElementCounts() throws IllegalArgumentException {
+        return scan();
+    }
+
+    /**
+     * @return the charge of the formula, eg: -2 for "SO4^2-". It is valid only after the formula has been scanned.
+     */
+    public int getCharge() {
+        return scanner.getCharge();
+    }
+
+    /**
+     * This method finds the composition of the formula, which is equal for all the formulas that only differ in the
+     * way they are written ("C,O2", "O2,C", "O,C,O").
+     * @return the composition of the formula.
+     *
+     * @throws IllegalArgumentException if the formula is not valid.
+     */
+    public Composition getComposition() throws IllegalArgumentException {
+        scan();
+        return Composition.fromScanner(scanner);
+    }
+
+    /**
+     * This method writes the formula in its canonical form, so that equivalent formulas ("C,O2", "O2,C", "O,C,O")
+     * are written in the same way.
+     * The elements are listed in Hill order: Carbon first, then Hydrogen, then all the other elements in
+     * alphabetical order (if there's no Carbon, Hydrogen is sorted alphabetically too). The charge, if any, is
+     * appended at the end (eg: "O4S^2-").
+     * @return the canonical formula.
+     *
+     * @throws IllegalArgumentException if the formula is not valid.
+     */
+    public String getCanonicalFormula() throws IllegalArgumentException {
+        return getComposition().toString();
+    }
+
     /*
      * How formulas are written:
      * Carbon monoxide:
-     * C,02
+     * C,02  or  CO2
+     *
+     * Standard notation is also accepted, with groups, hydrates and charges:
+     * Ca(OH)2, CuSO4.5H2O, SO4^2-
      */
     public GenericScientificAtom[] getAtoms() throws IllegalArgumentException {
-        ArrayList<GenericScientificAtom> GenericScientificAtomList = new ArrayList<>();
-
-        String[] splittedFormula = formula.split(",");
-        for (String atomName : splittedFormula) {
-            if (atomName.contains(" "))
-                throw new IllegalFormulaException(formula);
-
-            // Get number of atoms and its symbol.
-            String[] splittedAtomName = atomName.split("");
-            String atomSymbol;
-            String atomNumber;
-
-            StringBuilder atomSymbolBuilder = new StringBuilder();
-            StringBuilder atomNumberBuilder = new StringBuilder();
-            for (String stringChar : splittedAtomName) {
-                if (Character.isLetter(stringChar.charAt(0)))
-                    atomSymbolBuilder.append(stringChar);
-                else
-                    atomNumberBuilder.append(stringChar);
-            }
-            atomNumber = atomNumberBuilder.toString();
-            atomSymbol = atomSymbolBuilder.toString();
-
-            if (atomNumber.isEmpty())
-                atomNumber = null;
-
-            if (atomName.equals(","))
-                continue;
-
-            GenericScientificAtom currentGenericScientificAtom;
-
-            switch (atomSymbol) {
-                case HydrogenScientificAtom.ATOM_SYMBOL:
-                    currentGenericScientificAtom = new HydrogenScientificAtom();
-                break;
-
-                case HeliumScientificAtom.ATOM_SYMBOL:
-                    currentGenericScientificAtom = new HeliumScientificAtom();
-                break;
-
-                case CarbonScientificAtom.ATOM_SYMBOL:
-                    currentGenericScientificAtom = new CarbonScientificAtom();
-                break;
-
-                case OxygenScientificAtom.ATOM_SYMBOL:
-                    currentGenericScientificAtom = new OxygenScientificAtom();
-                break;
-
-                case SulfurScientificAtom.ATOM_SYMBOL:
-                    currentGenericScientificAtom = new SulfurScientificAtom();
-                break;
-
-                case NitrogenScientificAtom.ATOM_SYMBOL:
-                    currentGenericScientificAtom = new NitrogenScientificAtom();
-                break;
-
-                case PhosphorusScientificAtom.ATOM_SYMBOL:
-                    currentGenericScientificAtom = new PhosphorusScientificAtom();
-                break;
-
-                case ChlorineScientificAtom.ATOM_SYMBOL:
-                    currentGenericScientificAtom = new ChlorineScientificAtom();
-                break;
-
-                case FluorineScientificAtom.ATOM_SYMBOL:
-                    currentGenericScientificAtom = new FluorineScientificAtom();
-                break;
-
-                case SiliconScientificAtom.ATOM_SYMBOL:
-                    currentGenericScientificAtom = new SiliconScientificAtom();
-                break;
-
-                default:
-                    throw new IllegalArgumentException("Invalid atom: " + atomSymbol);
-            }
-
-            // There always will be at least a single atom.
-            int atomNumberInteger = 1;
-            if (atomNumber != null)
-                atomNumberInteger = Integer.parseInt(atomNumber);
-
-
-            for (int i = 1; i <= atomNumberInteger; i++)
-                GenericScientificAtomList.add(currentGenericScientificAtom);
-        }
+        int[] elementCounts = scan();
 
-        GenericScientificAtom[] GenericScientificAtomArray = new GenericScientificAtom[GenericScientificAtomList.size()];
-        GenericScientificAtomArray = GenericScientificAtomList.toArray(GenericScientificAtomArray);
+        GenericScientificAtom[] GenericScientificAtomArray = new GenericScientificAtom[scanner.getAtomsNumber()];
+        int atomIndex = 0;
+
+        // The atoms are placed in the same order as they appear inside the formula, every element shares the same
+        // immutable instance of the registry for all of its atoms.
+        for (int i = 0; i < scanner.getDistinctElementsNumber(); i++) {
+            int atomicNumber = scanner.getElementAt(i);
+            GenericScientificAtom currentGenericScientificAtom = ScientificAtomRegistry.getAtom(atomicNumber);
+
+            for (int j = 0; j < elementCounts[atomicNumber]; j++)
+                GenericScientificAtomArray[atomIndex++] = currentGenericScientificAtom;
+        }
 
         return GenericScientificAtomArray;
     }
@@ -0,0 +1,501 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.formulaparser;
+
+import com.enrico.chemistry.atoms.scientific.ScientificAtomRegistry;
+
+import java.util.Arrays;
+
+/**
+ * This class reads a formula with a single pass over its characters.
+ *
+ * Two syntaxes are accepted, and they can also be mixed together:
+ * - The comma separated syntax used since the first versions of the program: "C,O2", "S,O4,H2".
+ * - The standard chemical notation: "H2SO4", "Ca(OH)2", "K4[Fe(CN)6]", "CuSO4.5H2O", "SO4^2-", "NH4+".
+ *
+ * The formula is parsed by recursive descent:
+ *
+ * formula   := component (hydrate-dot component)* charge?
+ * component := coefficient? sequence
+ * sequence  := (unit | ',')*
+ * unit      := element count? | '(' sequence ')' count? | '[' sequence ']' count?
+ * charge    := '^'? (digits sign | sign digits? | sign+)
+ *
+ * No intermediate String is created while scanning. Every element found is pushed on a stack of (element, count)
+ * pairs; when a group is closed or a hydrate component ends, only the pairs belonging to it are multiplied, so the
+ * work stays linear in the length of the formula for any reasonable nesting.
+ * The result is a vector of atom counts indexed by atomic number, so that elementCounts[8] is the number of Oxygen
+ * atoms inside the formula.
+ * The scanner keeps its vectors between calls, so the same instance can be reused to scan many formulas without
+ * allocating anything.
+ */
+public final class FormulaScanner {
+    // Atomic numbers go from 1 to 118, the index 0 is never used.
+    public static final int ELEMENTS_VECTOR_SIZE = ScientificAtomRegistry.ELEMENTS_NUMBER + 1;
+
+    // Biggest number of atoms accepted for a single element, it keeps the counters far from overflowing.
+    public static final int MAX_ATOMS_NUMBER = 1_000_000;
+
+    // Maximum number of nested groups, eg: "K4[Fe(CN)6]" has a depth of 2.
+    public static final int MAX_GROUP_DEPTH = 16;
+
+    private static final int INITIAL_STACK_CAPACITY = 32;
+
+    private final int[] elementCounts = new int[ELEMENTS_VECTOR_SIZE];
+
+    // Atomic numbers of the elements in the order they first appear inside the formula.
+    private final int[] elementsOrder = new int[ELEMENTS_VECTOR_SIZE];
+    private int distinctElementsNumber = 0;
+    private int atomsNumber = 0;
+    private int charge = 0;
+
+    // Stack of the elements found so far with their (already multiplied) number of atoms.
+    private int[] stackElements = new int[INITIAL_STACK_CAPACITY];
+    private long[] stackCounts = new long[INITIAL_STACK_CAPACITY];
+    private int stackSize = 0;
+
+    // State of the scan in progress.
+    private CharSequence formula;
+    private int length;
+    private int index;
+
+    // The first error found by the last scan, errorCode is null if the formula is valid.
+    private ParseResult.ErrorCode errorCode;
+    private int errorOffset;
+    private int errorLength;
+
+    /**
+     * This method scans a formula and fills the element count vector.
+     * @param formula The formula to scan.
+     * @return The element count vector, indexed by atomic number. The array is owned by the scanner and it will be
+     * overwritten by the next scan.
+     *
+     * @throws IllegalArgumentException if the formula contains invalid characters or unknown atoms.
+     */
+    public int[] scan(CharSequence formula) throws IllegalArgumentException {
+        validate(formula).throwIfSyntaxError();
+        return elementCounts;
+    }
+
+    /**
+     * This method scans a formula and fills the element count vector, without throwing any exception.
+     * @param formula The formula to scan.
+     * @return the result of the scan. If it is valid, the element count vector and the other getters describe the
+     * formula until the next scan.
+     */
+    public ParseResult validate(CharSequence formula) {
+        if (tryScan(formula))
+            return ParseResult.VALID;
+
+        return ParseResult.syntaxError(errorCode, formula.toString(), errorOffset, errorLength);
+    }
+
+    /**
+     * This method scans a formula like validate(), but it doesn't allocate anything: the error found, if any, is
+     * described by getErrorCode(), getErrorOffset() and getErrorLength() until the next scan.
+     * @param formula The formula to scan.
+     * @return true if the formula is valid.
+     */
+    public boolean tryScan(CharSequence formula) {
+        clear();
+
+        this.formula = formula;
+        length = formula.length();
+        index = 0;
+
+        try {
+            if (length == 0)
+                return fail(ParseResult.ErrorCode.EmptyFormula, 0, 0);
+
+            if (!parseComponent())
+                return false;
+
+            while (index < length && isHydrateDot(formula.charAt(index))) {
+                index++;
+                if (!parseComponent())
+                    return false;
+            }
+
+            if (index < length && !parseCharge())
+                return false;
+
+            if (index < length)
+                return fail(ParseResult.ErrorCode.UnexpectedCharacter, index, 1);
+
+            return collectElements();
+        } finally {
+            this.formula = null;
+        }
+    }
+
+    public int[] getElementCounts() {
+        return elementCounts;
+    }
+
+    public int getElementCount(int atomicNumber) {
+        return elementCounts[atomicNumber];
+    }
+
+    /**
+     * @return the kind of the error found by the last scan, or null if the formula is valid.
+     */
+    public ParseResult.ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return the index of the first character of the error found by the last scan.
+     */
+    public int getErrorOffset() {
+        return errorOffset;
+    }
+
+    public int getErrorLength() {
+        return errorLength;
+    }
+
+    /**
+     * @param position The position of the element, 0 is the first element found in the formula.
+     * @return the atomic number of the element found at that position.
+     */
+    public int getElementAt(int position) {
+        return elementsOrder[position];
+    }
+
+    public int getDistinctElementsNumber() {
+        return distinctElementsNumber;
+    }
+
+    public int getAtomsNumber() {
+        return atomsNumber;
+    }
+
+    /**
+     * @return the charge of the last formula scanned, eg: -2 for "SO4^2-", 0 for neutral formulas.
+     */
+    public int getCharge() {
+        return charge;
+    }
+
+    /*
+     * Every parse method returns false when it finds an error, after the error has been recorded by fail(). Nothing is
+     * thrown while scanning, so invalid formulas are as cheap as valid ones.
+     */
+
+    // component := coefficient? sequence
+    private boolean parseComponent() {
+        int componentStart = stackSize;
+        int coefficientStart = index;
+        long coefficient = parseNumber(1, false);
+        if (coefficient < 0)
+            return false;
+
+        int sequenceStart = index;
+        if (!parseSequence(0))
+            return false;
+
+        if (index == sequenceStart && stackSize == componentStart) {
+            // A coefficient alone (eg: "CuSO4.5") is not a valid component.
+            if (index < length && !isHydrateDot(formula.charAt(index)))
+                return fail(ParseResult.ErrorCode.UnexpectedCharacter, index, 1);
+
+            return fail(ParseResult.ErrorCode.MissingAtoms, coefficientStart, index - coefficientStart);
+        }
+
+        return multiplyStack(componentStart, coefficient, coefficientStart);
+    }
+
+    // sequence := (unit | ',')*
+    private boolean parseSequence(int depth) {
+        while (index < length) {
+            char currentChar = formula.charAt(index);
+
+            if (currentChar == ',') {
+                index++;
+            } else if (currentChar >= 'A' && currentChar <= 'Z') {
+                if (!parseElement())
+                    return false;
+            } else if (currentChar == '(' || currentChar == '[') {
+                if (!parseGroup(depth + 1, currentChar == '(' ? ')' : ']'))
+                    return false;
+            } else {
+                // End of the sequence, the caller checks what comes next.
+                return true;
+            }
+        }
+
+        return true;
+    }
+
+    // unit := '(' sequence ')' count? | '[' sequence ']' count?
+    private boolean parseGroup(int depth, char closingChar) {
+        int groupOffset = index;
+
+        if (depth > MAX_GROUP_DEPTH)
+            return fail(ParseResult.ErrorCode.GroupTooDeep, groupOffset, 1);
+
+        int groupStart = stackSize;
+        index++; // Opening bracket.
+
+        if (!parseSequence(depth))
+            return false;
+
+        if (index >= length)
+            return fail(ParseResult.ErrorCode.UnclosedGroup, groupOffset, 1);
+
+        if (formula.charAt(index) != closingChar)
+            return fail(ParseResult.ErrorCode.UnexpectedCharacter, index, 1);
+
+        if (stackSize == groupStart)
+            return fail(ParseResult.ErrorCode.MissingAtoms, groupOffset, index - groupOffset + 1);
+
+        index++; // Closing bracket.
+
+        int countStart = index;
+        long count = parseNumber(1, false);
+
+        return count >= 0 && multiplyStack(groupStart, count, countStart);
+    }
+
+    // unit := element count?
+    private boolean parseElement() {
+        int symbolStart = index;
+        char firstChar = formula.charAt(index++);
+        char secondChar = 0;
+
+        if (index < length) {
+            char nextChar = formula.charAt(index);
+            if (nextChar >= 'a' && nextChar <= 'z') {
+                secondChar = nextChar;
+                index++;
+            }
+        }
+
+        int atomicNumber = ScientificAtomRegistry.getAtomicNumber(firstChar, secondChar);
+        if (atomicNumber == 0)
+            return fail(ParseResult.ErrorCode.UnknownAtom, symbolStart, index - symbolStart);
+
+        long count = parseNumber(1, false);
+        if (count < 0)
+            return false;
+
+        push(atomicNumber, count);
+        return true;
+    }
+
+    // charge := '^'? (digits sign | sign digits? | sign+)
+    private boolean parseCharge() {
+        int chargeStart = index;
+
+        boolean caret = formula.charAt(index) == '^';
+        if (caret)
+            index++;
+
+        long magnitude = parseNumber(0, true);
+        if (magnitude < 0)
+            return false;
+
+        int sign = index < length ? getSign(formula.charAt(index)) : 0;
+
+        if (sign == 0) {
+            // Anything that doesn't look like a charge is just an unexpected character.
+            if (!caret && index == chargeStart)
+                return fail(ParseResult.ErrorCode.UnexpectedCharacter, index, 1);
+
+            return fail(ParseResult.ErrorCode.InvalidCharge, chargeStart, index - chargeStart);
+        }
+
+        index++;
+
+        if (magnitude == 0) {
+            magnitude = parseNumber(0, true);
+            if (magnitude < 0)
+                return false;
+
+            // Repeated signs, eg: "Fe+++".
+            if (magnitude == 0) {
+                magnitude = 1;
+                while (index < length && getSign(formula.charAt(index)) == sign) {
+                    magnitude++;
+                    index++;
+                }
+            }
+        }
+
+        if (magnitude > MAX_ATOMS_NUMBER)
+            return fail(ParseResult.ErrorCode.NumberTooBig, chargeStart, index - chargeStart);
+
+        charge = (int) (sign * magnitude);
+        return true;
+    }
+
+    /**
+     * This method reads a number made of plain digits, or of subscript digits for counts and superscript digits for
+     * charges.
+     * @param defaultValue The value returned when no digit is found.
+     * @param superscript true to read superscript digits (charges), false to read subscript ones (counts).
+     * @return the number read, or -1 if the number is not valid.
+     */
+    private long parseNumber(long defaultValue, boolean superscript) {
+        int digitsStart = index;
+        long number = 0;
+
+        while (index < length) {
+            int digit = superscript ? getSuperscriptDigitValue(formula.charAt(index)) :
+                                      getSubscriptDigitValue(formula.charAt(index));
+            if (digit < 0)
+                break;
+
+            number = number * 10 + digit;
+            if (number > MAX_ATOMS_NUMBER) {
+                fail(ParseResult.ErrorCode.NumberTooBig, digitsStart, index - digitsStart + 1);
+                return -1;
+            }
+
+            index++;
+        }
+
+        if (index == digitsStart)
+            return defaultValue;
+
+        if (number == 0) {
+            fail(ParseResult.ErrorCode.InvalidNumber, digitsStart, index - digitsStart);
+            return -1;
+        }
+
+        return number;
+    }
+
+    private void push(int atomicNumber, long count) {
+        if (stackSize == stackElements.length) {
+            stackElements = Arrays.copyOf(stackElements, stackSize * 2);
+            stackCounts = Arrays.copyOf(stackCounts, stackSize * 2);
+        }
+
+        stackElements[stackSize] = atomicNumber;
+        stackCounts[stackSize] = count;
+        stackSize++;
+    }
+
+    private boolean multiplyStack(int from, long multiplier, int multiplierOffset) {
+        if (multiplier == 1)
+            return true;
+
+        for (int i = from; i < stackSize; i++) {
+            stackCounts[i] *= multiplier;
+            if (stackCounts[i] > MAX_ATOMS_NUMBER)
+                return fail(ParseResult.ErrorCode.NumberTooBig, multiplierOffset, index - multiplierOffset);
+        }
+
+        return true;
+    }
+
+    // Sums up the stack inside the element count vector, keeping track of the order of the elements.
+    private boolean collectElements() {
+        long totalAtoms = 0;
+
+        for (int i = 0; i < stackSize; i++) {
+            int atomicNumber = stackElements[i];
+            long count = elementCounts[atomicNumber] + stackCounts[i];
+
+            if (count > MAX_ATOMS_NUMBER)
+                return fail(ParseResult.ErrorCode.NumberTooBig, 0, length);
+
+            if (elementCounts[atomicNumber] == 0)
+                elementsOrder[distinctElementsNumber++] = atomicNumber;
+
+            elementCounts[atomicNumber] = (int) count;
+            totalAtoms += stackCounts[i];
+        }
+
+        atomsNumber = (int) totalAtoms;
+        return true;
+    }
+
+    // Records the first error found, the scan stops right after it.
+    private boolean fail(ParseResult.ErrorCode errorCode, int errorOffset, int errorLength) {
+        if (this.errorCode == null) {
+            this.errorCode = errorCode;
+            this.errorOffset = errorOffset;
+            this.errorLength = errorLength;
+        }
+
+        return false;
+    }
+
+    // Only the elements found by the last scan are cleared, the rest of the vector is already empty.
+    private void clear() {
+        for (int i = 0; i < distinctElementsNumber; i++)
+            elementCounts[elementsOrder[i]] = 0;
+
+        distinctElementsNumber = 0;
+        atomsNumber = 0;
+        charge = 0;
+        stackSize = 0;
+        errorCode = null;
+    }
+
+    private static boolean isHydrateDot(char c) {
+        // Middle dot, bullet, dot operator, plain dot and asterisk are all used to write hydrates.
+        return c == '\u00B7' || c == '\u2022' || c == '\u22C5' || c == '.' || c == '*';
+    }
+
+    private static int getSign(char c) {
+        if (c == '+' || c == '\u207A')
+            return 1;
+        if (c == '-' || c == '\u207B' || c == '\u2212')
+            return -1;
+        return 0;
+    }
+
+    /**
+     * @param c The character to read.
+     * @return the value of a plain or subscript digit, or -1 if the character is not a digit.
+     */
+    private static int getSubscriptDigitValue(char c) {
+        if (c >= '0' && c <= '9')
+            return c - '0';
+        if (c >= '\u2080' && c <= '\u2089')
+            return c - '\u2080';
+        return -1;
+    }
+
+    /**
+     * @param c The character to read.
+     * @return the value of a plain or superscript digit, or -1 if the character is not a digit.
+     */
+    private static int getSuperscriptDigitValue(char c) {
+        if (c >= '0' && c <= '9')
+            return c - '0';
+
+        switch (c) {
+            case '\u00B9':
+                return 1;
+            case '\u00B2':
+                return 2;
+            case '\u00B3':
+                return 3;
+            default:
+                if (c >= '\u2074' && c <= '\u2079')
+                    return c - '\u2070';
+                return c == '\u2070' ? 0 : -1;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.formulaparser;
+
+import com.enrico.chemistry.formulaparser.exceptions.IllegalFormulaException;
+
+/**
+ * This class is the result of the validation of a formula: it tells if the formula is valid and, if it is not, what
+ * the error is and where it was found.
+ *
+ * Validating a formula never throws, so invalid formulas cost as much as valid ones. The message of an error found
+ * while scanning is built only when it is asked for.
+ */
+public final class ParseResult {
+    public static final ParseResult VALID = new ParseResult(ErrorCode.None, null, -1, 0, null);
+
+    public enum ErrorCode {
+        None,
+        EmptyFormula,
+        UnexpectedCharacter,
+        UnknownAtom,
+        InvalidNumber,
+        NumberTooBig,
+        MissingAtoms,
+        UnclosedGroup,
+        GroupTooDeep,
+        InvalidCharge,
+        UnusableAtom,
+        InvalidMolecule
+    }
+
+    private final ErrorCode errorCode;
+    private final String formula;
+    private final int errorOffset;
+    private final int errorLength;
+
+    private String message;
+
+    private ParseResult(ErrorCode errorCode, String formula, int errorOffset, int errorLength, String message) {
+        this.errorCode = errorCode;
+        this.formula = formula;
+        this.errorOffset = errorOffset;
+        this.errorLength = errorLength;
+        this.message = message;
+    }
+
+    /**
+     * @param errorCode The error found.
+     * @param formula The formula where the error was found.
+     * @param errorOffset The index of the first character of the error inside the formula.
+     * @param errorLength The number of characters of the error.
+     * @return the result of a formula with a syntax error.
+     */
+    public static ParseResult syntaxError(ErrorCode errorCode, String formula, int errorOffset, int errorLength) {
+        return new ParseResult(errorCode, formula, errorOffset, errorLength, null);
+    }
+
+    /**
+     * @param errorCode The error found.
+     * @param formula The formula where the error was found.
+     * @param message The message of the error.
+     * @return the result of a formula that is written correctly but that doesn't make up a valid molecule, the
+     * error is not related to a single character so its offset is -1.
+     */
+    public static ParseResult moleculeError(ErrorCode errorCode, String formula, String message) {
+        return new ParseResult(errorCode, formula, -1, 0, message);
+    }
+
+    public boolean isValid() {
+        return errorCode == ErrorCode.None;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    public String getFormula() {
+        return formula;
+    }
+
+    /**
+     * @return the index of the first character of the error inside the formula, or -1 if the error is not related to
+     * a single character (or if there's no error).
+     */
+    public int getErrorOffset() {
+        return errorOffset;
+    }
+
+    public int getErrorLength() {
+        return errorLength;
+    }
+
+    /**
+     * @return the characters of the formula where the error was found, or an empty string.
+     */
+    public String getErrorText() {
+        if (errorOffset < 0 || formula == null)
+            return "";
+
+        int errorEnd = Math.min(errorOffset + errorLength, formula.length());
+        return formula.substring(Math.min(errorOffset, errorEnd), errorEnd);
+    }
+
+    /**
+     * This method throws the same exception thrown by the parser for a syntax error, it is used by the methods that
+     * report errors by throwing.
+     *
+     * @throws IllegalArgumentException if the formula is not written correctly.
+     */
+    public void throwIfSyntaxError() throws IllegalArgumentException {
+        switch (errorCode) {
+            case None:
+            case UnusableAtom:
+            case InvalidMolecule:
+                return;
+
+            case UnknownAtom:
+                throw new IllegalArgumentException(getMessage());
+
+            default:
+                throw new IllegalFormulaException(formula);
+        }
+    }
+
+    public String getMessage() {
+        if (message == null)
+            message = buildMessage();
+
+        return message;
+    }
+
+    private String buildMessage() {
+        // Positions are shown starting from 1.
+        int position = errorOffset + 1;
+
+        switch (errorCode) {
+            case None:
+                return "The formula is valid.";
+            case EmptyFormula:
+                return "The formula is empty.";
+            case UnexpectedCharacter:
+                return "Unexpected character \"" + getErrorText() + "\" at position " + position + ".";
+            case UnknownAtom:
+                return "Invalid atom: " + getErrorText();
+            case InvalidNumber:
+                return "Invalid number \"" + getErrorText() + "\" at position " + position + ".";
+            case NumberTooBig:
+                return "Too many atoms at position " + position + ".";
+            case MissingAtoms:
+                return "Missing atoms at position " + position + ".";
+            case UnclosedGroup:
+                return "Group opened at position " + position + " is not closed.";
+            case GroupTooDeep:
+                return "Too many nested groups at position " + position + ".";
+            case InvalidCharge:
+                return "Invalid charge at position " + position + ".";
+            default:
+                return "Invalid formula: " + formula;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
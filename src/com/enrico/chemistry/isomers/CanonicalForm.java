@@ -0,0 +1,326 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.isomers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class is the canonical form of a small graph of atoms, with an optionally marked atom: two graphs have the same
+ * canonical form if and only if they are isomorphic (with the marked atoms mapped one onto the other).
+ *
+ * The form is found with individualization and refinement: the atoms are coloured by element and neighbourhood until
+ * the colours are stable, then the atoms of the first cell with more than one atom are tried one at a time as if they
+ * had their own colour, and the smallest adjacency key among all of the discrete colourings is chosen. The
+ * automorphisms found on the way (two colourings with the same key) are used to skip the atoms that would give the
+ * same keys again.
+ */
+final class CanonicalForm {
+    // Automorphisms kept to prune the search, more are rarely needed by the small graphs of the generator.
+    private static final int MAX_AUTOMORPHISMS = 64;
+
+    private static final char NO_MARKED_ATOM = Character.MAX_VALUE;
+
+    private final int atomsNumber;
+    private final int[] elements;
+    private final int[] orders;
+    private final int stride;
+    private final int markedAtom;
+
+    private String key = null;
+    private int[] labels = null;
+    private final ArrayList<int[]> automorphisms = new ArrayList<>();
+
+    /**
+     * @param atomsNumber The number of atoms of the graph.
+     * @param elements The atomic number of every atom.
+     * @param orders The order of the bond between atoms i and j at i * stride + j, 0 if they are not bonded.
+     * @param stride The length of a row of the orders.
+     * @param markedAtom The marked atom, or -1.
+     */
+    CanonicalForm(int atomsNumber, int[] elements, int[] orders, int stride, int markedAtom) {
+        this(atomsNumber, elements, orders, stride, markedAtom, true);
+    }
+
+    private CanonicalForm(int atomsNumber, int[] elements, int[] orders, int stride, int markedAtom, boolean search) {
+        this.atomsNumber = atomsNumber;
+        this.elements = elements;
+        this.orders = orders;
+        this.stride = stride;
+        this.markedAtom = markedAtom;
+
+        if (search)
+            search(getInitialColours(), new int[atomsNumber], 0);
+    }
+
+    /**
+     * This method colours the atoms of a graph by element and neighbourhood, without searching the canonical form.
+     * Atoms that are equivalent under a symmetry of the graph always have the same colour, and the colours are the
+     * same for isomorphic graphs, so they are a quick way to tell that two atoms are not equivalent.
+     * @return the colour of every atom.
+     */
+    static int[] getRefinedColours(int atomsNumber, int[] elements, int[] orders, int stride) {
+        CanonicalForm form = new CanonicalForm(atomsNumber, elements, orders, stride, -1, false);
+        return form.refine(form.getInitialColours());
+    }
+
+    private int[] getInitialColours() {
+        int[] colours = new int[atomsNumber];
+        for (int atom = 0; atom < atomsNumber; atom++) {
+            int degree = 0;
+            int bondOrderSum = 0;
+
+            for (int other = 0; other < atomsNumber; other++) {
+                int order = orders[atom * stride + other];
+                if (order > 0) {
+                    degree++;
+                    bondOrderSum += order;
+                }
+            }
+
+            colours[atom] = ((atom == markedAtom ? 0 : 1) << 24) | (elements[atom] << 12) | (bondOrderSum << 6) |
+                    degree;
+        }
+
+        return toRanks(colours, null);
+    }
+
+    /**
+     * @return the canonical key, equal for isomorphic graphs only.
+     */
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * @param atom The index of the atom.
+     * @return the position of the atom in the canonical order.
+     */
+    int getLabel(int atom) {
+        return labels[atom];
+    }
+
+    // Replaces the colours with their ranks, atoms with equal colours and equal signatures get equal ranks.
+    private static int[] toRanks(int[] colours, int[][] signatures) {
+        int atomsNumber = colours.length;
+        int[] sortedAtoms = new int[atomsNumber];
+
+        // Insertion sort, graphs are small.
+        for (int atom = 0; atom < atomsNumber; atom++) {
+            int position = atom;
+
+            while (position > 0 && compareAtoms(colours, signatures, sortedAtoms[position - 1], atom) > 0) {
+                sortedAtoms[position] = sortedAtoms[position - 1];
+                position--;
+            }
+
+            sortedAtoms[position] = atom;
+        }
+
+        int[] ranks = new int[atomsNumber];
+        int rank = 0;
+
+        for (int i = 0; i < atomsNumber; i++) {
+            if (i > 0 && compareAtoms(colours, signatures, sortedAtoms[i - 1], sortedAtoms[i]) != 0)
+                rank = i;
+
+            ranks[sortedAtoms[i]] = rank;
+        }
+
+        return ranks;
+    }
+
+    private static int compareAtoms(int[] colours, int[][] signatures, int first, int second) {
+        if (colours[first] != colours[second])
+            return Integer.compare(colours[first], colours[second]);
+
+        return signatures == null ? 0 : Arrays.compare(signatures[first], signatures[second]);
+    }
+
+    private static int countColours(int[] colours) {
+        boolean[] used = new boolean[colours.length];
+        int coloursNumber = 0;
+
+        for (int colour : colours) {
+            if (!used[colour]) {
+                used[colour] = true;
+                coloursNumber++;
+            }
+        }
+
+        return coloursNumber;
+    }
+
+    // Splits the colours by the colours of the neighbours and by the bond orders, until nothing changes.
+    private int[] refine(int[] colours) {
+        int coloursNumber = countColours(colours);
+
+        while (coloursNumber < atomsNumber) {
+            int[][] signatures = new int[atomsNumber][];
+
+            for (int atom = 0; atom < atomsNumber; atom++) {
+                int[] signature = new int[atomsNumber];
+                int size = 0;
+
+                for (int other = 0; other < atomsNumber; other++) {
+                    int order = orders[atom * stride + other];
+                    if (order > 0)
+                        signature[size++] = colours[other] * 4 + order;
+                }
+
+                signature = Arrays.copyOf(signature, size);
+                Arrays.sort(signature);
+                signatures[atom] = signature;
+            }
+
+            int[] refinedColours = toRanks(colours, signatures);
+            int refinedColoursNumber = countColours(refinedColours);
+
+            colours = refinedColours;
+            if (refinedColoursNumber == coloursNumber)
+                break;
+
+            coloursNumber = refinedColoursNumber;
+        }
+
+        return colours;
+    }
+
+    private void search(int[] colours, int[] individualized, int depth) {
+        colours = refine(colours);
+
+        // The first cell with more than one atom, in colour order.
+        int targetColour = -1;
+        int[] cellSizes = new int[atomsNumber];
+        for (int colour : colours)
+            cellSizes[colour]++;
+
+        for (int colour = 0; colour < atomsNumber; colour++) {
+            if (cellSizes[colour] > 1) {
+                targetColour = colour;
+                break;
+            }
+        }
+
+        if (targetColour < 0) {
+            visitLeaf(colours);
+            return;
+        }
+
+        int[] explored = new int[cellSizes[targetColour]];
+        int exploredNumber = 0;
+
+        for (int atom = 0; atom < atomsNumber; atom++) {
+            if (colours[atom] != targetColour || isEquivalentToExplored(atom, explored, exploredNumber,
+                    individualized, depth))
+                continue;
+
+            int[] individualizedColours = new int[atomsNumber];
+            for (int other = 0; other < atomsNumber; other++)
+                individualizedColours[other] = 2 * colours[other] + (other == atom ? 0 : 1);
+
+            individualized[depth] = atom;
+            search(toRanks(individualizedColours, null), individualized, depth + 1);
+
+            explored[exploredNumber++] = atom;
+        }
+    }
+
+    // An atom is skipped if an automorphism that fixes the individualized atoms maps an explored atom onto it.
+    private boolean isEquivalentToExplored(int atom, int[] explored, int exploredNumber, int[] individualized,
+                                           int depth) {
+        if (exploredNumber == 0 || automorphisms.isEmpty())
+            return false;
+
+        int[] parents = new int[atomsNumber];
+        for (int i = 0; i < atomsNumber; i++)
+            parents[i] = i;
+
+        for (int[] automorphism : automorphisms) {
+            boolean fixes = true;
+            for (int i = 0; i < depth && fixes; i++)
+                fixes = automorphism[individualized[i]] == individualized[i];
+
+            if (!fixes)
+                continue;
+
+            for (int i = 0; i < atomsNumber; i++) {
+                int first = findRoot(parents, i);
+                int second = findRoot(parents, automorphism[i]);
+                if (first != second)
+                    parents[first] = second;
+            }
+        }
+
+        int root = findRoot(parents, atom);
+        for (int i = 0; i < exploredNumber; i++) {
+            if (findRoot(parents, explored[i]) == root)
+                return true;
+        }
+
+        return false;
+    }
+
+    private static int findRoot(int[] parents, int atom) {
+        while (parents[atom] != atom) {
+            parents[atom] = parents[parents[atom]];
+            atom = parents[atom];
+        }
+
+        return atom;
+    }
+
+    private void visitLeaf(int[] leafLabels) {
+        int[] atomsAt = new int[atomsNumber];
+        for (int atom = 0; atom < atomsNumber; atom++)
+            atomsAt[leafLabels[atom]] = atom;
+
+        char[] leafKey = new char[1 + atomsNumber + atomsNumber * (atomsNumber - 1) / 2];
+        int size = 0;
+
+        leafKey[size++] = markedAtom >= 0 ? (char) leafLabels[markedAtom] : NO_MARKED_ATOM;
+        for (int position = 0; position < atomsNumber; position++)
+            leafKey[size++] = (char) elements[atomsAt[position]];
+
+        for (int first = 0; first < atomsNumber; first++) {
+            for (int second = first + 1; second < atomsNumber; second++)
+                leafKey[size++] = (char) orders[atomsAt[first] * stride + atomsAt[second]];
+        }
+
+        String candidateKey = new String(leafKey);
+        int comparison = key == null ? -1 : candidateKey.compareTo(key);
+
+        if (comparison < 0) {
+            key = candidateKey;
+            labels = leafLabels;
+        } else if (comparison == 0 && automorphisms.size() < MAX_AUTOMORPHISMS) {
+            // Both colourings give the same graph: mapping one onto the other is an automorphism.
+            int[] bestAtomsAt = new int[atomsNumber];
+            for (int atom = 0; atom < atomsNumber; atom++)
+                bestAtomsAt[labels[atom]] = atom;
+
+            int[] automorphism = new int[atomsNumber];
+            for (int atom = 0; atom < atomsNumber; atom++)
+                automorphism[atom] = bestAtomsAt[leafLabels[atom]];
+
+            automorphisms.add(automorphism);
+        }
+    }
+}
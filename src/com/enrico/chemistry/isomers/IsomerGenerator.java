@@ -0,0 +1,489 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.isomers;
+
+import com.enrico.chemistry.Composition;
+import com.enrico.chemistry.atoms.ElementTable;
+import com.enrico.chemistry.atoms.scientific.HydrogenScientificAtom;
+import com.enrico.chemistry.formulaparser.FormulaParser;
+import com.enrico.chemistry.formulaparser.ParseResult;
+import com.enrico.chemistry.molecule.MolecularGraph;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * This class finds the structural isomers of a formula: every connected molecule made of its atoms in which every atom
+ * has its usual valence (eg: the 9 heptanes of C7H16, or the 217 molecules of C6H6).
+ *
+ * Hydrogen atoms are left out of the search: the skeleton of the other atoms is built one atom at a time and the
+ * valence left on every atom is filled with Hydrogen at the end. Skeletons are generated with canonical augmentation,
+ * so every isomer is found exactly once without remembering the isomers already found:
+ * - the ways to add an atom to a skeleton that are equal under a symmetry of the skeleton are tried only once;
+ * - a bigger skeleton is kept only if the atom just added is equivalent to the atom that its canonical form would
+ *   remove (the atom that doesn't disconnect the skeleton and comes last in its canonical order).
+ * Every skeleton grows independently from the others, so the search is split among the threads of a fork-join pool.
+ */
+public final class IsomerGenerator {
+    public static final int MAX_HEAVY_ATOMS_NUMBER = 20;
+
+    // Skeletons with at least this many atoms still to add are grown in parallel.
+    private static final int PARALLEL_ATOMS_THRESHOLD = 4;
+
+    private final FormulaParser parser;
+
+    // The atoms other than Hydrogen, grouped by element.
+    private int[] typeElements;
+    private int[] typeValences;
+    private int[] typeCounts;
+    private int heavyAtomsNumber;
+    private int hydrogenAtomsNumber;
+
+    public IsomerGenerator(FormulaParser parser) {
+        this.parser = parser;
+    }
+
+    public String getFormula() {
+        return parser.getFormula();
+    }
+
+    /**
+     * @param element The atomic number of the element.
+     * @return the number of bonds the element usually forms (eg: 4 for Carbon, 2 for Oxygen and Sulfur).
+     */
+    public static int getValence(int element) {
+        int valenceElectrons = ElementTable.getValenceElectrons(element);
+        return valenceElectrons <= 4 ? valenceElectrons : 8 - valenceElectrons;
+    }
+
+    /**
+     * This method checks that the isomers of the formula can be searched, without throwing any exception.
+     * @return the result of the validation.
+     */
+    public ParseResult validate() {
+        ParseResult parseResult = parser.validate();
+        if (!parseResult.isValid())
+            return parseResult;
+
+        String formula = parser.getFormula();
+        Composition composition = parser.getComposition();
+
+        if (composition.getCharge() != 0)
+            return noIsomersResult(formula, "ions are not supported");
+
+        int typesNumber = composition.getElementsNumber() -
+                (composition.getCount(HydrogenScientificAtom.ATOMIC_NUMBER) > 0 ? 1 : 0);
+
+        typeElements = new int[typesNumber];
+        typeValences = new int[typesNumber];
+        typeCounts = new int[typesNumber];
+        heavyAtomsNumber = 0;
+        hydrogenAtomsNumber = composition.getCount(HydrogenScientificAtom.ATOMIC_NUMBER);
+
+        int type = 0;
+        for (int i = 0; i < composition.getElementsNumber(); i++) {
+            int element = composition.getAtomicNumberAt(i);
+            if (element == HydrogenScientificAtom.ATOMIC_NUMBER)
+                continue;
+
+            if (!ElementTable.isMainGroup(element) || getValence(element) == 0)
+                return noIsomersResult(formula, ElementTable.getCompleteName(element) + " doesn't form covalent bonds");
+
+            typeElements[type] = element;
+            typeValences[type] = getValence(element);
+            typeCounts[type] = composition.getCountAt(i);
+            heavyAtomsNumber += typeCounts[type];
+            type++;
+        }
+
+        if (heavyAtomsNumber == 0)
+            return noIsomersResult(formula, "there are no atoms other than Hydrogen");
+
+        if (heavyAtomsNumber > MAX_HEAVY_ATOMS_NUMBER)
+            return noIsomersResult(formula, "too many atoms, at most " + MAX_HEAVY_ATOMS_NUMBER +
+                    " atoms other than Hydrogen are supported");
+
+        return ParseResult.VALID;
+    }
+
+    private static ParseResult noIsomersResult(String formula, String reason) {
+        return ParseResult.moleculeError(ParseResult.ErrorCode.InvalidMolecule, formula,
+                "No isomers can be searched for " + formula + ": " + reason + ".");
+    }
+
+    /**
+     * This method counts the isomers of the formula inside the common pool.
+     * @return the number of isomers.
+     *
+     * @throws IllegalArgumentException if the formula is not valid or not supported.
+     */
+    public long count() throws IllegalArgumentException {
+        return count(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * This method counts the isomers of the formula.
+     * @param pool The pool that runs the search.
+     * @return the number of isomers.
+     *
+     * @throws IllegalArgumentException if the formula is not valid or not supported.
+     */
+    public long count(ForkJoinPool pool) throws IllegalArgumentException {
+        validateOrThrow();
+
+        LongAdder counter = new LongAdder();
+        generate(pool, isomer -> counter.increment(), () -> false);
+
+        return counter.sum();
+    }
+
+    /**
+     * This method starts the search of the isomers of the formula. The isomers are found by the worker threads of the
+     * iterator while they are read, at most a few of them are found in advance.
+     * @return the iterator of the isomers, it should be closed if it's not read until the end.
+     *
+     * @throws IllegalArgumentException if the formula is not valid or not supported.
+     */
+    public IsomerIterator iterator() throws IllegalArgumentException {
+        validateOrThrow();
+        return new IsomerIterator(this);
+    }
+
+    private void validateOrThrow() throws IllegalArgumentException {
+        ParseResult result = validate();
+        if (!result.isValid())
+            throw new IllegalArgumentException(result.getMessage());
+    }
+
+    /**
+     * This method searches the isomers, every one of them is given to the consumer, from any of the threads of the pool.
+     * @param pool The pool that runs the search.
+     * @param consumer The consumer of the isomers.
+     * @param stopped Tells if the search must be stopped before its end.
+     */
+    void generate(ForkJoinPool pool, Consumer<MolecularGraph> consumer, BooleanSupplier stopped) {
+        // The free valences left for Hydrogen drop by two for every bond, so they must have the parity of Hydrogen.
+        int valenceSum = 0;
+        for (int type = 0; type < typeElements.length; type++)
+            valenceSum += typeCounts[type] * typeValences[type];
+
+        if ((valenceSum - hydrogenAtomsNumber) % 2 != 0 || valenceSum - hydrogenAtomsNumber < 2 * (heavyAtomsNumber - 1))
+            return;
+
+        ArrayList<SkeletonTask> tasks = new ArrayList<>();
+        for (int type = 0; type < typeElements.length; type++)
+            tasks.add(new SkeletonTask(new Skeleton(type), consumer, stopped));
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    // Grows a skeleton and all of the skeletons that follow from it.
+    private final class SkeletonTask extends RecursiveAction {
+        private final Skeleton skeleton;
+        private final Consumer<MolecularGraph> consumer;
+        private final BooleanSupplier stopped;
+
+        SkeletonTask(Skeleton skeleton, Consumer<MolecularGraph> consumer, BooleanSupplier stopped) {
+            this.skeleton = skeleton;
+            this.consumer = consumer;
+            this.stopped = stopped;
+        }
+
+        @Override
+        protected void compute() {
+            grow(skeleton);
+        }
+
+        private void grow(Skeleton current) {
+            if (stopped.getAsBoolean())
+                return;
+
+            if (current.atomsNumber == heavyAtomsNumber) {
+                if (current.freeValences == hydrogenAtomsNumber)
+                    consumer.accept(current.toGraph());
+
+                return;
+            }
+
+            List<Skeleton> children = current.getChildren();
+
+            if (heavyAtomsNumber - current.atomsNumber >= PARALLEL_ATOMS_THRESHOLD && children.size() > 1) {
+                ArrayList<SkeletonTask> tasks = new ArrayList<>(children.size());
+                for (Skeleton child : children)
+                    tasks.add(new SkeletonTask(child, consumer, stopped));
+
+                invokeAll(tasks);
+            } else {
+                for (Skeleton child : children)
+                    grow(child);
+            }
+        }
+    }
+
+    /*
+     * A connected skeleton of atoms other than Hydrogen. It is immutable once built, the children are new skeletons.
+     */
+    private final class Skeleton {
+        private final int atomsNumber;
+        private final int[] types;
+        private final int[] elements;
+        // The order of the bond between atoms i and j is at i * heavyAtomsNumber + j.
+        private final int[] orders;
+        private final int[] bondOrderSums;
+        private final int[] typesLeft;
+        // The bonds that the atoms can still form, they will be taken by Hydrogen at the end.
+        private final int freeValences;
+
+        Skeleton(int type) {
+            atomsNumber = 1;
+            types = new int[] {type};
+            elements = new int[] {typeElements[type]};
+            orders = new int[heavyAtomsNumber * heavyAtomsNumber];
+            bondOrderSums = new int[] {0};
+            typesLeft = typeCounts.clone();
+            typesLeft[type]--;
+            freeValences = typeValences[type];
+        }
+
+        private Skeleton(Skeleton parent, int type, int[] newOrders) {
+            int newAtom = parent.atomsNumber;
+            int newBondOrderSum = 0;
+
+            atomsNumber = newAtom + 1;
+            types = append(parent.types, type);
+            elements = append(parent.elements, typeElements[type]);
+            orders = parent.orders.clone();
+            bondOrderSums = append(parent.bondOrderSums, 0);
+            typesLeft = parent.typesLeft.clone();
+            typesLeft[type]--;
+
+            for (int atom = 0; atom < newAtom; atom++) {
+                if (newOrders[atom] == 0)
+                    continue;
+
+                orders[atom * heavyAtomsNumber + newAtom] = newOrders[atom];
+                orders[newAtom * heavyAtomsNumber + atom] = newOrders[atom];
+                bondOrderSums[atom] += newOrders[atom];
+                newBondOrderSum += newOrders[atom];
+            }
+
+            bondOrderSums[newAtom] = newBondOrderSum;
+            freeValences = parent.freeValences + typeValences[type] - 2 * newBondOrderSum;
+        }
+
+        private int[] append(int[] values, int value) {
+            int[] appended = new int[values.length + 1];
+            System.arraycopy(values, 0, appended, 0, values.length);
+            appended[values.length] = value;
+
+            return appended;
+        }
+
+        private int getFreeValence(int atom) {
+            return typeValences[types[atom]] - bondOrderSums[atom];
+        }
+
+        /**
+         * @return the skeletons with one more atom whose canonical parent is this skeleton.
+         */
+        List<Skeleton> getChildren() {
+            ArrayList<Skeleton> children = new ArrayList<>();
+            HashSet<String> augmentations = new HashSet<>();
+
+            // Every new atom adds its valence minus two for every bond, the free valences can't go below Hydrogen.
+            int maxFreeValencesLeft = freeValences - hydrogenAtomsNumber;
+            for (int type = 0; type < typesLeft.length; type++)
+                maxFreeValencesLeft += typesLeft[type] * (typeValences[type] - 2);
+
+            for (int type = 0; type < typesLeft.length; type++) {
+                if (typesLeft[type] == 0)
+                    continue;
+
+                // The new atom takes the place of a single bond in the bound above, every extra order costs two.
+                int maxBondOrderSum = Math.min(typeValences[type], 1 + maxFreeValencesLeft / 2);
+                if (maxFreeValencesLeft < 0 || maxBondOrderSum < 1)
+                    continue;
+
+                addChildren(type, 0, new int[atomsNumber], 0, maxBondOrderSum, children, augmentations);
+            }
+
+            return children;
+        }
+
+        private void addChildren(int type, int atom, int[] newOrders, int bondOrderSum, int maxBondOrderSum,
+                                 List<Skeleton> children, HashSet<String> augmentations) {
+            if (atom == atomsNumber) {
+                if (bondOrderSum > 0)
+                    tryAddChild(new Skeleton(this, type, newOrders), children, augmentations);
+
+                return;
+            }
+
+            int maxOrder = Math.min(MolecularGraph.MAX_BOND_ORDER,
+                    Math.min(getFreeValence(atom), maxBondOrderSum - bondOrderSum));
+
+            for (int order = 0; order <= maxOrder; order++) {
+                newOrders[atom] = order;
+                addChildren(type, atom + 1, newOrders, bondOrderSum + order, maxBondOrderSum, children, augmentations);
+            }
+
+            newOrders[atom] = 0;
+        }
+
+        private void tryAddChild(Skeleton child, List<Skeleton> children, HashSet<String> augmentations) {
+            int newAtom = child.atomsNumber - 1;
+
+            // The atom removed by the canonical form is one of the atoms that don't disconnect the skeleton and have
+            // the highest colour: if the new atom is not one of them, it can't be equivalent to it.
+            int[] colours = CanonicalForm.getRefinedColours(child.atomsNumber, child.elements, child.orders,
+                    heavyAtomsNumber);
+            boolean[] cutAtoms = child.getCutAtoms();
+            boolean[] removable = new boolean[child.atomsNumber];
+            int removedColour = -1;
+            int removableNumber = 0;
+
+            for (int atom = 0; atom < child.atomsNumber; atom++) {
+                if (cutAtoms[atom])
+                    continue;
+
+                if (colours[atom] > removedColour) {
+                    removedColour = colours[atom];
+                    removableNumber = 0;
+                }
+
+                if (colours[atom] == removedColour) {
+                    removable[atom] = true;
+                    removableNumber++;
+                }
+            }
+
+            if (!removable[newAtom] || colours[newAtom] != removedColour)
+                return;
+
+            // Additions that are equal under a symmetry of this skeleton give the same child.
+            CanonicalForm markedForm = child.getCanonicalForm(newAtom);
+            if (!augmentations.add(markedForm.getKey()))
+                return;
+
+            if (removableNumber == 1) {
+                children.add(child);
+                return;
+            }
+
+            // The child is kept only if the atom just added is equivalent to the atom its canonical form removes.
+            int removedAtom = child.getCanonicalRemovedAtom(removable);
+            if (removedAtom == newAtom || markedForm.getKey().equals(child.getCanonicalForm(removedAtom).getKey()))
+                children.add(child);
+        }
+
+        CanonicalForm getCanonicalForm(int markedAtom) {
+            return new CanonicalForm(atomsNumber, elements, orders, heavyAtomsNumber, markedAtom);
+        }
+
+        // The removable atom that comes last in the canonical order.
+        private int getCanonicalRemovedAtom(boolean[] removable) {
+            CanonicalForm form = getCanonicalForm(-1);
+            int removedAtom = -1;
+
+            for (int atom = 0; atom < atomsNumber; atom++) {
+                if (removable[atom] && (removedAtom < 0 || form.getLabel(atom) > form.getLabel(removedAtom)))
+                    removedAtom = atom;
+            }
+
+            return removedAtom;
+        }
+
+        /**
+         * @return for every atom, true if removing it disconnects the skeleton (found with Tarjan's low links).
+         */
+        private boolean[] getCutAtoms() {
+            boolean[] cutAtoms = new boolean[atomsNumber];
+            int[] discovery = new int[atomsNumber];
+            int[] low = new int[atomsNumber];
+
+            visitCutAtoms(0, -1, 1, discovery, low, cutAtoms);
+            return cutAtoms;
+        }
+
+        private int visitCutAtoms(int atom, int parent, int time, int[] discovery, int[] low, boolean[] cutAtoms) {
+            discovery[atom] = low[atom] = time++;
+            int children = 0;
+
+            for (int other = 0; other < atomsNumber; other++) {
+                if (orders[atom * heavyAtomsNumber + other] == 0 || other == parent)
+                    continue;
+
+                if (discovery[other] == 0) {
+                    children++;
+                    time = visitCutAtoms(other, atom, time, discovery, low, cutAtoms);
+                    low[atom] = Math.min(low[atom], low[other]);
+
+                    if (parent >= 0 && low[other] >= discovery[atom])
+                        cutAtoms[atom] = true;
+                } else {
+                    low[atom] = Math.min(low[atom], discovery[other]);
+                }
+            }
+
+            if (parent < 0 && children > 1)
+                cutAtoms[atom] = true;
+
+            return time;
+        }
+
+        // Builds the molecule, with the atoms in canonical order and the Hydrogen atoms at the end.
+        MolecularGraph toGraph() {
+            CanonicalForm form = getCanonicalForm(-1);
+            int[] atomsAt = new int[atomsNumber];
+            for (int atom = 0; atom < atomsNumber; atom++)
+                atomsAt[form.getLabel(atom)] = atom;
+
+            MolecularGraph.Builder builder = new MolecularGraph.Builder();
+            for (int position = 0; position < atomsNumber; position++)
+                builder.addAtom(elements[atomsAt[position]]);
+
+            for (int first = 0; first < atomsNumber; first++) {
+                for (int second = first + 1; second < atomsNumber; second++) {
+                    int order = orders[atomsAt[first] * heavyAtomsNumber + atomsAt[second]];
+                    if (order > 0)
+                        builder.addBond(first, second, order);
+                }
+            }
+
+            for (int position = 0; position < atomsNumber; position++) {
+                for (int i = 0; i < getFreeValence(atomsAt[position]); i++)
+                    builder.addBond(position, builder.addAtom(HydrogenScientificAtom.ATOMIC_NUMBER), 1);
+            }
+
+            return builder.build();
+        }
+    }
+}
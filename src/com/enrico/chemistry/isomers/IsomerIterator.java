@@ -0,0 +1,126 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.isomers;
+
+import com.enrico.chemistry.molecule.MolecularGraph;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class reads the isomers found by an IsomerGenerator while they are found.
+ *
+ * The search runs inside a pool of worker threads owned by the iterator, which put the isomers into a small queue: when
+ * the queue is full the workers wait for the reader, so isomers are found only a little ahead of the reader.
+ * An iterator that is not read until the end must be closed to stop its workers.
+ */
+public final class IsomerIterator implements Iterator<MolecularGraph>, AutoCloseable {
+    // The isomers found in advance.
+    private static final int QUEUE_CAPACITY = 256;
+    // How often the workers waiting for the reader check if the iterator has been closed.
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    // Put into the queue after the last isomer.
+    private static final MolecularGraph END = new MolecularGraph.Builder().build();
+
+    private final ArrayBlockingQueue<MolecularGraph> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final ForkJoinPool pool = new ForkJoinPool();
+    private volatile boolean closed = false;
+
+    private MolecularGraph next = null;
+    private boolean ended = false;
+
+    IsomerIterator(IsomerGenerator generator) {
+        Thread searchThread = new Thread(() -> {
+            try {
+                generator.generate(pool, this::offer, () -> closed);
+            } finally {
+                offer(END);
+                pool.shutdown();
+            }
+        }, "Isomer search");
+
+        searchThread.setDaemon(true);
+        searchThread.start();
+    }
+
+    private void offer(MolecularGraph isomer) {
+        try {
+            while (!closed && !queue.offer(isomer, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                // Waiting for the reader.
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return true if there's another isomer, waiting for it to be found if needed.
+     */
+    @Override
+    public boolean hasNext() {
+        if (next != null)
+            return true;
+        if (ended || closed)
+            return false;
+
+        try {
+            next = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        if (next == END) {
+            next = null;
+            ended = true;
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the next isomer, with the atoms other than Hydrogen first.
+     */
+    @Override
+    public MolecularGraph next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        MolecularGraph isomer = next;
+        next = null;
+
+        return isomer;
+    }
+
+    /**
+     * This method stops the search, the isomers not read yet are dropped.
+     */
+    @Override
+    public void close() {
+        // The workers see the flag and stop growing skeletons, the pool is shut down when they are done.
+        closed = true;
+        queue.clear();
+    }
+}
@@ -0,0 +1,561 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.lewis;
+
+import com.enrico.chemistry.atoms.ElementTable;
+import com.enrico.chemistry.atoms.scientific.HydrogenScientificAtom;
+import com.enrico.chemistry.molecule.MolecularGraph;
+
+import java.util.Arrays;
+
+/**
+ * This class searches the Lewis structure of a molecule with a backbone: a chain of the atoms that make four bonds
+ * (eg: the Carbon atoms of organic molecules), with every other heavy atom bonded to the chain as a terminal atom
+ * (eg: O, N, halogens), so that it can make multiple bonds with it, and with the Hydrogen atoms spread over all of
+ * them (eg: CH3-C#N for C2H3N, CH3-C(=O)-OH for C2H4O2, CH3-C#CH for C3H4).
+ *
+ * Only the structures where every atom makes its normal number of bonds are searched: every octet is complete, and
+ * the only formal charges are the ones of the charge of the molecule, placed on terminal atoms (eg: CH3-COO-). The
+ * search is a dynamic programming over the atoms of the chain: the state before an atom is the terminal atoms
+ * already bonded, the Hydrogen atoms already used and the order of the bond coming from the previous atom, and it is
+ * memoised packed into longs. A backbone atom gets at most one terminal atom with a single bond and Hydrogen atoms
+ * (eg: no two OH groups on the same Carbon atom, which lose water). Among the structures found, the one with the most
+ * Hydrogen atoms bonded to the chain (eg: C-H instead of O-H bonds) wins, then the one with the terminal atoms
+ * gathered on the fewest backbone atoms (eg: the COOH group of CH3COOH instead of HO-CH2-CHO), then the one with the
+ * most Hydrogen atoms on the first atoms of the chain.
+ *
+ * The backbone can also close a ring of six or five atoms on its first atoms, with the rest of the chain continuing
+ * from the last atom of the ring (eg: C6H6, C6H5-CH3). The bonds of a ring are single or double, no atom of the ring
+ * has two double bonds in it, and the structures with the most double bonds in the ring are preferred after the ones
+ * with the most Hydrogen atoms on the backbone. A ring of six atoms with alternating double and single bonds (eg: a
+ * Kekule structure of C6H6, C6H5-OH) is tried first, and it wins whenever it fits the formula. The other rings are
+ * tried before the chain, which replaces them only with a better value (eg: CH3-C#CH for C3H4, the open chain of
+ * C6H12O6).
+ */
+final class BackboneSkeletonSearch {
+    // The search gives up after visiting this many states.
+    public static final int MAX_SEARCH_STATES = 200_000;
+
+    private static final int INFEASIBLE = Integer.MIN_VALUE + 1;
+
+    // A Hydrogen atom on the backbone is worth more than all the double bonds of a ring, which are worth more than the
+    // squares of the terminal atoms of all the backbone atoms. The squares favour the terminal atoms gathered on the
+    // same backbone atoms.
+    private static final int HYDROGEN_VALUE = 8192;
+    private static final int RING_DOUBLE_BOND_VALUE = 2048;
+
+    // The number of bonds made by a backbone atom.
+    private static final int BACKBONE_BONDS_NUMBER = 4;
+
+    // The sizes of the rings tried, before the chain.
+    private static final int[] RING_SIZES = {6, 5};
+
+    // The size of the ring tried first, with alternating double and single bonds (eg: C6H6).
+    private static final int KEKULE_RING_SIZE = 6;
+
+    // The charge of the molecule is placed on at most this many terminal atoms.
+    private static final int MAX_CHARGED_TERMINALS = 7;
+
+    // The atom, the Hydrogen atoms and the charges used, the bond from the previous atom and the bond closing the ring
+    // come first inside a key, then the terminal atoms used of every kind, eight bits each.
+    private static final int STATE_KEY_HEADER_BITS = 24;
+
+    private final int[] backbone;
+    private final int hydrogensNumber;
+    private final int chargeSign;
+    private final int chargedTerminalsNumber;
+
+    // The kinds of terminal atoms: their element and their number.
+    private final int[] kindElements;
+    private final int[] kindCounts;
+
+    // The ways a terminal atom can be bonded, for every kind: its formal charge, the extra order of its bond with the
+    // backbone and its Hydrogen atoms. The variants of a kind go from variantStarts[kind] to variantStarts[kind + 1].
+    private final int[] variantStarts;
+    private final int[] variantKinds;
+    private final int[] variantCharges;
+    private final int[] variantExtraBondOrders;
+    private final int[] variantHydrogens;
+
+    // The skeleton searched: the atoms in the ring (0 for a chain) and the extra order of the bond that closes it.
+    private int ringSize;
+    private boolean kekuleRing;
+    private int closingExtraBondOrder;
+
+    // The extra order of the bond between every backbone atom and the previous one, in the search.
+    private final int[] previousExtraBondOrders;
+
+    // The search state: the terminal atoms used of every kind and the variants chosen for every backbone atom.
+    private final int[] usedCounts;
+    private final int[][] variantCounts;
+
+    private final PackedStateMap bestValues;
+    private final long[] stateKeys;
+    private final int keyWords;
+    private int visitedStates = 0;
+
+    // The backbone atom whose choice is recorded, and the choices recorded for every backbone atom.
+    private int recordedAtom = -1;
+    private int recordedValue;
+    private int recordedHydrogens;
+    private final int[] chosenExtraBondOrders;
+    private final int[] chosenHydrogens;
+    private final int[][] chosenVariantCounts;
+
+    /**
+     * @param sortedElements The atoms of the molecule, sorted by centrality with the Hydrogen atoms last.
+     * @param charge The charge of the molecule.
+     */
+    BackboneSkeletonSearch(int[] sortedElements, int charge) {
+        int backboneSize = 0;
+        int hydrogens = 0;
+        int[] elementCounts = new int[ElementTable.ELEMENTS_NUMBER + 1];
+
+        for (int element : sortedElements) {
+            if (element == HydrogenScientificAtom.ATOMIC_NUMBER)
+                hydrogens++;
+            else if (isBackboneElement(element))
+                backboneSize++;
+            else
+                elementCounts[element]++;
+        }
+
+        backbone = new int[backboneSize];
+        hydrogensNumber = hydrogens;
+        chargeSign = Integer.signum(charge);
+        chargedTerminalsNumber = Math.abs(charge);
+
+        // The kinds keep the order of the sorted elements.
+        int kindsNumber = 0;
+        int[] kinds = new int[sortedElements.length];
+        backboneSize = 0;
+
+        for (int element : sortedElements) {
+            if (element == HydrogenScientificAtom.ATOMIC_NUMBER)
+                continue;
+
+            if (isBackboneElement(element))
+                backbone[backboneSize++] = element;
+            else if (kindsNumber == 0 || kinds[kindsNumber - 1] != element)
+                kinds[kindsNumber++] = element;
+        }
+
+        kindElements = Arrays.copyOf(kinds, kindsNumber);
+        kindCounts = new int[kindsNumber];
+        for (int kind = 0; kind < kindsNumber; kind++)
+            kindCounts[kind] = elementCounts[kindElements[kind]];
+
+        // Every terminal atom makes a single bond with the backbone, of order one to three.
+        variantStarts = new int[kindsNumber + 1];
+        int[] charges = new int[kindsNumber * 2 * MolecularGraph.MAX_BOND_ORDER];
+        int[] extraBondOrders = new int[charges.length];
+        int[] variantHydrogensNumbers = new int[charges.length];
+        int[] kindsOfVariants = new int[charges.length];
+        int variantsNumber = 0;
+
+        for (int kind = 0; kind < kindsNumber; kind++) {
+            variantStarts[kind] = variantsNumber;
+
+            for (int variantCharge : chargeSign == 0 ? new int[] {0} : new int[] {0, chargeSign}) {
+                int bondsNumber = getTerminalBondsNumber(kindElements[kind], variantCharge);
+
+                for (int extraBondOrder = 0; extraBondOrder < Math.min(MolecularGraph.MAX_BOND_ORDER, bondsNumber);
+                     extraBondOrder++) {
+                    charges[variantsNumber] = variantCharge;
+                    extraBondOrders[variantsNumber] = extraBondOrder;
+                    variantHydrogensNumbers[variantsNumber] = bondsNumber - 1 - extraBondOrder;
+                    kindsOfVariants[variantsNumber] = kind;
+                    variantsNumber++;
+                }
+            }
+        }
+
+        variantStarts[kindsNumber] = variantsNumber;
+        variantKinds = Arrays.copyOf(kindsOfVariants, variantsNumber);
+        variantCharges = Arrays.copyOf(charges, variantsNumber);
+        variantExtraBondOrders = Arrays.copyOf(extraBondOrders, variantsNumber);
+        variantHydrogens = Arrays.copyOf(variantHydrogensNumbers, variantsNumber);
+
+        usedCounts = new int[kindsNumber];
+        variantCounts = new int[backbone.length][variantsNumber];
+        previousExtraBondOrders = new int[backbone.length];
+        chosenExtraBondOrders = new int[backbone.length];
+        chosenHydrogens = new int[backbone.length];
+        chosenVariantCounts = new int[backbone.length][variantsNumber];
+
+        keyWords = PackedStateMap.getWordsNumber(STATE_KEY_HEADER_BITS + Byte.SIZE * kindsNumber);
+        bestValues = new PackedStateMap(keyWords);
+        stateKeys = new long[backbone.length * keyWords];
+    }
+
+    // The elements that make four bonds (eg: C, Si) form the backbone.
+    private static boolean isBackboneElement(int element) {
+        return LewisStructureGenerator.getNormalBondsNumber(element) == BACKBONE_BONDS_NUMBER;
+    }
+
+    /**
+     * A charge changes the bonds made by an atom with a complete octet: one more for a positive charge (eg: N+ in
+     * NH4+), one less for a negative one (eg: O- in CH3COO-).
+     * @return the bonds made by a terminal atom of the element with the charge, 0 if it can't be a terminal atom.
+     */
+    private static int getTerminalBondsNumber(int element, int formalCharge) {
+        int bondsNumber = LewisStructureGenerator.getNormalBondsNumber(element);
+
+        // Atoms without a complete octet (eg: Boron) or that make no bonds (eg: noble gases) are never charged.
+        if (formalCharge != 0 && (ElementTable.getValenceElectrons(element) < 4 || bondsNumber <= 0))
+            return 0;
+
+        return Math.max(0, bondsNumber + formalCharge);
+    }
+
+    /**
+     * This method searches the structure.
+     * @param formula The formula of the molecule.
+     * @return the structure, or null if the molecule has no backbone or no structure is found.
+     */
+    LewisStructure search(String formula) {
+        if (backbone.length == 0 || chargedTerminalsNumber > MAX_CHARGED_TERMINALS)
+            return null;
+
+        for (int kind = 0; kind < kindElements.length; kind++) {
+            if (variantStarts[kind] == variantStarts[kind + 1])
+                return null;
+        }
+
+        int bestValue = INFEASIBLE;
+        int bestRingSize = 0;
+        boolean bestKekuleRing = false;
+
+        // A Kekule ring wins over every other skeleton (eg: C6H5-OH instead of a cyclohexadienone for C6H6O).
+        if (backbone.length >= KEKULE_RING_SIZE) {
+            bestValue = solveSkeleton(KEKULE_RING_SIZE, true);
+            bestRingSize = KEKULE_RING_SIZE;
+            bestKekuleRing = true;
+        }
+
+        if (bestValue == INFEASIBLE) {
+            bestKekuleRing = false;
+
+            for (int size : RING_SIZES) {
+                if (backbone.length < size)
+                    continue;
+
+                int value = solveSkeleton(size, false);
+                if (value > bestValue) {
+                    bestValue = value;
+                    bestRingSize = size;
+                }
+            }
+
+            int value = solveSkeleton(0, false);
+            if (value > bestValue) {
+                bestValue = value;
+                bestRingSize = 0;
+            }
+        }
+
+        if (bestValue == INFEASIBLE)
+            return null;
+
+        // The memo must hold the states of the best skeleton to record its choices.
+        if (ringSize != bestRingSize || kekuleRing != bestKekuleRing)
+            solveSkeleton(bestRingSize, bestKekuleRing);
+
+        // The choices are recorded going down the chain, following the best values found by the search.
+        int hydrogensUsed = 0;
+        int chargesUsed = 0;
+        int previousExtraBondOrder = 0;
+
+        for (int atom = 0; atom < backbone.length; atom++) {
+            recordedAtom = atom;
+            recordedValue = INFEASIBLE;
+            recordedHydrogens = -1;
+            previousExtraBondOrders[atom] = previousExtraBondOrder;
+
+            visitTerminals(atom, 0, getBondsLeft(atom, previousExtraBondOrder), hydrogensUsed, chargesUsed, 0);
+
+            for (int variant = 0; variant < variantKinds.length; variant++) {
+                int count = chosenVariantCounts[atom][variant];
+                usedCounts[variantKinds[variant]] += count;
+                hydrogensUsed += count * variantHydrogens[variant];
+                if (variantCharges[variant] != 0)
+                    chargesUsed += count;
+            }
+
+            hydrogensUsed += chosenHydrogens[atom];
+            previousExtraBondOrder = chosenExtraBondOrders[atom];
+        }
+
+        return buildStructure(formula);
+    }
+
+    /**
+     * This method searches the best value of a skeleton, trying every order of the bond that closes the ring. The
+     * memo is left filled with the states of the best order, so that the choices can be recorded.
+     * @param size The atoms in the ring, 0 for a chain.
+     * @param kekule true if the bonds of the ring alternate between double and single bonds.
+     * @return the best value of the skeleton, or INFEASIBLE if it has no structure or the search gives up.
+     */
+    private int solveSkeleton(int size, boolean kekule) {
+        ringSize = size;
+        kekuleRing = kekule;
+
+        int bestValue = INFEASIBLE;
+        int bestClosingExtraBondOrder = 0;
+
+        for (int extraBondOrder = kekule ? 1 : 0; extraBondOrder <= (size > 0 ? 1 : 0); extraBondOrder++) {
+            closingExtraBondOrder = extraBondOrder;
+            bestValues.clear();
+            visitedStates = 0;
+
+            int value = solve(0, 0, 0, 0);
+            if (value != INFEASIBLE)
+                value += extraBondOrder * RING_DOUBLE_BOND_VALUE;
+
+            if (visitedStates < MAX_SEARCH_STATES && value > bestValue) {
+                bestValue = value;
+                bestClosingExtraBondOrder = extraBondOrder;
+            }
+        }
+
+        if (bestValue != INFEASIBLE && closingExtraBondOrder != bestClosingExtraBondOrder) {
+            closingExtraBondOrder = bestClosingExtraBondOrder;
+            bestValues.clear();
+            visitedStates = 0;
+            solve(0, 0, 0, 0);
+        }
+
+        return bestValue;
+    }
+
+    /**
+     * The bonds of a ring are single or double, and an atom of the ring can't have two double bonds in it.
+     * @return the lowest extra order of the bond between the atom and the next one.
+     */
+    private int getMinExtraBondOrder(int atom) {
+        // The closing bond of a Kekule ring is double, so are the ones that leave its odd atoms.
+        return kekuleRing && atom + 1 < ringSize ? atom % 2 : 0;
+    }
+
+    /**
+     * @return the highest extra order of the bond between the atom and the next one.
+     */
+    private int getMaxExtraBondOrder(int atom) {
+        if (atom == backbone.length - 1)
+            return 0;
+        if (atom + 1 >= ringSize)
+            return MolecularGraph.MAX_BOND_ORDER - 1;
+        if (kekuleRing)
+            return atom % 2;
+
+        boolean previousDoubleBond = (atom > 0 ? previousExtraBondOrders[atom] : closingExtraBondOrder) > 0;
+        boolean nextDoubleBond = atom + 1 == ringSize - 1 && closingExtraBondOrder > 0;
+        return previousDoubleBond || nextDoubleBond ? 0 : 1;
+    }
+
+    private int getBondsLeft(int atom, int previousExtraBondOrder) {
+        int bondsLeft = BACKBONE_BONDS_NUMBER - (atom > 0 ? 1 + previousExtraBondOrder : 0);
+
+        // The first and the last atom of the ring are bonded by the closing bond.
+        if (ringSize > 0 && (atom == 0 || atom == ringSize - 1))
+            bondsLeft -= 1 + closingExtraBondOrder;
+
+        return bondsLeft;
+    }
+
+    /**
+     * @return the best value of the backbone atoms from the atom onwards, or INFEASIBLE: HYDROGEN_VALUE for every
+     * Hydrogen atom bonded to them, RING_DOUBLE_BOND_VALUE for every double bond of the ring that follows them, plus
+     * the square of the number of terminal atoms bonded to every one of them.
+     */
+    private int solve(int atom, int hydrogensUsed, int chargesUsed, int previousExtraBondOrder) {
+        if (atom == backbone.length) {
+            if (hydrogensUsed != hydrogensNumber || chargesUsed != chargedTerminalsNumber)
+                return INFEASIBLE;
+
+            for (int kind = 0; kind < kindCounts.length; kind++) {
+                if (usedCounts[kind] != kindCounts[kind])
+                    return INFEASIBLE;
+            }
+
+            return 0;
+        }
+
+        if (visitedStates >= MAX_SEARCH_STATES)
+            return INFEASIBLE;
+
+        int keyOffset = packStateKey(atom, hydrogensUsed, chargesUsed, previousExtraBondOrder);
+        int bestValue = bestValues.get(stateKeys, keyOffset);
+        if (bestValue != PackedStateMap.NO_VALUE)
+            return bestValue;
+
+        visitedStates++;
+        previousExtraBondOrders[atom] = previousExtraBondOrder;
+
+        bestValue = visitTerminals(atom, 0, getBondsLeft(atom, previousExtraBondOrder), hydrogensUsed, chargesUsed,
+                                   0);
+        bestValues.put(stateKeys, keyOffset, bestValue);
+
+        return bestValue;
+    }
+
+    private int packStateKey(int atom, int hydrogensUsed, int chargesUsed, int previousExtraBondOrder) {
+        int keyOffset = atom * keyWords;
+        Arrays.fill(stateKeys, keyOffset, keyOffset + keyWords, 0);
+        stateKeys[keyOffset] = atom | hydrogensUsed << 8 | chargesUsed << 16 | previousExtraBondOrder << 20 |
+                               closingExtraBondOrder << 22;
+
+        int bit = STATE_KEY_HEADER_BITS;
+        for (int kind = 0; kind < usedCounts.length; kind++, bit += Byte.SIZE)
+            stateKeys[keyOffset + bit / Long.SIZE] |= (long) usedCounts[kind] << (bit % Long.SIZE);
+
+        return keyOffset;
+    }
+
+    /**
+     * This method chooses how many terminal atoms of every variant are bonded to a backbone atom, then the order of
+     * the bond with the next atom of the chain, which leaves the rest of the bonds of the atom to Hydrogen atoms.
+     * @return the best value of the backbone atoms from the atom onwards, or INFEASIBLE.
+     */
+    private int visitTerminals(int atom, int variant, int bondsLeft, int hydrogensUsed, int chargesUsed,
+                               int terminalsNumber) {
+        if (variant == variantKinds.length)
+            return visitNextBond(atom, bondsLeft, hydrogensUsed, chargesUsed, terminalsNumber);
+
+        int kind = variantKinds[variant];
+        int bondOrder = 1 + variantExtraBondOrders[variant];
+        int maxCount = Math.min(kindCounts[kind] - usedCounts[kind], bondsLeft / bondOrder);
+        if (variantCharges[variant] != 0)
+            maxCount = Math.min(maxCount, chargedTerminalsNumber - chargesUsed);
+        if (isHydrogenatedSingleBond(variant))
+            maxCount = Math.min(maxCount, 1 - countHydrogenatedSingleBonds(atom, variant));
+
+        int bestValue = INFEASIBLE;
+
+        for (int count = 0; count <= maxCount; count++) {
+            int hydrogens = hydrogensUsed + count * variantHydrogens[variant];
+            if (hydrogens > hydrogensNumber)
+                break;
+
+            variantCounts[atom][variant] = count;
+            usedCounts[kind] += count;
+
+            bestValue = Math.max(bestValue, visitTerminals(atom, variant + 1, bondsLeft - count * bondOrder,
+                    hydrogens, chargesUsed + (variantCharges[variant] != 0 ? count : 0), terminalsNumber + count));
+
+            usedCounts[kind] -= count;
+        }
+
+        variantCounts[atom][variant] = 0;
+        return bestValue;
+    }
+
+    private boolean isHydrogenatedSingleBond(int variant) {
+        return variantExtraBondOrders[variant] == 0 && variantHydrogens[variant] > 0;
+    }
+
+    // The terminal atoms with a single bond and Hydrogen atoms already bonded to the atom, before the variant.
+    private int countHydrogenatedSingleBonds(int atom, int lastVariant) {
+        int count = 0;
+        for (int variant = 0; variant < lastVariant; variant++) {
+            if (isHydrogenatedSingleBond(variant))
+                count += variantCounts[atom][variant];
+        }
+
+        return count;
+    }
+
+    private int visitNextBond(int atom, int bondsLeft, int hydrogensUsed, int chargesUsed, int terminalsNumber) {
+        boolean last = atom == backbone.length - 1;
+        boolean ringBond = atom + 1 < ringSize;
+        int maxExtraBondOrder = getMaxExtraBondOrder(atom);
+        int bestValue = INFEASIBLE;
+
+        for (int extraBondOrder = getMinExtraBondOrder(atom); extraBondOrder <= maxExtraBondOrder; extraBondOrder++) {
+            int hydrogens = bondsLeft - (last ? 0 : 1 + extraBondOrder);
+            if (hydrogens < 0)
+                break;
+            if (hydrogensUsed + hydrogens > hydrogensNumber)
+                continue;
+
+            int nextValue = solve(atom + 1, hydrogensUsed + hydrogens, chargesUsed, extraBondOrder);
+            if (nextValue == INFEASIBLE)
+                continue;
+
+            int value = hydrogens * HYDROGEN_VALUE + terminalsNumber * terminalsNumber + nextValue;
+            if (ringBond)
+                value += extraBondOrder * RING_DOUBLE_BOND_VALUE;
+            bestValue = Math.max(bestValue, value);
+
+            // The best choice has the best value, then the most Hydrogen atoms on this atom.
+            if (atom == recordedAtom &&
+                (value > recordedValue || value == recordedValue && hydrogens > recordedHydrogens)) {
+                recordedValue = value;
+                recordedHydrogens = hydrogens;
+                chosenHydrogens[atom] = hydrogens;
+                chosenExtraBondOrders[atom] = extraBondOrder;
+                System.arraycopy(variantCounts[atom], 0, chosenVariantCounts[atom], 0, variantKinds.length);
+            }
+        }
+
+        return bestValue;
+    }
+
+    private LewisStructure buildStructure(String formula) {
+        MolecularGraph.Builder builder = new MolecularGraph.Builder();
+        int[] formalCharges = new int[backbone.length + Arrays.stream(kindCounts).sum() + hydrogensNumber];
+
+        for (int element : backbone)
+            builder.addAtom(element);
+
+        if (ringSize > 0)
+            builder.addBond(0, ringSize - 1, 1 + closingExtraBondOrder);
+
+        for (int atom = 0; atom < backbone.length; atom++) {
+            if (atom < backbone.length - 1)
+                builder.addBond(atom, atom + 1, 1 + chosenExtraBondOrders[atom]);
+
+            for (int variant = 0; variant < variantKinds.length; variant++) {
+                for (int i = 0; i < chosenVariantCounts[atom][variant]; i++) {
+                    int terminal = builder.addAtom(kindElements[variantKinds[variant]]);
+                    formalCharges[terminal] = variantCharges[variant];
+                    builder.addBond(atom, terminal, 1 + variantExtraBondOrders[variant]);
+
+                    for (int hydrogen = 0; hydrogen < variantHydrogens[variant]; hydrogen++)
+                        builder.addBond(terminal, builder.addAtom(HydrogenScientificAtom.ATOMIC_NUMBER), 1);
+                }
+            }
+
+            for (int hydrogen = 0; hydrogen < chosenHydrogens[atom]; hydrogen++)
+                builder.addBond(atom, builder.addAtom(HydrogenScientificAtom.ATOMIC_NUMBER), 1);
+        }
+
+        MolecularGraph graph = builder.build();
+        int[] lonePairs = new int[graph.getAtomsNumber()];
+
+        // The electrons left to every atom by its bonds and its formal charge are its lone pairs.
+        for (int atom = 0; atom < lonePairs.length; atom++) {
+            lonePairs[atom] = (ElementTable.getValenceElectrons(graph.getElement(atom)) - formalCharges[atom] -
+                               graph.getBondOrderSum(atom)) / 2;
+        }
+
+        return LewisStructure.fromGraph(formula, graph, lonePairs);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.lewis;
+
+import com.enrico.chemistry.atoms.ElementTable;
+
+/**
+ * This class scores the atoms of a Lewis structure, the lower the score the better the structure.
+ *
+ * The score of an atom counts its missing electrons (a lot), its formal charge, its expanded octet and a small
+ * penalty for a formal charge placed on the wrong atom (negative charges belong on electronegative atoms). It is shared
+ * by the generator and by the resonance enumerator, so they agree on which structures are the best ones.
+ */
+final class LewisScore {
+    private static final int MISSING_ELECTRON_WEIGHT = 1000;
+    private static final int FORMAL_CHARGE_WEIGHT = 100;
+    private static final int EXPANDED_OCTET_WEIGHT = 10;
+    private static final int MAX_CHARGE_PLACEMENT_PENALTY = 9;
+
+    private final int[] valenceElectrons;
+    private final int[] maxElectrons;
+    private final int[] targetElectrons;
+    private final int[] negativeChargePenalties;
+    private final int[] positiveChargePenalties;
+
+    /**
+     * @param elements The atomic number of every atom of the structure.
+     */
+    LewisScore(int[] elements) {
+        int atomsNumber = elements.length;
+
+        valenceElectrons = new int[atomsNumber];
+        maxElectrons = new int[atomsNumber];
+        targetElectrons = new int[atomsNumber];
+        negativeChargePenalties = new int[atomsNumber];
+        positiveChargePenalties = new int[atomsNumber];
+
+        for (int atom = 0; atom < atomsNumber; atom++) {
+            double electronegativity = ElementTable.getElectronegativity(elements[atom]);
+
+            valenceElectrons[atom] = ElementTable.getValenceElectrons(elements[atom]);
+            maxElectrons[atom] = getElementMaxElectrons(elements[atom]);
+            targetElectrons[atom] = getElementTargetElectrons(elements[atom]);
+
+            negativeChargePenalties[atom] = getChargePlacementPenalty(4.0 - electronegativity);
+            positiveChargePenalties[atom] = getChargePlacementPenalty(electronegativity);
+        }
+    }
+
+    /**
+     * @param element The atomic number of the element.
+     * @return the most electrons an atom of the element can have around it: 2 in the first period, 8 in the second
+     * one and 12 (an expanded octet) in the other ones.
+     */
+    static int getElementMaxElectrons(int element) {
+        switch (ElementTable.getPeriod(element)) {
+            case 1:
+                return 2;
+            case 2:
+                return 8;
+            default:
+                return 12;
+        }
+    }
+
+    /**
+     * Atoms with less than four valence electrons (eg: Boron) are happy without a complete octet.
+     * @param element The atomic number of the element.
+     * @return the electrons an atom of the element needs around it: 2 in the first period, 8 (an octet) or twice its
+     * valence electrons in the other ones.
+     */
+    static int getElementTargetElectrons(int element) {
+        if (ElementTable.getPeriod(element) == 1)
+            return 2;
+
+        return Math.min(8, 2 * ElementTable.getValenceElectrons(element));
+    }
+
+    private static int getChargePlacementPenalty(double electronegativity) {
+        return (int) Math.max(0, Math.min(MAX_CHARGE_PLACEMENT_PENALTY, Math.round(electronegativity * 2)));
+    }
+
+    int getValenceElectrons(int atom) {
+        return valenceElectrons[atom];
+    }
+
+    int getMaxElectrons(int atom) {
+        return maxElectrons[atom];
+    }
+
+    /**
+     * @param atom The index of the atom.
+     * @param bondOrderSum The sum of the orders of the bonds of the atom.
+     * @param lonePairs The lone pairs of the atom.
+     * @return the score of the atom.
+     */
+    int getScore(int atom, int bondOrderSum, int lonePairs) {
+        int electrons = 2 * (bondOrderSum + lonePairs);
+        int formalCharge = valenceElectrons[atom] - 2 * lonePairs - bondOrderSum;
+
+        int score = Math.max(0, targetElectrons[atom] - electrons) * MISSING_ELECTRON_WEIGHT +
+                Math.abs(formalCharge) * FORMAL_CHARGE_WEIGHT;
+
+        if (electrons > 8)
+            score += EXPANDED_OCTET_WEIGHT;
+
+        if (formalCharge < 0)
+            score += negativeChargePenalties[atom];
+        else if (formalCharge > 0)
+            score += positiveChargePenalties[atom];
+
+        return score;
+    }
+}
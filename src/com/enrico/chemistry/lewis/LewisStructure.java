@@ -0,0 +1,222 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.lewis;
+
+import com.enrico.chemistry.atoms.ElementTable;
+import com.enrico.chemistry.molecule.MolecularGraph;
+
+/**
+ * This class is a Lewis structure: the graph of the bonds of a molecule, with the order of every bond, and the lone
+ * pairs and the formal charge of every atom.
+ *
+ * Structures are immutable. The LewisStructureGenerator makes them from a formula, with a ring of six or five atoms
+ * at most (eg: a Kekule structure of C6H6); fromGraph() makes a structure from any graph, which can then be given to
+ * the ResonanceEnumerator.
+ */
+public final class LewisStructure {
+    // An acceptable structure has at most this many formal charges more than the charge of the molecule.
+    public static final int MAX_EXTRA_FORMAL_CHARGES = 2;
+
+    private final String formula;
+    private final MolecularGraph graph;
+    private final int[] lonePairs;
+    private final int[] formalCharges;
+    private final int score;
+
+    LewisStructure(String formula, MolecularGraph graph, int[] lonePairs, int score) {
+        this.formula = formula;
+        this.graph = graph;
+        this.lonePairs = lonePairs.clone();
+        this.score = score;
+
+        formalCharges = new int[lonePairs.length];
+        for (int atom = 0; atom < lonePairs.length; atom++) {
+            formalCharges[atom] = ElementTable.getValenceElectrons(graph.getElement(atom)) - 2 * lonePairs[atom] -
+                    graph.getBondOrderSum(atom);
+        }
+    }
+
+    /**
+     * This method makes a structure from the bonds of a molecule and the lone pairs of its atoms.
+     * @param formula The formula of the molecule.
+     * @param graph The graph of the atoms and of the bonds, with the bond orders. It can contain rings.
+     * @param lonePairs The lone pairs of every atom, in the order of the graph.
+     * @return the structure, scored as the generator scores its own structures.
+     *
+     * @throws IllegalArgumentException if the graph is empty or not connected, if an atom is not of a main group
+     * element, if the lone pairs don't match the atoms or if an atom has more electrons around it than it can hold.
+     */
+    public static LewisStructure fromGraph(String formula, MolecularGraph graph, int[] lonePairs)
+            throws IllegalArgumentException {
+        int atomsNumber = graph.getAtomsNumber();
+
+        if (atomsNumber == 0)
+            throw new IllegalArgumentException("The graph has no atoms.");
+        if (!graph.isConnected())
+            throw new IllegalArgumentException("The atoms of the graph are not all bonded together.");
+        if (lonePairs.length != atomsNumber)
+            throw new IllegalArgumentException("Expected the lone pairs of " + atomsNumber + " atoms, found " +
+                                               lonePairs.length + ".");
+
+        int[] elements = new int[atomsNumber];
+        for (int atom = 0; atom < atomsNumber; atom++) {
+            elements[atom] = graph.getElement(atom);
+
+            if (!ElementTable.isMainGroup(elements[atom]))
+                throw new IllegalArgumentException(ElementTable.getCompleteName(elements[atom]) +
+                                                   " is not a main group element.");
+            if (lonePairs[atom] < 0)
+                throw new IllegalArgumentException("Atom " + (atom + 1) + " has a negative number of lone pairs.");
+
+            int electrons = 2 * (lonePairs[atom] + graph.getBondOrderSum(atom));
+            if (electrons > LewisScore.getElementMaxElectrons(elements[atom]))
+                throw new IllegalArgumentException("Atom " + (atom + 1) + " (" +
+                                                   ElementTable.getSymbol(elements[atom]) + ") has " + electrons +
+                                                   " electrons around it.");
+        }
+
+        LewisScore scorer = new LewisScore(elements);
+        int score = 0;
+        for (int atom = 0; atom < atomsNumber; atom++)
+            score += scorer.getScore(atom, graph.getBondOrderSum(atom), lonePairs[atom]);
+
+        return new LewisStructure(formula, graph, lonePairs, score);
+    }
+
+    public String getFormula() {
+        return formula;
+    }
+
+    /**
+     * @return the graph of the atoms and of the bonds, with the bond orders.
+     */
+    public MolecularGraph getGraph() {
+        return graph;
+    }
+
+    public int getAtomsNumber() {
+        return graph.getAtomsNumber();
+    }
+
+    public int getLonePairs(int atom) {
+        return lonePairs[atom];
+    }
+
+    /**
+     * @param atom The index of the atom.
+     * @return the formal charge of the atom: its valence electrons minus its lone electrons and its bonds.
+     */
+    public int getFormalCharge(int atom) {
+        return formalCharges[atom];
+    }
+
+    /**
+     * @param atom The index of the atom.
+     * @return the number of electrons around the atom, shared or not (eg: 8 for a complete octet).
+     */
+    public int getElectronsAround(int atom) {
+        return 2 * (lonePairs[atom] + graph.getBondOrderSum(atom));
+    }
+
+    /**
+     * @return the sum of the absolute values of the formal charges, the lower the better.
+     */
+    public int getFormalChargesSum() {
+        int sum = 0;
+        for (int formalCharge : formalCharges)
+            sum += Math.abs(formalCharge);
+
+        return sum;
+    }
+
+    /**
+     * @return the score given to the structure by the generator, structures with lower scores are better.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return the charge of the molecule: the sum of the formal charges.
+     */
+    public int getCharge() {
+        int charge = 0;
+        for (int formalCharge : formalCharges)
+            charge += formalCharge;
+
+        return charge;
+    }
+
+    /**
+     * A structure is acceptable when no atom misses electrons and the sum of the absolute values of the formal charges
+     * is at most MAX_EXTRA_FORMAL_CHARGES more than the charge of the molecule (eg: 2 for HNO3, 3 for NO3-). A
+     * structure that is not acceptable is not the one of the molecule.
+     * @return true if the structure is acceptable.
+     */
+    public boolean isAcceptable() {
+        for (int atom = 0; atom < graph.getAtomsNumber(); atom++) {
+            if (getElectronsAround(atom) < LewisScore.getElementTargetElectrons(graph.getElement(atom)))
+                return false;
+        }
+
+        return getFormalChargesSum() <= Math.abs(getCharge()) + MAX_EXTRA_FORMAL_CHARGES;
+    }
+
+    /**
+     * @return a description of the structure, with a line for every atom.
+     */
+    public String getDescription() {
+        StringBuilder description = new StringBuilder();
+
+        for (int atom = 0; atom < graph.getAtomsNumber(); atom++) {
+            description.append(ElementTable.getSymbol(graph.getElement(atom))).append(atom + 1).append(':');
+
+            for (int entry = graph.getBondsStart(atom); entry < graph.getBondsEnd(atom); entry++) {
+                int neighbour = graph.getNeighbour(entry);
+                description.append(' ').append(getBondSymbol(graph.getEntryBondOrder(entry)))
+                        .append(ElementTable.getSymbol(graph.getElement(neighbour))).append(neighbour + 1);
+            }
+
+            description.append(", lone pairs: ").append(lonePairs[atom]);
+            if (formalCharges[atom] != 0)
+                description.append(", formal charge: ").append(String.format("%+d", formalCharges[atom]));
+
+            description.append('\n');
+        }
+
+        return description.toString();
+    }
+
+    private static String getBondSymbol(int bondOrder) {
+        switch (bondOrder) {
+            case 2:
+                return "=";
+            case 3:
+                return "#";
+            default:
+                return "-";
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+}
@@ -0,0 +1,471 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.lewis;
+
+import com.enrico.chemistry.Composition;
+import com.enrico.chemistry.atoms.ElementTable;
+import com.enrico.chemistry.atoms.scientific.HydrogenScientificAtom;
+import com.enrico.chemistry.atoms.scientific.OxygenScientificAtom;
+import com.enrico.chemistry.formulaparser.FormulaParser;
+import com.enrico.chemistry.formulaparser.ParseResult;
+import com.enrico.chemistry.molecule.MolecularGraph;
+
+import java.util.Arrays;
+
+/**
+ * This class searches the best Lewis structure of a formula.
+ *
+ * A formula doesn't say how its atoms are connected, so several skeletons of the molecule are tried and the best
+ * structure wins. The first one is a backbone: the atoms that make four bonds form a chain, which can close a ring
+ * on its first atoms, the other atoms are bonded to it as terminal atoms and the Hydrogen atoms are spread over all
+ * of them, so that every octet is complete (see BackboneSkeletonSearch; eg: CH3-C#N for CH3CN, CH3-C(=O)-OH for
+ * CH3COOH, CH3-C#CH for C3H4, a Kekule structure of C6H6). The others are
+ * trees of single bonds: the least electronegative atom other than Hydrogen is the central one, the other atoms are
+ * bonded to the atom that has most bonds left. Hydrogen atoms are either bonded to Oxygen atoms first (as in acids
+ * and alcohols) or to the atoms with most bonds left.
+ *
+ * The valence electrons left are then distributed as multiple bonds and lone pairs with a depth first search over
+ * the atoms of the skeleton. Every structure gets a score that counts the missing electrons of incomplete octets, the
+ * formal charges, the expanded octets and the formal charges placed on the wrong atoms, and the structure with the
+ * lowest score is chosen. The search is pruned with branch and bound, and the states already explored (an atom, the
+ * electrons left and the bonds already chosen towards the atoms still to visit, packed into a few longs) are memoised
+ * with a lower bound of their score, so they are not explored again when they can't lead to a better structure.
+ * The molecules whose skeletons leave some atoms without their octet (eg: the fused rings of C60) get no structure:
+ * it can be made from a graph with LewisStructure.fromGraph().
+ */
+public final class LewisStructureGenerator {
+    public static final int MAX_ATOMS_NUMBER = 64;
+
+    // The search of a skeleton stops after visiting this many states, keeping the best structure found.
+    public static final int MAX_SEARCH_STATES = 500_000;
+
+    private static final int NO_SCORE = Integer.MAX_VALUE;
+    private static final int INFEASIBLE_BOUND = Integer.MAX_VALUE / 2;
+
+    // The atom and the electrons left come first inside the key of a state, see packStateKey().
+    private static final int STATE_KEY_HEADER_BITS = 40;
+
+    private final FormulaParser parser;
+    private LewisStructure structure = null;
+
+    // The skeleton being searched. Atom 0 is the central atom, every other atom has a parent with a lower index.
+    private int atomsNumber;
+    private int[] elements;
+    private int[] parents;
+    private int[] degrees;
+    private int[] childrenStarts;
+    private int[] children;
+    private int[] maxElectrons;
+    private LewisScore scorer;
+
+    // The search state: the extra order of the bond between every atom and its parent, and the lone pairs.
+    private int[] extraBondOrders;
+    private int[] lonePairs;
+
+    private int[] bestExtraBondOrders;
+    private int[] bestLonePairs;
+    private int bestScore;
+
+    // The memo of the search, and the key of the state visited for every atom.
+    private PackedStateMap lowerBounds;
+    private long[] stateKeys;
+    private int keyWords;
+    private int visitedStates;
+
+    public LewisStructureGenerator(FormulaParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * @return the best Lewis structure found by the last call to tryGenerate(), or null if none was found.
+     */
+    public LewisStructure getStructure() {
+        return structure;
+    }
+
+    /**
+     * This method searches the best Lewis structure of the formula, without throwing any exception.
+     * @return the result of the search, it is not valid if the formula contains errors or if no structure is found.
+     */
+    public ParseResult tryGenerate() {
+        structure = null;
+
+        ParseResult parseResult = parser.validate();
+        if (!parseResult.isValid())
+            return parseResult;
+
+        String formula = parser.getFormula();
+        Composition composition = parser.getComposition();
+
+        if (composition.getAtomsNumber() > MAX_ATOMS_NUMBER)
+            return noStructureResult(formula, "too many atoms, at most " + MAX_ATOMS_NUMBER + " are supported");
+
+        int[] sortedElements = getSortedElements(composition);
+        int valenceElectronsNumber = -composition.getCharge();
+
+        for (int element : sortedElements) {
+            if (!ElementTable.isMainGroup(element))
+                return noStructureResult(formula, ElementTable.getCompleteName(element) + " is not a main group element");
+
+            valenceElectronsNumber += ElementTable.getValenceElectrons(element);
+        }
+
+        if (valenceElectronsNumber % 2 != 0)
+            return noStructureResult(formula, "the number of valence electrons is odd");
+
+        // The backbone skeleton is searched first: the trees replace its structure only if they score better.
+        structure = new BackboneSkeletonSearch(sortedElements, composition.getCharge()).search(formula);
+
+        // Every skeleton is searched, the best structure wins.
+        for (int[] centralFirstElements : getCentralAtomChoices(sortedElements)) {
+            for (boolean hydrogenOnOxygen : new boolean[] {true, false}) {
+                if (!buildSkeleton(centralFirstElements, hydrogenOnOxygen))
+                    continue;
+
+                int electronsLeft = valenceElectronsNumber - 2 * (atomsNumber - 1);
+                if (electronsLeft < 0)
+                    continue;
+
+                LewisStructure skeletonStructure = search(formula, electronsLeft,
+                        structure == null ? NO_SCORE : structure.getScore());
+                if (skeletonStructure != null)
+                    structure = skeletonStructure;
+            }
+        }
+
+        if (structure == null)
+            return noStructureResult(formula, "the electrons can't be placed on the skeleton of the molecule");
+
+        // A skeleton that leaves atoms without their octet or that needs too many formal charges is not the one of
+        // the molecule.
+        if (!structure.isAcceptable()) {
+            structure = null;
+            return noStructureResult(formula, "no skeleton tried completes the octets of the atoms with at most " +
+                                              (Math.abs(composition.getCharge()) +
+                                               LewisStructure.MAX_EXTRA_FORMAL_CHARGES) +
+                                              " formal charges");
+        }
+
+        return ParseResult.VALID;
+    }
+
+    private static ParseResult noStructureResult(String formula, String reason) {
+        return ParseResult.moleculeError(ParseResult.ErrorCode.InvalidMolecule, formula,
+                "No Lewis structure found for " + formula + ": " + reason + ".");
+    }
+
+    // Returns the atoms of the formula: the atoms other than Hydrogen sorted by electronegativity, then Hydrogen.
+    private static int[] getSortedElements(Composition composition) {
+        int[] sortedElements = new int[composition.getAtomsNumber()];
+        int size = 0;
+
+        for (int i = 0; i < composition.getElementsNumber(); i++) {
+            int element = composition.getAtomicNumberAt(i);
+            if (element == HydrogenScientificAtom.ATOMIC_NUMBER)
+                continue;
+
+            for (int j = 0; j < composition.getCountAt(i); j++) {
+                int index = size++;
+
+                while (index > 0 && compareCentrality(sortedElements[index - 1], element) > 0) {
+                    sortedElements[index] = sortedElements[index - 1];
+                    index--;
+                }
+
+                sortedElements[index] = element;
+            }
+        }
+
+        while (size < sortedElements.length)
+            sortedElements[size++] = HydrogenScientificAtom.ATOMIC_NUMBER;
+
+        return sortedElements;
+    }
+
+    /**
+     * The central atom is the least electronegative one, but the atom that makes the most normal bonds is tried too
+     * (eg: O inside Cl2O), so that atoms with a single bond are not chained to each other.
+     * @param sortedElements The atoms, sorted by centrality.
+     * @return the orders of the atoms to build the skeletons from, with the central atom first.
+     */
+    private static int[][] getCentralAtomChoices(int[] sortedElements) {
+        int bondingAtom = 0;
+
+        for (int atom = 1; atom < sortedElements.length; atom++) {
+            if (sortedElements[atom] != HydrogenScientificAtom.ATOMIC_NUMBER &&
+                getNormalBondsNumber(sortedElements[atom]) > getNormalBondsNumber(sortedElements[bondingAtom]))
+                bondingAtom = atom;
+        }
+
+        if (bondingAtom == 0)
+            return new int[][] {sortedElements};
+
+        // The other atoms keep their order.
+        int[] bondingFirstElements = new int[sortedElements.length];
+        bondingFirstElements[0] = sortedElements[bondingAtom];
+        System.arraycopy(sortedElements, 0, bondingFirstElements, 1, bondingAtom);
+        System.arraycopy(sortedElements, bondingAtom + 1, bondingFirstElements, bondingAtom + 1,
+                         sortedElements.length - bondingAtom - 1);
+
+        return new int[][] {sortedElements, bondingFirstElements};
+    }
+
+    // The less electronegative an element is, the more central it is. Elements without electronegativity come last.
+    private static int compareCentrality(int firstElement, int secondElement) {
+        double firstElectronegativity = getSortingElectronegativity(firstElement);
+        double secondElectronegativity = getSortingElectronegativity(secondElement);
+
+        if (firstElectronegativity != secondElectronegativity)
+            return Double.compare(firstElectronegativity, secondElectronegativity);
+
+        return Integer.compare(firstElement, secondElement);
+    }
+
+    private static double getSortingElectronegativity(int element) {
+        double electronegativity = ElementTable.getElectronegativity(element);
+        return electronegativity == 0 ? Double.MAX_VALUE : electronegativity;
+    }
+
+    // The bonds an atom does without expanding its octet or without forming dative bonds (eg: 1 for Cl, 3 for P).
+    static int getNormalBondsNumber(int element) {
+        int valence = ElementTable.getValenceElectrons(element);
+
+        if (ElementTable.getPeriod(element) == 1)
+            return 2 - valence;
+
+        return valence <= 4 ? valence : 8 - valence;
+    }
+
+    private static int getMaxBondsNumber(int element) {
+        int maxElectrons = LewisScore.getElementMaxElectrons(element);
+        return maxElectrons == 2 ? 1 : maxElectrons / 2;
+    }
+
+    /**
+     * This method builds the skeleton of single bonds of the molecule.
+     * @param sortedElements The atoms, sorted by centrality.
+     * @param hydrogenOnOxygen true if Hydrogen atoms are bonded to Oxygen atoms first.
+     * @return false if the atoms can't be connected.
+     */
+    private boolean buildSkeleton(int[] sortedElements, boolean hydrogenOnOxygen) {
+        atomsNumber = sortedElements.length;
+        elements = sortedElements.clone();
+        parents = new int[atomsNumber];
+        degrees = new int[atomsNumber];
+
+        parents[0] = -1;
+
+        for (int atom = 1; atom < atomsNumber; atom++) {
+            boolean hydrogen = elements[atom] == HydrogenScientificAtom.ATOMIC_NUMBER;
+            int parent = -1;
+            int parentBondsLeft = 0;
+
+            // The first pass only makes the normal bonds between different elements, choosing the atom with most
+            // bonds left. When no atom can bond that way, the most central atom that can still bond is chosen,
+            // bonding to an atom of the same element (eg: C-C, O-O) or expanding its octet (eg: S in SO4^2-, P in
+            // PCl5), so that O atoms and halogens are never chained when the central atom can take them.
+            for (int candidate = 0; candidate < atom; candidate++) {
+                if (elements[candidate] == elements[atom])
+                    continue;
+
+                int bondsLeft = getNormalBondsNumber(elements[candidate]) - degrees[candidate];
+                if (bondsLeft <= 0)
+                    continue;
+
+                if (hydrogen && hydrogenOnOxygen && elements[candidate] == OxygenScientificAtom.ATOMIC_NUMBER)
+                    bondsLeft += MAX_ATOMS_NUMBER;
+
+                if (bondsLeft > parentBondsLeft) {
+                    parent = candidate;
+                    parentBondsLeft = bondsLeft;
+                }
+            }
+
+            for (int candidate = 0; candidate < atom && parent < 0; candidate++) {
+                if (getMaxBondsNumber(elements[candidate]) > degrees[candidate])
+                    parent = candidate;
+            }
+
+            if (parent < 0)
+                return false;
+
+            parents[atom] = parent;
+            degrees[atom]++;
+            degrees[parent]++;
+        }
+
+        // Children of every atom, in compressed form.
+        childrenStarts = new int[atomsNumber + 1];
+        children = new int[Math.max(0, atomsNumber - 1)];
+
+        for (int atom = 1; atom < atomsNumber; atom++)
+            childrenStarts[parents[atom] + 1]++;
+        for (int atom = 0; atom < atomsNumber; atom++)
+            childrenStarts[atom + 1] += childrenStarts[atom];
+
+        int[] nextChild = Arrays.copyOf(childrenStarts, atomsNumber);
+        for (int atom = 1; atom < atomsNumber; atom++)
+            children[nextChild[parents[atom]]++] = atom;
+
+        scorer = new LewisScore(elements);
+        maxElectrons = new int[atomsNumber];
+
+        for (int atom = 0; atom < atomsNumber; atom++) {
+            maxElectrons[atom] = scorer.getMaxElectrons(atom);
+
+            if (2 * degrees[atom] > maxElectrons[atom])
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * This method searches the best structure of the skeleton built.
+     * @param scoreToBeat The score of the best structure already found, NO_SCORE if none was found.
+     * @return the best structure that scores less than scoreToBeat, or null if there isn't one.
+     */
+    private LewisStructure search(String formula, int electronsLeft, int scoreToBeat) {
+        extraBondOrders = new int[atomsNumber];
+        lonePairs = new int[atomsNumber];
+        bestExtraBondOrders = null;
+        bestLonePairs = null;
+        bestScore = scoreToBeat;
+        keyWords = PackedStateMap.getWordsNumber(STATE_KEY_HEADER_BITS + 2 * atomsNumber);
+        lowerBounds = new PackedStateMap(keyWords);
+        stateKeys = new long[atomsNumber * keyWords];
+        visitedStates = 0;
+
+        visitAtom(0, electronsLeft, 0);
+
+        if (bestLonePairs == null)
+            return null;
+
+        MolecularGraph.Builder builder = new MolecularGraph.Builder();
+        for (int atom = 0; atom < atomsNumber; atom++)
+            builder.addAtom(elements[atom]);
+        for (int atom = 1; atom < atomsNumber; atom++)
+            builder.addBond(parents[atom], atom, 1 + bestExtraBondOrders[atom]);
+
+        return new LewisStructure(formula, builder.build(), bestLonePairs, bestScore);
+    }
+
+    // The most electrons that the atoms from an atom onwards can still take, used to prune the search.
+    private int getFreeElectrons(int firstAtom) {
+        int freeElectrons = 0;
+        for (int atom = firstAtom; atom < atomsNumber; atom++)
+            freeElectrons += maxElectrons[atom] - 2 * (degrees[atom] + extraBondOrders[atom]);
+
+        return freeElectrons;
+    }
+
+    /**
+     * This method packs the state before visiting an atom: the atom, the electrons left and the extra orders of the
+     * bonds chosen towards the atoms left, two bits each. Every atom has its own key, so that the key of a state is
+     * still there when the search comes back to it.
+     * @return the index of the first long of the key inside stateKeys.
+     */
+    private int packStateKey(int atom, int electronsLeft) {
+        int keyOffset = atom * keyWords;
+        Arrays.fill(stateKeys, keyOffset, keyOffset + keyWords, 0);
+        stateKeys[keyOffset] = atom | (long) electronsLeft << 20;
+
+        int bit = STATE_KEY_HEADER_BITS;
+        for (int i = atom; i < atomsNumber; i++, bit += 2)
+            stateKeys[keyOffset + bit / Long.SIZE] |= (long) extraBondOrders[i] << (bit % Long.SIZE);
+
+        return keyOffset;
+    }
+
+    private void visitAtom(int atom, int electronsLeft, int score) {
+        if (atom == atomsNumber) {
+            if (electronsLeft == 0 && score < bestScore) {
+                bestScore = score;
+                bestExtraBondOrders = extraBondOrders.clone();
+                bestLonePairs = lonePairs.clone();
+            }
+
+            return;
+        }
+
+        if (score >= bestScore || visitedStates >= MAX_SEARCH_STATES || electronsLeft > getFreeElectrons(atom))
+            return;
+
+        visitedStates++;
+
+        int keyOffset = packStateKey(atom, electronsLeft);
+        int lowerBound = lowerBounds.get(stateKeys, keyOffset);
+        if (lowerBound != PackedStateMap.NO_VALUE && score + lowerBound >= bestScore)
+            return;
+
+        int previousBestScore = bestScore;
+        int bondOrderSum = degrees[atom] + (atom > 0 ? extraBondOrders[atom] : 0);
+
+        visitChildren(atom, childrenStarts[atom], bondOrderSum, electronsLeft, score);
+
+        // A search cut by the limit of states is not complete, so nothing can be learned from it.
+        if (visitedStates >= MAX_SEARCH_STATES)
+            return;
+
+        // If no better structure was found, the structures from this state score at least as the best one.
+        int bound;
+        if (bestScore < previousBestScore)
+            bound = bestScore - score;
+        else if (previousBestScore != NO_SCORE)
+            bound = previousBestScore - score;
+        else
+            bound = INFEASIBLE_BOUND;
+
+        if (bound > lowerBound)
+            lowerBounds.put(stateKeys, keyOffset, bound);
+    }
+
+    // Chooses the order of the bonds towards the children of an atom, then its lone pairs.
+    private void visitChildren(int atom, int childIndex, int bondOrderSum, int electronsLeft, int score) {
+        if (childIndex == childrenStarts[atom + 1]) {
+            int maxLonePairs = Math.min(electronsLeft, maxElectrons[atom] - 2 * bondOrderSum) / 2;
+
+            // Full octets are tried first, so that good structures are found early and the bound prunes more.
+            for (int atomLonePairs = maxLonePairs; atomLonePairs >= 0; atomLonePairs--) {
+                lonePairs[atom] = atomLonePairs;
+                visitAtom(atom + 1, electronsLeft - 2 * atomLonePairs,
+                        score + scorer.getScore(atom, bondOrderSum, atomLonePairs));
+            }
+
+            lonePairs[atom] = 0;
+            return;
+        }
+
+        int child = children[childIndex];
+
+        for (int extraBondOrder = 0; extraBondOrder < MolecularGraph.MAX_BOND_ORDER; extraBondOrder++) {
+            if (2 * extraBondOrder > electronsLeft ||
+                2 * (bondOrderSum + extraBondOrder) > maxElectrons[atom] ||
+                2 * (degrees[child] + extraBondOrder) > maxElectrons[child])
+                break;
+
+            extraBondOrders[child] = extraBondOrder;
+            visitChildren(atom, childIndex + 1, bondOrderSum + extraBondOrder, electronsLeft - 2 * extraBondOrder,
+                    score);
+        }
+
+        extraBondOrders[child] = 0;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.lewis;
+
+import com.enrico.chemistry.molecule.MolecularGraph;
+
+/**
+ * This class places the atoms of a Lewis structure on a plane, so that it can be drawn.
+ *
+ * The atoms are placed with a radial tree layout: the central atom is in the center, the atoms bonded to it are on a
+ * circle around it, the atoms bonded to those ones on a bigger circle and so on. Every atom gets a slice of its
+ * parent's angle that is proportional to the number of terminal atoms below it, so branches never overlap. The bonds
+ * that close a ring are drawn across the branches.
+ * The lone pairs of every atom are placed in the directions that are the farthest from its bonds.
+ */
+public final class LewisStructureLayout {
+    // Lone pairs are placed in one of these directions, multiples of 45 degrees.
+    private static final int LONE_PAIR_DIRECTIONS = 8;
+
+    private final LewisStructure structure;
+    private final int[] xs;
+    private final int[] ys;
+    private final double[][] lonePairAngles;
+
+    /**
+     * @param structure The Lewis structure.
+     * @param xCenter The x coordinate of the central atom.
+     * @param yCenter The y coordinate of the central atom.
+     * @param bondLength The distance between the circles of the atoms.
+     */
+    public LewisStructureLayout(LewisStructure structure, int xCenter, int yCenter, int bondLength) {
+        this.structure = structure;
+
+        MolecularGraph graph = structure.getGraph();
+        int atomsNumber = graph.getAtomsNumber();
+
+        xs = new int[atomsNumber];
+        ys = new int[atomsNumber];
+        lonePairAngles = new double[atomsNumber][];
+
+        // The atoms are placed along the tree of a breadth first visit from atom 0: in a tree made by the generator
+        // the parent of an atom is its only neighbour with a lower index, in a ring the bonds that close it are not
+        // part of the tree and join atoms of different branches.
+        int[] order = new int[atomsNumber];
+        int[] parents = new int[atomsNumber];
+        int[] depths = new int[atomsNumber];
+        int[] leaves = new int[atomsNumber];
+        boolean[] visited = new boolean[atomsNumber];
+        int head = 0;
+        int tail = 0;
+
+        for (int root = 0; root < atomsNumber; root++) {
+            if (visited[root])
+                continue;
+
+            visited[root] = true;
+            parents[root] = -1;
+            order[tail++] = root;
+
+            while (head < tail) {
+                int atom = order[head++];
+
+                for (int entry = graph.getBondsStart(atom); entry < graph.getBondsEnd(atom); entry++) {
+                    int neighbour = graph.getNeighbour(entry);
+                    if (!visited[neighbour]) {
+                        visited[neighbour] = true;
+                        parents[neighbour] = atom;
+                        depths[neighbour] = depths[atom] + 1;
+                        order[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+
+        for (int i = atomsNumber - 1; i >= 0; i--) {
+            int atom = order[i];
+
+            if (leaves[atom] == 0)
+                leaves[atom] = 1;
+            if (parents[atom] >= 0)
+                leaves[parents[atom]] += leaves[atom];
+        }
+
+        // The slice of angle given to every atom, split among its children in the order of the visit.
+        double[] sliceStarts = new double[atomsNumber];
+        double[] sliceWidths = new double[atomsNumber];
+        double[] nextChildStarts = new double[atomsNumber];
+        int[] childLeaves = new int[atomsNumber];
+
+        for (int atom = 0; atom < atomsNumber; atom++) {
+            if (parents[atom] >= 0)
+                childLeaves[parents[atom]] += leaves[atom];
+            else
+                sliceWidths[atom] = 2 * Math.PI;
+        }
+
+        for (int atom : order) {
+            int parent = parents[atom];
+
+            if (parent >= 0) {
+                sliceStarts[atom] = nextChildStarts[parent];
+                sliceWidths[atom] = sliceWidths[parent] * leaves[atom] / childLeaves[parent];
+                nextChildStarts[parent] += sliceWidths[atom];
+
+                double angle = sliceStarts[atom] + sliceWidths[atom] / 2;
+                xs[atom] = xCenter + (int) Math.round(depths[atom] * bondLength * Math.cos(angle));
+                ys[atom] = yCenter - (int) Math.round(depths[atom] * bondLength * Math.sin(angle));
+            } else {
+                xs[atom] = xCenter;
+                ys[atom] = yCenter;
+            }
+
+            nextChildStarts[atom] = sliceStarts[atom];
+        }
+
+        for (int atom = 0; atom < atomsNumber; atom++)
+            lonePairAngles[atom] = placeLonePairs(graph, atom, structure.getLonePairs(atom));
+    }
+
+    private double[] placeLonePairs(MolecularGraph graph, int atom, int lonePairs) {
+        int degree = graph.getDegree(atom);
+        double[] taken = new double[degree + lonePairs];
+        int takenNumber = 0;
+
+        for (int entry = graph.getBondsStart(atom); entry < graph.getBondsEnd(atom); entry++) {
+            int neighbour = graph.getNeighbour(entry);
+            taken[takenNumber++] = Math.atan2(ys[atom] - ys[neighbour], xs[neighbour] - xs[atom]);
+        }
+
+        double[] angles = new double[lonePairs];
+
+        // Every lone pair goes in the free direction that is the farthest from the bonds and the other lone pairs.
+        for (int pair = 0; pair < lonePairs; pair++) {
+            double bestAngle = 0;
+            double bestDistance = -1;
+
+            for (int direction = 0; direction < LONE_PAIR_DIRECTIONS; direction++) {
+                double angle = direction * 2 * Math.PI / LONE_PAIR_DIRECTIONS;
+                double distance = Math.PI;
+
+                for (int i = 0; i < takenNumber; i++)
+                    distance = Math.min(distance, getAngularDistance(angle, taken[i]));
+
+                if (distance > bestDistance + 1e-9) {
+                    bestAngle = angle;
+                    bestDistance = distance;
+                }
+            }
+
+            angles[pair] = bestAngle;
+            taken[takenNumber++] = bestAngle;
+        }
+
+        return angles;
+    }
+
+    private static double getAngularDistance(double firstAngle, double secondAngle) {
+        double distance = Math.abs(firstAngle - secondAngle) % (2 * Math.PI);
+        return distance > Math.PI ? 2 * Math.PI - distance : distance;
+    }
+
+    public LewisStructure getStructure() {
+        return structure;
+    }
+
+    public int getX(int atom) {
+        return xs[atom];
+    }
+
+    public int getY(int atom) {
+        return ys[atom];
+    }
+
+    /**
+     * @param atom The index of the atom.
+     * @return the directions of the lone pairs of the atom, in radians counterclockwise from the x axis.
+     */
+    public double[] getLonePairAngles(int atom) {
+        return lonePairAngles[atom].clone();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.lewis;
+
+import java.util.Arrays;
+
+/**
+ * This class is a hash map from the states of a search to int values (eg: the lower bound of the score of the
+ * structures that follow a state), used as the memo of the searches of the Lewis structures.
+ *
+ * Every state is packed by the search into the same number of longs, written inside an array owned by the search, so
+ * looking a state up doesn't allocate anything. The keys are stored one after the other inside a single long array
+ * and they are found with linear probing; the map only grows, until it is cleared.
+ */
+final class PackedStateMap {
+    // Returned by get() for the states that are not inside the map, it can't be stored.
+    static final int NO_VALUE = Integer.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final int wordsNumber;
+    private long[] keys;
+    // NO_VALUE marks the empty slots.
+    private int[] values;
+    private int size = 0;
+
+    /**
+     * @param wordsNumber The number of longs of every key.
+     */
+    PackedStateMap(int wordsNumber) {
+        this.wordsNumber = wordsNumber;
+        keys = new long[INITIAL_CAPACITY * wordsNumber];
+        values = new int[INITIAL_CAPACITY];
+        Arrays.fill(values, NO_VALUE);
+    }
+
+    /**
+     * @param bitsNumber The number of bits of a state.
+     * @return the number of longs needed to pack the state.
+     */
+    static int getWordsNumber(int bitsNumber) {
+        return Math.max(1, (bitsNumber + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    /**
+     * @param key The array that contains the key.
+     * @param keyOffset The index of the first long of the key.
+     * @return the value of the state, or NO_VALUE if the state is not inside the map.
+     */
+    int get(long[] key, int keyOffset) {
+        int mask = values.length - 1;
+
+        for (int slot = hash(key, keyOffset) & mask; values[slot] != NO_VALUE; slot = (slot + 1) & mask) {
+            if (equalKeys(slot, key, keyOffset))
+                return values[slot];
+        }
+
+        return NO_VALUE;
+    }
+
+    /**
+     * @param key The array that contains the key.
+     * @param keyOffset The index of the first long of the key.
+     * @param value The value of the state, it replaces the previous one.
+     */
+    void put(long[] key, int keyOffset, int value) {
+        // The table is kept at most half full, so that the probe sequences stay short.
+        if (2 * (size + 1) > values.length)
+            grow();
+
+        int mask = values.length - 1;
+        int slot = hash(key, keyOffset) & mask;
+
+        while (values[slot] != NO_VALUE) {
+            if (equalKeys(slot, key, keyOffset)) {
+                values[slot] = value;
+                return;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        System.arraycopy(key, keyOffset, keys, slot * wordsNumber, wordsNumber);
+        values[slot] = value;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(values, NO_VALUE);
+        size = 0;
+    }
+
+    private boolean equalKeys(int slot, long[] key, int keyOffset) {
+        int slotOffset = slot * wordsNumber;
+        for (int word = 0; word < wordsNumber; word++) {
+            if (keys[slotOffset + word] != key[keyOffset + word])
+                return false;
+        }
+
+        return true;
+    }
+
+    private int hash(long[] key, int keyOffset) {
+        long hash = 0;
+        for (int word = 0; word < wordsNumber; word++)
+            hash = (hash ^ key[keyOffset + word]) * 0x9E3779B97F4A7C15L;
+
+        // The high bits depend on every bit of the key, they are mixed into the low ones used to find the slot.
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        return (int) (hash ^ (hash >>> 33));
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(values, NO_VALUE);
+        size = 0;
+
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] != NO_VALUE)
+                put(oldKeys, slot * wordsNumber, oldValues[slot]);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.lewis;
+
+import com.enrico.chemistry.molecule.MolecularGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class finds the resonance structures of a Lewis structure: all of the structures with the same bonds that
+ * place the electrons of the multiple bonds and of the lone pairs in a different way, and that are as good as the
+ * best one (eg: the three structures of NO3-, with the double bond on a different Oxygen).
+ *
+ * The structures are found with a depth first search over the atoms like the one of the LewisStructureGenerator, but
+ * every structure with the best score is kept instead of the first one. Every structure is identified by a canonical
+ * key (the order of every bond and the lone pairs of every atom, in the order of the graph), which is used to drop the
+ * duplicates. For bigger molecules the first atoms are split among the threads of a fork-join pool, each one searching
+ * the structures that follow a different placement of their electrons.
+ * The search works on any graph: a ring skeleton (eg: the one of C6H6 made by the generator) gives both of its
+ * Kekule structures.
+ */
+public final class ResonanceEnumerator {
+    // At most this many structures are found.
+    public static final int MAX_STRUCTURES = 256;
+
+    // The search stops after visiting this many states, keeping the structures found.
+    public static final int MAX_SEARCH_STATES = 2_000_000;
+
+    // Molecules with at least this many atoms are searched in parallel.
+    public static final int PARALLEL_ATOMS_THRESHOLD = 12;
+
+    // The search is split into tasks on the placements of this many atoms.
+    private static final int SPLIT_ATOMS_NUMBER = 3;
+
+    private static final int INFEASIBLE_BOUND = Integer.MAX_VALUE / 2;
+
+    // The atom and the electrons left come first inside the key of a state.
+    private static final int STATE_KEY_HEADER_BITS = 40;
+
+    private final LewisStructure structure;
+    private final MolecularGraph graph;
+    private final int atomsNumber;
+    private final LewisScore scorer;
+    private final int electronsNumber;
+    // The number of longs of the key of a state.
+    private final int keyWords;
+
+    private final ConcurrentHashMap<String, LewisStructure> structures = new ConcurrentHashMap<>();
+    private final AtomicInteger visitedStates = new AtomicInteger();
+
+    public ResonanceEnumerator(LewisStructure structure) {
+        this.structure = structure;
+        this.graph = structure.getGraph();
+        this.atomsNumber = graph.getAtomsNumber();
+
+        int[] elements = new int[atomsNumber];
+        int electrons = 0;
+
+        // The electrons that can be moved: the ones of the lone pairs and of the multiple bonds.
+        for (int atom = 0; atom < atomsNumber; atom++) {
+            elements[atom] = graph.getElement(atom);
+            electrons += 2 * structure.getLonePairs(atom);
+
+            for (int entry = graph.getBondsStart(atom); entry < graph.getBondsEnd(atom); entry++) {
+                if (graph.getNeighbour(entry) > atom)
+                    electrons += 2 * (graph.getEntryBondOrder(entry) - 1);
+            }
+        }
+
+        this.scorer = new LewisScore(elements);
+        this.electronsNumber = electrons;
+        this.keyWords = PackedStateMap.getWordsNumber(STATE_KEY_HEADER_BITS + 4 * atomsNumber);
+    }
+
+    public LewisStructure getStructure() {
+        return structure;
+    }
+
+    /**
+     * This method finds the resonance structures, in parallel inside the common pool for bigger molecules.
+     * @return the resonance structures, the structure itself included, sorted by their canonical key. The list is
+     * empty if no placement of the electrons is acceptable (eg: it leaves atoms without their octet).
+     */
+    public List<LewisStructure> enumerate() {
+        return enumerate(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * This method finds the resonance structures, in parallel inside the pool for bigger molecules.
+     * @param pool The pool that runs the search.
+     * @return the resonance structures, the structure itself included, sorted by their canonical key. The list is
+     * empty if no placement of the electrons is acceptable (eg: it leaves atoms without their octet).
+     */
+    public List<LewisStructure> enumerate(ForkJoinPool pool) {
+        structures.clear();
+        visitedStates.set(0);
+
+        EnumerationTask task = new EnumerationTask(0, electronsNumber, 0, new int[graph.getBondsNumber() * 2],
+                new int[atomsNumber], new int[atomsNumber]);
+
+        if (atomsNumber >= PARALLEL_ATOMS_THRESHOLD)
+            pool.invoke(task);
+        else
+            task.compute();
+
+        // Only the structures with the best score are resonance structures, as long as that score is acceptable.
+        int bestScore = Integer.MAX_VALUE;
+        for (LewisStructure found : structures.values())
+            bestScore = Math.min(bestScore, found.getScore());
+
+        ArrayList<String> keys = new ArrayList<>();
+        for (Map.Entry<String, LewisStructure> entry : structures.entrySet()) {
+            if (entry.getValue().getScore() == bestScore && entry.getValue().isAcceptable())
+                keys.add(entry.getKey());
+        }
+
+        keys.sort(null);
+
+        ArrayList<LewisStructure> result = new ArrayList<>(keys.size());
+        for (String key : keys)
+            result.add(structures.get(key));
+
+        if (result.isEmpty() && structure.isAcceptable())
+            result.add(structure);
+
+        return result;
+    }
+
+    /**
+     * This method returns the canonical key of a structure with the same bonds: equal structures have equal keys.
+     * @param bondOrders The order of every bond, indexed by the entry of its first atom inside the graph.
+     * @param lonePairs The lone pairs of every atom.
+     * @return the key.
+     */
+    private String getCanonicalKey(int[] bondOrders, int[] lonePairs) {
+        StringBuilder key = new StringBuilder(atomsNumber * 2);
+
+        for (int atom = 0; atom < atomsNumber; atom++) {
+            key.append((char) ('0' + lonePairs[atom]));
+
+            for (int entry = graph.getBondsStart(atom); entry < graph.getBondsEnd(atom); entry++) {
+                if (graph.getNeighbour(entry) > atom)
+                    key.append((char) ('0' + bondOrders[entry]));
+            }
+        }
+
+        return key.toString();
+    }
+
+    private void addStructure(int[] bondOrders, int[] lonePairs, int score) {
+        String key = getCanonicalKey(bondOrders, lonePairs);
+        if (structures.containsKey(key))
+            return;
+
+        MolecularGraph.Builder builder = new MolecularGraph.Builder();
+        for (int atom = 0; atom < atomsNumber; atom++)
+            builder.addAtom(graph.getElement(atom));
+
+        for (int atom = 0; atom < atomsNumber; atom++) {
+            for (int entry = graph.getBondsStart(atom); entry < graph.getBondsEnd(atom); entry++) {
+                if (graph.getNeighbour(entry) > atom)
+                    builder.addBond(atom, graph.getNeighbour(entry), bondOrders[entry]);
+            }
+        }
+
+        structures.putIfAbsent(key, new LewisStructure(structure.getFormula(), builder.build(), lonePairs, score));
+    }
+
+    private boolean isSearchOver() {
+        return structures.size() >= MAX_STRUCTURES || visitedStates.get() >= MAX_SEARCH_STATES;
+    }
+
+    /*
+     * A task searches the structures that follow a partial placement of the electrons: the atoms before the first
+     * one of the task have their bonds towards the following atoms and their lone pairs already chosen.
+     * Every task has its own state and its own memo, the structures found are shared.
+     */
+    private final class EnumerationTask extends RecursiveAction {
+        private final int firstAtom;
+        private final int firstElectronsLeft;
+        private final int firstScore;
+
+        // The order of the bonds chosen, indexed by the entry of the atom with the lower index.
+        private final int[] bondOrders;
+        // The extra orders of the bonds chosen by the atoms with a lower index, for every atom.
+        private final int[] extraBondOrders;
+        private final int[] lonePairs;
+
+        // The memo of the task, and the key of the state visited for every atom.
+        private final PackedStateMap lowerBounds = new PackedStateMap(keyWords);
+        private final long[] stateKeys = new long[atomsNumber * keyWords];
+        private ArrayList<EnumerationTask> subtasks = null;
+        private int bestScore = Integer.MAX_VALUE;
+        // The structures found by this task, duplicates included.
+        private int foundNumber = 0;
+
+        EnumerationTask(int firstAtom, int electronsLeft, int score, int[] bondOrders, int[] extraBondOrders,
+                        int[] lonePairs) {
+            this.firstAtom = firstAtom;
+            this.firstElectronsLeft = electronsLeft;
+            this.firstScore = score;
+            this.bondOrders = bondOrders;
+            this.extraBondOrders = extraBondOrders;
+            this.lonePairs = lonePairs;
+        }
+
+        @Override
+        protected void compute() {
+            // Structures worse than the given one are never resonance structures.
+            bestScore = structure.getScore();
+
+            boolean split = atomsNumber >= PARALLEL_ATOMS_THRESHOLD && firstAtom < SPLIT_ATOMS_NUMBER;
+            if (split)
+                subtasks = new ArrayList<>();
+
+            visitAtom(firstAtom, firstElectronsLeft, firstScore);
+
+            if (split)
+                invokeAll(subtasks);
+        }
+
+        private int getFreeElectrons(int firstAtom) {
+            int freeElectrons = 0;
+            for (int atom = firstAtom; atom < atomsNumber; atom++)
+                freeElectrons += scorer.getMaxElectrons(atom) - 2 * (graph.getDegree(atom) + extraBondOrders[atom]);
+
+            return freeElectrons;
+        }
+
+        // Packs the state like the generator does, with four bits for the extra orders of the bonds of every atom.
+        private int packStateKey(int atom, int electronsLeft) {
+            int keyOffset = atom * keyWords;
+            Arrays.fill(stateKeys, keyOffset, keyOffset + keyWords, 0);
+            stateKeys[keyOffset] = atom | (long) electronsLeft << 20;
+
+            int bit = STATE_KEY_HEADER_BITS;
+            for (int i = atom; i < atomsNumber; i++, bit += 4)
+                stateKeys[keyOffset + bit / Long.SIZE] |= (long) extraBondOrders[i] << (bit % Long.SIZE);
+
+            return keyOffset;
+        }
+
+        private void visitAtom(int atom, int electronsLeft, int score) {
+            if (atom == atomsNumber) {
+                if (electronsLeft == 0 && score <= bestScore) {
+                    bestScore = score;
+                    foundNumber++;
+                    addStructure(bondOrders, lonePairs, score);
+                }
+
+                return;
+            }
+
+            if (score > bestScore || isSearchOver() || electronsLeft > getFreeElectrons(atom))
+                return;
+
+            visitedStates.incrementAndGet();
+
+            int keyOffset = packStateKey(atom, electronsLeft);
+            int lowerBound = lowerBounds.get(stateKeys, keyOffset);
+            if (lowerBound != PackedStateMap.NO_VALUE && score + lowerBound > bestScore)
+                return;
+
+            int previousFoundNumber = foundNumber;
+            int bondOrderSum = graph.getDegree(atom) + extraBondOrders[atom];
+
+            visitBonds(atom, graph.getBondsStart(atom), bondOrderSum, electronsLeft, score);
+
+            if (isSearchOver() || subtasks != null && atom == firstAtom)
+                return;
+
+            // Nothing found from this state: its structures score more than the best score allowed.
+            if (foundNumber == previousFoundNumber) {
+                int bound = bestScore - score + 1;
+                if (bound > lowerBound)
+                    lowerBounds.put(stateKeys, keyOffset, bound);
+            }
+        }
+
+        // Chooses the order of the bonds towards the atoms with a higher index, then the lone pairs.
+        private void visitBonds(int atom, int entry, int bondOrderSum, int electronsLeft, int score) {
+            if (entry == graph.getBondsEnd(atom)) {
+                int maxLonePairs = Math.min(electronsLeft, scorer.getMaxElectrons(atom) - 2 * bondOrderSum) / 2;
+
+                for (int atomLonePairs = maxLonePairs; atomLonePairs >= 0; atomLonePairs--) {
+                    int atomScore = score + scorer.getScore(atom, bondOrderSum, atomLonePairs);
+                    if (atomScore > bestScore)
+                        continue;
+
+                    lonePairs[atom] = atomLonePairs;
+
+                    if (subtasks != null && atom == firstAtom) {
+                        // The rest of the search is given to a new task, with a copy of the state.
+                        subtasks.add(new EnumerationTask(atom + 1, electronsLeft - 2 * atomLonePairs, atomScore,
+                                bondOrders.clone(), extraBondOrders.clone(), lonePairs.clone()));
+                    } else {
+                        visitAtom(atom + 1, electronsLeft - 2 * atomLonePairs, atomScore);
+                    }
+                }
+
+                lonePairs[atom] = 0;
+                return;
+            }
+
+            int neighbour = graph.getNeighbour(entry);
+            if (neighbour < atom) {
+                visitBonds(atom, entry + 1, bondOrderSum, electronsLeft, score);
+                return;
+            }
+
+            for (int extraBondOrder = 0; extraBondOrder < MolecularGraph.MAX_BOND_ORDER; extraBondOrder++) {
+                if (2 * extraBondOrder > electronsLeft ||
+                    2 * (bondOrderSum + extraBondOrder) > scorer.getMaxElectrons(atom) ||
+                    2 * (graph.getDegree(neighbour) + extraBondOrders[neighbour] + extraBondOrder) >
+                            scorer.getMaxElectrons(neighbour))
+                    break;
+
+                bondOrders[entry] = 1 + extraBondOrder;
+                extraBondOrders[neighbour] += extraBondOrder;
+
+                visitBonds(atom, entry + 1, bondOrderSum + extraBondOrder, electronsLeft - 2 * extraBondOrder,
+                        score);
+
+                extraBondOrders[neighbour] -= extraBondOrder;
+            }
+
+            bondOrders[entry] = 0;
+        }
+    }
+}
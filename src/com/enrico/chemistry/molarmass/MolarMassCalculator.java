@@ -0,0 +1,179 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.molarmass;
+
+import com.enrico.chemistry.Composition;
+import com.enrico.chemistry.atoms.ElementTable;
+import com.enrico.chemistry.formulaparser.FormulaScanner;
+
+/**
+ * This class calculates the molar mass of formulas and the mass percent of their elements.
+ *
+ * The static methods work on compositions. The instance methods scan formulas directly, reusing the same scanner, so
+ * a whole column of formulas can be calculated into a double array without allocating anything and without throwing:
+ * invalid formulas give NaN, and the offset of their error can be written into an int array. An instance must not be
+ * shared between threads.
+ */
+public final class MolarMassCalculator {
+    private final FormulaScanner scanner = new FormulaScanner();
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @return the atomic mass of the element, in g/mol.
+     */
+    public static double getAtomicMass(int atomicNumber) {
+        return ElementTable.getAtomicMass(atomicNumber);
+    }
+
+    /**
+     * @param composition The composition of the formula.
+     * @return the molar mass of the formula, in g/mol.
+     */
+    public static double getMolarMass(Composition composition) {
+        double molarMass = 0;
+        for (int i = 0; i < composition.getElementsNumber(); i++)
+            molarMass += ElementTable.getAtomicMass(composition.getAtomicNumberAt(i)) * composition.getCountAt(i);
+
+        return molarMass;
+    }
+
+    /**
+     * @param composition The composition of the formula.
+     * @param atomicNumber The atomic number of the element.
+     * @return the percent of the molar mass of the formula due to the element, 0 if the element is not part of it.
+     */
+    public static double getMassPercent(Composition composition, int atomicNumber) {
+        return ElementTable.getAtomicMass(atomicNumber) * composition.getCount(atomicNumber) * 100 / getMolarMass(composition);
+    }
+
+    /**
+     * @param formula The formula.
+     * @return the molar mass of the formula in g/mol, or NaN if the formula is not valid.
+     */
+    public double computeMolarMass(CharSequence formula) {
+        if (!scanner.tryScan(formula))
+            return Double.NaN;
+
+        return getScannedMolarMass();
+    }
+
+    /**
+     * @param formula The formula.
+     * @param atomicNumber The atomic number of the element.
+     * @return the mass percent of the element inside the formula, or NaN if the formula is not valid.
+     */
+    public double computeMassPercent(CharSequence formula, int atomicNumber) {
+        if (!scanner.tryScan(formula))
+            return Double.NaN;
+
+        return ElementTable.getAtomicMass(atomicNumber) * scanner.getElementCount(atomicNumber) * 100 / getScannedMolarMass();
+    }
+
+    /**
+     * This method calculates the molar mass of a column of formulas.
+     * @param formulas The formulas.
+     * @param molarMasses The array where the molar masses are written, NaN for the invalid formulas. It must be at
+     *                    least as long as the formulas array.
+     * @return the number of invalid formulas.
+     */
+    public int computeMolarMasses(CharSequence[] formulas, double[] molarMasses) {
+        return computeMolarMasses(formulas, molarMasses, null);
+    }
+
+    /**
+     * This method calculates the molar mass of a column of formulas, recording where every invalid formula fails.
+     * @param formulas The formulas.
+     * @param molarMasses The array where the molar masses are written, NaN for the invalid formulas. It must be at
+     *                    least as long as the formulas array.
+     * @param errorOffsets The array where the index of the first wrong character of every formula is written, -1 for
+     *                     the valid formulas, or null. It must be at least as long as the formulas array.
+     * @return the number of invalid formulas.
+     */
+    public int computeMolarMasses(CharSequence[] formulas, double[] molarMasses, int[] errorOffsets) {
+        int invalidFormulas = 0;
+
+        for (int i = 0; i < formulas.length; i++) {
+            molarMasses[i] = computeMolarMass(formulas[i]);
+            if (Double.isNaN(molarMasses[i]))
+                invalidFormulas++;
+
+            if (errorOffsets != null)
+                errorOffsets[i] = getLastErrorOffset();
+        }
+
+        return invalidFormulas;
+    }
+
+    /**
+     * This method calculates the mass percent of an element for a column of formulas.
+     * @param formulas The formulas.
+     * @param atomicNumber The atomic number of the element.
+     * @param massPercents The array where the mass percents are written, NaN for the invalid formulas. It must be at
+     *                     least as long as the formulas array.
+     * @return the number of invalid formulas.
+     */
+    public int computeMassPercents(CharSequence[] formulas, int atomicNumber, double[] massPercents) {
+        return computeMassPercents(formulas, atomicNumber, massPercents, null);
+    }
+
+    /**
+     * This method calculates the mass percent of an element for a column of formulas, recording where every invalid
+     * formula fails.
+     * @param formulas The formulas.
+     * @param atomicNumber The atomic number of the element.
+     * @param massPercents The array where the mass percents are written, NaN for the invalid formulas. It must be at
+     *                     least as long as the formulas array.
+     * @param errorOffsets The array where the index of the first wrong character of every formula is written, -1 for
+     *                     the valid formulas, or null. It must be at least as long as the formulas array.
+     * @return the number of invalid formulas.
+     */
+    public int computeMassPercents(CharSequence[] formulas, int atomicNumber, double[] massPercents,
+                                   int[] errorOffsets) {
+        int invalidFormulas = 0;
+
+        for (int i = 0; i < formulas.length; i++) {
+            massPercents[i] = computeMassPercent(formulas[i], atomicNumber);
+            if (Double.isNaN(massPercents[i]))
+                invalidFormulas++;
+
+            if (errorOffsets != null)
+                errorOffsets[i] = getLastErrorOffset();
+        }
+
+        return invalidFormulas;
+    }
+
+    /**
+     * @return the index of the first wrong character of the last formula calculated, or -1 if it was valid.
+     */
+    public int getLastErrorOffset() {
+        return scanner.getErrorCode() != null ? scanner.getErrorOffset() : -1;
+    }
+
+    private double getScannedMolarMass() {
+        double molarMass = 0;
+        for (int i = 0; i < scanner.getDistinctElementsNumber(); i++) {
+            int atomicNumber = scanner.getElementAt(i);
+            molarMass += ElementTable.getAtomicMass(atomicNumber) * scanner.getElementCount(atomicNumber);
+        }
+
+        return molarMass;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.molecule;
+
+import com.enrico.chemistry.atoms.ElementTable;
+import com.enrico.chemistry.atoms.GenericAtom;
+import com.enrico.chemistry.atoms.scientific.GenericScientificAtom;
+import com.enrico.chemistry.atoms.scientific.HydrogenScientificAtom;
+import com.enrico.chemistry.atoms.scientific.OxygenScientificAtom;
+
+/**
+ * This class summarizes the atoms of a molecule, so that the checks done to classify it don't scan the atoms again.
+ *
+ * The summary is built with a single pass over the atoms: it keeps a bitset of the distinct elements (indexed by
+ * atomic number), the number of atoms of every class of elements, the number of Hydrogen and Oxygen atoms and the
+ * union of the capabilities of the atoms. Every check is then answered in constant time. A summary is immutable.
+ */
+public final class CompositionSummary {
+    private static final int CLASS_TYPES_NUMBER = GenericAtom.AtomClassType.values().length;
+
+    // Bit z of the bitset is set if the element with atomic number z is inside the molecule.
+    private final long[] elementBits = new long[(ElementTable.ELEMENTS_NUMBER >> 6) + 1];
+    private final int distinctElementsNumber;
+
+    private final int[] classTypeCounts = new int[CLASS_TYPES_NUMBER];
+    private final int atomsNumber;
+    private final int hydrogenNumber;
+    private final int oxygenNumber;
+
+    // The union of the capabilities of all of the atoms.
+    private final int capabilities;
+
+    /**
+     * @param atoms The atoms of the molecule.
+     */
+    public CompositionSummary(GenericScientificAtom[] atoms) {
+        this(getAtomicNumbers(atoms));
+    }
+
+    /**
+     * @param graph The graph of the molecule.
+     */
+    public CompositionSummary(MolecularGraph graph) {
+        this(getAtomicNumbers(graph));
+    }
+
+    private CompositionSummary(int[] atomicNumbers) {
+        int hydrogens = 0;
+        int oxygens = 0;
+        int atomCapabilities = 0;
+
+        for (int atomicNumber : atomicNumbers) {
+            elementBits[atomicNumber >> 6] |= 1L << atomicNumber;
+            classTypeCounts[ElementTable.getClassType(atomicNumber).ordinal()]++;
+            atomCapabilities |= ElementTable.getCapabilities(atomicNumber);
+
+            if (atomicNumber == HydrogenScientificAtom.ATOMIC_NUMBER)
+                hydrogens++;
+            else if (atomicNumber == OxygenScientificAtom.ATOMIC_NUMBER)
+                oxygens++;
+        }
+
+        int distinctElements = 0;
+        for (long bits : elementBits)
+            distinctElements += Long.bitCount(bits);
+
+        distinctElementsNumber = distinctElements;
+        atomsNumber = atomicNumbers.length;
+        hydrogenNumber = hydrogens;
+        oxygenNumber = oxygens;
+        capabilities = atomCapabilities;
+    }
+
+    private static int[] getAtomicNumbers(GenericScientificAtom[] atoms) {
+        int[] atomicNumbers = new int[atoms.length];
+        for (int i = 0; i < atoms.length; i++)
+            atomicNumbers[i] = atoms[i].getAtomicNumber();
+
+        return atomicNumbers;
+    }
+
+    private static int[] getAtomicNumbers(MolecularGraph graph) {
+        int[] atomicNumbers = new int[graph.getAtomsNumber()];
+        for (int atom = 0; atom < atomicNumbers.length; atom++)
+            atomicNumbers[atom] = graph.getElement(atom);
+
+        return atomicNumbers;
+    }
+
+    public boolean containsElement(int atomicNumber) {
+        return (elementBits[atomicNumber >> 6] & (1L << atomicNumber)) != 0;
+    }
+
+    public int getDistinctElementsNumber() {
+        return distinctElementsNumber;
+    }
+
+    public int getAtomsNumber() {
+        return atomsNumber;
+    }
+
+    /**
+     * @param classType The class of elements.
+     * @return the number of atoms of the molecule that belong to the class.
+     */
+    public int getClassTypeCount(GenericAtom.AtomClassType classType) {
+        return classTypeCounts[classType.ordinal()];
+    }
+
+    public int getHydrogenNumber() {
+        return hydrogenNumber;
+    }
+
+    public int getOxygenNumber() {
+        return oxygenNumber;
+    }
+
+    public int getCapabilities() {
+        return capabilities;
+    }
+
+    public boolean containsMetal() {
+        return ElementTable.hasAnyCapability(capabilities, ElementTable.CAPABILITY_METAL);
+    }
+
+    public boolean containsNonMetal() {
+        return ElementTable.hasAnyCapability(capabilities, ElementTable.CAPABILITY_NON_METAL);
+    }
+
+    public boolean containsHydrogen() {
+        return hydrogenNumber > 0;
+    }
+
+    public boolean containsOxygen() {
+        return oxygenNumber > 0;
+    }
+
+    public boolean containsWater() {
+        return containsHydrogen() && containsOxygen();
+    }
+
+    public boolean isPeroxide() {
+        return oxygenNumber == 2;
+    }
+
+    /**
+     * @param centralAtomicNumber The atomic number of the central atom.
+     * @return true if the molecule is only made of the element of the central atom and of Hydrogen.
+     */
+    public boolean isOnlyCentralAndHydrogen(int centralAtomicNumber) {
+        int otherElements = distinctElementsNumber;
+
+        if (containsElement(centralAtomicNumber))
+            otherElements--;
+        if (centralAtomicNumber != HydrogenScientificAtom.ATOMIC_NUMBER && containsHydrogen())
+            otherElements--;
+
+        return otherElements == 0;
+    }
+}
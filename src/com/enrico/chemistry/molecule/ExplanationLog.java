@@ -0,0 +1,188 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.molecule;
+
+import com.enrico.chemistry.atoms.ElementTable;
+
+import java.util.Arrays;
+
+/**
+ * This class is the log of the steps done to solve a molecule, it replaces the explanation string that was built by
+ * concatenation while the molecule was solved.
+ *
+ * Every step is recorded as a kind and an integer argument (an atomic number, a count or a shape) inside a growable
+ * buffer, and the explanation text is only rendered when it is asked for. The buffer can be cleared and reused.
+ * The QUIET log records nothing, so molecules that are never explained don't allocate anything for the explanation.
+ */
+public class ExplanationLog {
+    enum Step {
+        CentralAtom,
+        Doublets,
+        BondedAtomsHeader,
+        BondedAtom,
+        AddedHydrogens,
+        Shape
+    }
+
+    // The argument of a shape step whose shape is not supported.
+    static final int UNSUPPORTED_SHAPE = -1;
+
+    /**
+     * The log used when no explanation is requested.
+     */
+    public static final ExplanationLog QUIET = new ExplanationLog(0) {
+        @Override
+        void record(Step step, int argument) {
+        }
+    };
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final Step[] STEPS = Step.values();
+
+    // Every step takes two entries: its kind and its argument.
+    private int[] events;
+    private int size = 0;
+
+    public ExplanationLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    private ExplanationLog(int capacity) {
+        events = new int[capacity * 2];
+    }
+
+    void record(Step step, int argument) {
+        if (size * 2 == events.length)
+            events = Arrays.copyOf(events, Math.max(DEFAULT_CAPACITY, size * 2) * 2);
+
+        events[size * 2] = step.ordinal();
+        events[size * 2 + 1] = argument;
+        size++;
+    }
+
+    /**
+     * @return the number of steps recorded.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * This method removes all of the steps, keeping the buffer so that the log can be reused.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    private static String getShapeText(int shapeOrdinal) {
+        switch (Molecule.ShapeEnum.values()[shapeOrdinal]) {
+            case SquareShape:
+                return "Square shape.";
+            case PyramidShape:
+                return "Pyramid shape.";
+            case LineShape:
+                return "Line shape.";
+            case TriangularShape:
+                return "Triangular shape.";
+            case FivePointedStar:
+                return "Five pointed star shape.";
+            case SixPointedStar:
+                return "Six pointed star shape.";
+            case Seesaw:
+                return "Seesaw shape.";
+            case SquarePyramid:
+                return "Square pyramid shape.";
+            case PentagonalPyramid:
+                return "Pentagonal pyramid shape.";
+            case PentagonalBipyramid:
+                return "Pentagonal bipyramid shape.";
+            case Tetrahedral:
+                return "Tetrahedral shape.";
+            case SquarePlanar:
+                return "Square planar shape.";
+            case TrigonalPlanar:
+                return "Trigonal planar shape.";
+            case TShaped:
+                return "T shape.";
+            case TrigonalBipyramidal:
+                return "Trigonal bipyramidal shape.";
+            case Octahedral:
+                return "Octahedral shape.";
+            case Linear:
+                return "Linear shape.";
+            case Bent:
+                return "Bent shape.";
+            case TrigonalPyramidal:
+                return "Trigonal pyramidal shape.";
+            case PentagonalPlanar:
+                return "Pentagonal planar shape.";
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * This method renders the steps recorded as the explanation shown to the user.
+     * @return the explanation text, one step per line.
+     */
+    public String render() {
+        StringBuilder explanation = new StringBuilder();
+
+        for (int i = 0; i < size; i++) {
+            int argument = events[i * 2 + 1];
+
+            switch (STEPS[events[i * 2]]) {
+                case CentralAtom:
+                    explanation.append("Found central atom: ").append(ElementTable.getSymbol(argument))
+                            .append('(').append(ElementTable.getCompleteName(argument)).append(")\n");
+                    break;
+                case Doublets:
+                    explanation.append("Found free doublets of central atom: ").append(argument).append('\n');
+                    break;
+                case BondedAtomsHeader:
+                    explanation.append("Binded atoms:\n");
+                    break;
+                case BondedAtom:
+                    explanation.append(ElementTable.getSymbol(argument))
+                            .append(" (").append(ElementTable.getCompleteName(argument)).append(")\n");
+                    break;
+                case AddedHydrogens:
+                    explanation.append("added ").append(argument).append(" Hydrogen atoms\n");
+                    break;
+                case Shape:
+                    explanation.append("Found shape of molecule: ");
+                    if (argument != UNSUPPORTED_SHAPE)
+                        explanation.append(getShapeText(argument)).append('\n');
+                    break;
+            }
+        }
+
+        return explanation.toString();
+    }
+
+    @Override
+    public String toString() {
+        return render();
+    }
+}
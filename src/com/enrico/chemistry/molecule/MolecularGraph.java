@@ -0,0 +1,321 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.molecule;
+
+import com.enrico.chemistry.atoms.ElementTable;
+
+import java.util.Arrays;
+
+/**
+ * This class is the graph of the atoms of a molecule and of their bonds, so molecules with many centres (chains,
+ * rings, eg: ethanol or acetic acid) can be described and not only a central atom surrounded by other atoms.
+ *
+ * The graph is stored in compressed sparse row form: the bonds of atom i are the entries from rowOffsets[i] to
+ * rowOffsets[i + 1] of the neighbours and bondOrders arrays, sorted by neighbour. Every bond is stored twice, once
+ * for each of its atoms. All of the data lives inside a few int arrays, so traversals stay cache friendly even for
+ * molecules of thousands of atoms. Graphs are immutable, they are made with a Builder.
+ */
+public final class MolecularGraph {
+    public static final int MAX_BOND_ORDER = 3;
+
+    private final int[] elements;
+    private final int[] rowOffsets;
+    private final int[] neighbours;
+    private final int[] bondOrders;
+
+    private MolecularGraph(int[] elements, int[] bondStarts, int[] bondEnds, int[] bondOrdersList, int bondsNumber) {
+        int atomsNumber = elements.length;
+
+        this.elements = elements;
+        rowOffsets = new int[atomsNumber + 1];
+        neighbours = new int[bondsNumber * 2];
+        bondOrders = new int[bondsNumber * 2];
+
+        // Counting sort of the bond ends by atom.
+        for (int i = 0; i < bondsNumber; i++) {
+            rowOffsets[bondStarts[i] + 1]++;
+            rowOffsets[bondEnds[i] + 1]++;
+        }
+
+        for (int atom = 0; atom < atomsNumber; atom++)
+            rowOffsets[atom + 1] += rowOffsets[atom];
+
+        int[] nextEntry = Arrays.copyOf(rowOffsets, atomsNumber);
+        for (int i = 0; i < bondsNumber; i++) {
+            int entry = nextEntry[bondStarts[i]]++;
+            neighbours[entry] = bondEnds[i];
+            bondOrders[entry] = bondOrdersList[i];
+
+            entry = nextEntry[bondEnds[i]]++;
+            neighbours[entry] = bondStarts[i];
+            bondOrders[entry] = bondOrdersList[i];
+        }
+
+        // Every row is sorted by neighbour, rows are short so an insertion sort is enough.
+        for (int atom = 0; atom < atomsNumber; atom++) {
+            for (int i = rowOffsets[atom] + 1; i < rowOffsets[atom + 1]; i++) {
+                int neighbour = neighbours[i];
+                int bondOrder = bondOrders[i];
+                int j = i - 1;
+
+                while (j >= rowOffsets[atom] && neighbours[j] > neighbour) {
+                    neighbours[j + 1] = neighbours[j];
+                    bondOrders[j + 1] = bondOrders[j];
+                    j--;
+                }
+
+                if (j >= rowOffsets[atom] && neighbours[j] == neighbour)
+                    throw new IllegalArgumentException("Atoms " + atom + " and " + neighbour + " are bonded twice.");
+
+                neighbours[j + 1] = neighbour;
+                bondOrders[j + 1] = bondOrder;
+            }
+        }
+    }
+
+    public int getAtomsNumber() {
+        return elements.length;
+    }
+
+    public int getBondsNumber() {
+        return neighbours.length / 2;
+    }
+
+    /**
+     * @param atom The index of the atom.
+     * @return the atomic number of the atom.
+     */
+    public int getElement(int atom) {
+        return elements[atom];
+    }
+
+    /**
+     * @param atom The index of the atom.
+     * @return the number of atoms bonded to the atom.
+     */
+    public int getDegree(int atom) {
+        return rowOffsets[atom + 1] - rowOffsets[atom];
+    }
+
+    /**
+     * The bonds of an atom are the entries from getBondsStart(atom) (included) to getBondsEnd(atom) (excluded).
+     * @param atom The index of the atom.
+     * @return the index of the first bond entry of the atom.
+     */
+    public int getBondsStart(int atom) {
+        return rowOffsets[atom];
+    }
+
+    public int getBondsEnd(int atom) {
+        return rowOffsets[atom + 1];
+    }
+
+    /**
+     * @param entry The index of a bond entry.
+     * @return the index of the atom the entry points to.
+     */
+    public int getNeighbour(int entry) {
+        return neighbours[entry];
+    }
+
+    /**
+     * @param entry The index of a bond entry.
+     * @return the order of the bond: 1 for a single bond, 2 for a double bond and 3 for a triple bond.
+     */
+    public int getEntryBondOrder(int entry) {
+        return bondOrders[entry];
+    }
+
+    /**
+     * @param firstAtom The index of the first atom.
+     * @param secondAtom The index of the second atom.
+     * @return the order of the bond between the atoms, or 0 if they are not bonded.
+     */
+    public int getBondOrder(int firstAtom, int secondAtom) {
+        int entry = Arrays.binarySearch(neighbours, rowOffsets[firstAtom], rowOffsets[firstAtom + 1], secondAtom);
+        return entry >= 0 ? bondOrders[entry] : 0;
+    }
+
+    /**
+     * @param atom The index of the atom.
+     * @return the sum of the orders of the bonds of the atom, which is the number of its bonding electrons used.
+     */
+    public int getBondOrderSum(int atom) {
+        int sum = 0;
+        for (int entry = rowOffsets[atom]; entry < rowOffsets[atom + 1]; entry++)
+            sum += bondOrders[entry];
+
+        return sum;
+    }
+
+    /**
+     * @return the number of atoms of every element, indexed by atomic number.
+     */
+    public int[] getElementCounts() {
+        int[] elementCounts = new int[ElementTable.ELEMENTS_NUMBER + 1];
+        for (int element : elements)
+            elementCounts[element]++;
+
+        return elementCounts;
+    }
+
+    /**
+     * @return the summary of the atoms of the graph, which can be used to classify the molecule.
+     */
+    public CompositionSummary getCompositionSummary() {
+        return new CompositionSummary(this);
+    }
+
+    /**
+     * This method finds the distance, in bonds, of every atom from an atom with a breadth first visit.
+     * @param atom The index of the atom to start from.
+     * @return the distances indexed by atom, -1 for the atoms that can't be reached.
+     */
+    public int[] getDistances(int atom) {
+        int[] distances = new int[elements.length];
+        Arrays.fill(distances, -1);
+
+        int[] queue = new int[elements.length];
+        int head = 0;
+        int tail = 0;
+
+        distances[atom] = 0;
+        queue[tail++] = atom;
+
+        while (head < tail) {
+            int current = queue[head++];
+
+            for (int entry = rowOffsets[current]; entry < rowOffsets[current + 1]; entry++) {
+                int neighbour = neighbours[entry];
+                if (distances[neighbour] < 0) {
+                    distances[neighbour] = distances[current] + 1;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+
+        return distances;
+    }
+
+    /**
+     * @return true if every atom can be reached from every other atom.
+     */
+    public boolean isConnected() {
+        if (elements.length == 0)
+            return true;
+
+        for (int distance : getDistances(0))
+            if (distance < 0)
+                return false;
+
+        return true;
+    }
+
+    /**
+     * @return the indices of the atoms bonded to more than one atom, the centres of the molecule.
+     */
+    public int[] getCentres() {
+        int centresNumber = 0;
+        for (int atom = 0; atom < elements.length; atom++)
+            if (getDegree(atom) > 1)
+                centresNumber++;
+
+        int[] centres = new int[centresNumber];
+        int index = 0;
+
+        for (int atom = 0; atom < elements.length; atom++)
+            if (getDegree(atom) > 1)
+                centres[index++] = atom;
+
+        return centres;
+    }
+
+    /**
+     * This class builds a MolecularGraph by adding atoms and bonds one by one.
+     */
+    public static final class Builder {
+        private static final int DEFAULT_CAPACITY = 16;
+
+        private int[] elements = new int[DEFAULT_CAPACITY];
+        private int atomsNumber = 0;
+
+        private int[] bondStarts = new int[DEFAULT_CAPACITY];
+        private int[] bondEnds = new int[DEFAULT_CAPACITY];
+        private int[] bondOrders = new int[DEFAULT_CAPACITY];
+        private int bondsNumber = 0;
+
+        /**
+         * @param atomicNumber The atomic number of the atom.
+         * @return the index of the atom inside the graph.
+         */
+        public int addAtom(int atomicNumber) {
+            if (!ElementTable.isElement(atomicNumber))
+                throw new IllegalArgumentException("Invalid atomic number: " + atomicNumber);
+
+            if (atomsNumber == elements.length)
+                elements = Arrays.copyOf(elements, elements.length * 2);
+
+            elements[atomsNumber] = atomicNumber;
+            return atomsNumber++;
+        }
+
+        /**
+         * @param firstAtom The index of the first atom.
+         * @param secondAtom The index of the second atom.
+         * @param bondOrder The order of the bond, from 1 to MAX_BOND_ORDER.
+         * @return this builder.
+         */
+        public Builder addBond(int firstAtom, int secondAtom, int bondOrder) {
+            if (firstAtom < 0 || firstAtom >= atomsNumber || secondAtom < 0 || secondAtom >= atomsNumber)
+                throw new IllegalArgumentException("Invalid atom index.");
+            if (firstAtom == secondAtom)
+                throw new IllegalArgumentException("An atom can't be bonded to itself.");
+            if (bondOrder < 1 || bondOrder > MAX_BOND_ORDER)
+                throw new IllegalArgumentException("Invalid bond order: " + bondOrder);
+
+            if (bondsNumber == bondStarts.length) {
+                bondStarts = Arrays.copyOf(bondStarts, bondsNumber * 2);
+                bondEnds = Arrays.copyOf(bondEnds, bondsNumber * 2);
+                bondOrders = Arrays.copyOf(bondOrders, bondsNumber * 2);
+            }
+
+            bondStarts[bondsNumber] = firstAtom;
+            bondEnds[bondsNumber] = secondAtom;
+            bondOrders[bondsNumber] = bondOrder;
+            bondsNumber++;
+
+            return this;
+        }
+
+        public int getAtomsNumber() {
+            return atomsNumber;
+        }
+
+        /**
+         * @return the graph.
+         *
+         * @throws IllegalArgumentException if two atoms are bonded twice.
+         */
+        public MolecularGraph build() throws IllegalArgumentException {
+            return new MolecularGraph(Arrays.copyOf(elements, atomsNumber), bondStarts, bondEnds, bondOrders,
+                    bondsNumber);
+        }
+    }
+}
@@ -19,14 +19,18 @@
 
 package com.enrico.chemistry.molecule;
 
-import com.enrico.chemistry.atoms.GenericAtom;
+import com.enrico.chemistry.Composition;
+import com.enrico.chemistry.atoms.ElementTable;
 import com.enrico.chemistry.atoms.scientific.GenericScientificAtom;
 import com.enrico.chemistry.atoms.scientific.HydrogenScientificAtom;
-import com.enrico.chemistry.atoms.scientific.OxygenScientificAtom;
+import com.enrico.chemistry.formulaparser.ParseResult;
+import com.enrico.chemistry.molecule.classification.CompositionColumns;
+import com.enrico.chemistry.molecule.classification.CompoundTypeClassifier;
 import com.enrico.chemistry.molecule.exceptions.IllegalMoleculeException;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /*
  * This class represents generic molecule.
@@ -37,16 +41,21 @@ public class Molecule {
     private CompoundType compoundType;
 
     private final String formula;
+    private final int charge;
 
-    private String operationString = "";
+    // The steps done to solve the molecule, recorded only if an explanation is requested.
+    private final ExplanationLog explanationLog;
 
     // AXE Parameters.
     private GenericScientificAtom centralGenericScientificAtom;
     private ArrayList<GenericScientificAtom> bondedGenericScientificAtoms; // Atoms bonded to the central atom.
-    private int doubletsNumber; // Doublets of central atom.
+    private int doubletsNumber; // Free doublets of central atom (the E of AXE), -1 if it can't bond all the atoms.
 
     private final int numberOfElements;
 
+    // The elements and the classes of the atoms of the molecule, found with a single scan.
+    private final CompositionSummary compositionSummary;
+
     private ArrayList<HydrogenScientificAtom> hydrogenAtoms;
 
     public enum ShapeEnum {
@@ -55,7 +64,55 @@ public class Molecule {
         LineShape, // Eg: O = C = O
         TriangularShape,
         FivePointedStar,
-        SixPointedStar
+        SixPointedStar,
+        Seesaw, // AX4E1
+        SquarePyramid, // AX5E1
+        PentagonalPyramid, // AX6E1
+        PentagonalBipyramid, // AX7E0
+        Tetrahedral, // AX4E0
+        SquarePlanar, // AX4E2
+        TrigonalPlanar, // AX3E0
+        TShaped, // AX3E2
+        TrigonalBipyramidal, // AX5E0
+        Octahedral, // AX6E0
+        Linear, // AX1, AX2E0, AX2E3
+        Bent, // AX2E1, AX2E2
+        TrigonalPyramidal, // AX3E1
+        PentagonalPlanar; // AX5E2
+
+        /**
+         * The shapes added for the full VSEPR classification are drawn like the shape with the same number of bonded
+         * atoms.
+         * @return the shape used to draw the molecule, or null if the shape can't be drawn.
+         */
+        public ShapeEnum getDrawingShape() {
+            switch (this) {
+                case Linear:
+                    return LineShape;
+                case Bent:
+                case TrigonalPyramidal:
+                    return PyramidShape;
+                case PentagonalPlanar:
+                    return FivePointedStar;
+                case Seesaw:
+                case Tetrahedral:
+                case SquarePlanar:
+                    return SquareShape;
+                case TrigonalPlanar:
+                case TShaped:
+                    return TriangularShape;
+                case SquarePyramid:
+                case TrigonalBipyramidal:
+                    return FivePointedStar;
+                case PentagonalPyramid:
+                case Octahedral:
+                    return SixPointedStar;
+                case PentagonalBipyramid:
+                    return null;
+                default:
+                    return this;
+            }
+        }
     }
 
     public enum CompoundType {
@@ -97,23 +154,96 @@ public class Molecule {
     }
 
     public Molecule(GenericScientificAtom[] GenericScientificAtomList, String formula) throws IllegalMoleculeException {
+        this(GenericScientificAtomList, formula, true);
+    }
+
+    /**
+     * @param GenericScientificAtomList The atoms of the molecule.
+     * @param formula The formula of the molecule.
+     * @param explain If false the steps done to solve the molecule are not recorded, and the explanation is empty.
+     *
+     * @throws IllegalMoleculeException if the atoms can't make up a molecule.
+     */
+    public Molecule(GenericScientificAtom[] GenericScientificAtomList, String formula, boolean explain)
+            throws IllegalMoleculeException {
+        this(GenericScientificAtomList, formula, explain, 0);
+    }
+
+    /**
+     * @param GenericScientificAtomList The atoms of the molecule.
+     * @param formula The formula of the molecule.
+     * @param explain If false the steps done to solve the molecule are not recorded, and the explanation is empty.
+     * @param charge The charge of the molecule, eg: -2 for "SO4^2-".
+     *
+     * @throws IllegalMoleculeException if the atoms can't make up a molecule.
+     */
+    public Molecule(GenericScientificAtom[] GenericScientificAtomList, String formula, boolean explain, int charge)
+            throws IllegalMoleculeException {
         this.GenericScientificAtomList = GenericScientificAtomList;
         this.formula = formula;
+        this.charge = charge;
+        this.explanationLog = explain ? new ExplanationLog() : ExplanationLog.QUIET;
+
+        ParseResult validationResult = validate(GenericScientificAtomList, formula);
+        if (!validationResult.isValid()) {
+            if (validationResult.getErrorCode() == ParseResult.ErrorCode.UnusableAtom)
+                throw new IllegalArgumentException(validationResult.getMessage());
+
+            throw new IllegalMoleculeException(this);
+        }
 
         doubletsNumber = 0;
+        compositionSummary = new CompositionSummary(GenericScientificAtomList);
 
         bondedGenericScientificAtoms = new ArrayList<>();
         hydrogenAtoms = new ArrayList<>();
 
         findCentralAtom();
-        findDoublets();
         setBindedAtoms();
+        findDoublets();
+
+        numberOfElements = compositionSummary.getDistinctElementsNumber();
+    }
+
+    /**
+     * This method checks if some atoms can make up a molecule, without throwing any exception.
+     * @param GenericScientificAtomList The atoms of the molecule.
+     * @param formula The formula of the molecule.
+     * @return the result of the validation, an unusable atom or a missing central atom make the molecule invalid.
+     */
+    public static ParseResult validate(GenericScientificAtom[] GenericScientificAtomList, String formula) {
+        boolean containsCentralAtom = false;
+
+        for (GenericScientificAtom GenericScientificAtom : GenericScientificAtomList) {
+            if (!com.enrico.chemistry.atoms.scientific.GenericScientificAtom.isUsable(GenericScientificAtom))
+                return ParseResult.moleculeError(ParseResult.ErrorCode.UnusableAtom, formula,
+                        com.enrico.chemistry.atoms.scientific.GenericScientificAtom.getUnusableAtomMessage(GenericScientificAtom));
+
+            if (GenericScientificAtom.getClass() != HydrogenScientificAtom.class)
+                containsCentralAtom = true;
+        }
+
+        // It is possible for Hydrogen to be the central atom only for the molecule H2.
+        if (!containsCentralAtom && GenericScientificAtomList.length < 2)
+            return invalidMoleculeResult(formula);
 
-        numberOfElements = getNumberOfElements();
+        return ParseResult.VALID;
     }
 
+    private static ParseResult invalidMoleculeResult(String formula) {
+        return ParseResult.moleculeError(ParseResult.ErrorCode.InvalidMolecule, formula,
+                IllegalMoleculeException.createMessage(formula));
+    }
+
+    /**
+     * @return the explanation of the steps done to solve the molecule, rendered from the log every time it is called.
+     */
     public String getOperationString() {
-        return operationString;
+        return explanationLog.render();
+    }
+
+    public ExplanationLog getExplanationLog() {
+        return explanationLog;
     }
 
     public ShapeEnum getMoleculeShape() {
@@ -124,16 +254,26 @@ public class Molecule {
         return centralGenericScientificAtom;
     }
 
-    public ArrayList<GenericScientificAtom> getBindedGenericScientificAtoms() {
-        return bondedGenericScientificAtoms;
+    /**
+     * @return the atoms bonded to the central atom, the list is an unmodifiable view.
+     */
+    public List<GenericScientificAtom> getBindedGenericScientificAtoms() {
+        return Collections.unmodifiableList(bondedGenericScientificAtoms);
+    }
+
+    public int getDoubletsNumber() {
+        return doubletsNumber;
     }
 
     public String getFormula() {
         return formula;
     }
 
-    public ArrayList<HydrogenScientificAtom> getHydrogenAtoms() {
-        return hydrogenAtoms;
+    /**
+     * @return the Hydrogen atoms of the molecule, the list is an unmodifiable view.
+     */
+    public List<HydrogenScientificAtom> getHydrogenAtoms() {
+        return Collections.unmodifiableList(hydrogenAtoms);
     }
 
     public CompoundType getCompoundType() {
@@ -144,6 +284,13 @@ public class Molecule {
         return numberOfElements;
     }
 
+    /**
+     * @return the composition of the molecule, equal for all of the molecules made of the same atoms.
+     */
+    public Composition getComposition() {
+        return Composition.fromAtoms(GenericScientificAtomList);
+    }
+
     private void findCentralAtom() throws IllegalArgumentException {
         GenericScientificAtom central = null;
 
@@ -151,8 +298,6 @@ public class Molecule {
         double minElectronegativity = 0.0;
 
         for (GenericScientificAtom GenericScientificAtom : GenericScientificAtomList) {
-            com.enrico.chemistry.atoms.scientific.GenericScientificAtom.checkIfUsable(GenericScientificAtom);
-
             if (minElectronegativity == 0.0 && GenericScientificAtom.getClass() != HydrogenScientificAtom.class) {
                 minElectronegativity = GenericScientificAtom.getElectronegativity();
                 central = GenericScientificAtom;
@@ -181,34 +326,58 @@ public class Molecule {
 
         centralGenericScientificAtom = central;
 
-        operationString = operationString.concat("Found central atom: " +
-                                                 centralGenericScientificAtom.getSymbol() + "(" +
-                                                 centralGenericScientificAtom.getCompleteName() + ")\n");
+        explanationLog.record(ExplanationLog.Step.CentralAtom, centralGenericScientificAtom.getAtomicNumber());
     }
 
+    /**
+     * This method finds the free doublets of the central atom as the VSEPR theory counts them: the valence electrons
+     * of the central atom, minus the charge of the molecule, left once every bonded atom has taken the electrons it
+     * needs to complete its octet. A single electron left makes up a doublet too.
+     */
     private void findDoublets() {
-        doubletsNumber = centralGenericScientificAtom.getDoublets();
-        operationString = operationString.concat("Found free doublets of central atom: " +
-                                                 centralGenericScientificAtom.getDoublets() + "\n");
+        int freeElectrons = ElementTable.getValenceElectrons(centralGenericScientificAtom.getAtomicNumber()) - charge;
+
+        // The central atom must give at least one electron to every bonded atom.
+        if (freeElectrons < bondedGenericScientificAtoms.size()) {
+            doubletsNumber = -1;
+            return;
+        }
+
+        for (GenericScientificAtom bondedAtom : bondedGenericScientificAtoms)
+            freeElectrons -= getBondsNumber(bondedAtom.getAtomicNumber());
+
+        // The extra bonds asked for are made up by the bonded atoms (eg: S-O bonds inside SO4^2-).
+        doubletsNumber = (Math.max(freeElectrons, 0) + 1) / 2;
+        explanationLog.record(ExplanationLog.Step.Doublets, doubletsNumber);
+    }
+
+    /**
+     * @param atomicNumber The atomic number of a bonded atom.
+     * @return the number of bonds the atom needs to complete its octet, eg: 1 for F, 2 for O and 3 for N.
+     */
+    private static int getBondsNumber(int atomicNumber) {
+        if (!ElementTable.isMainGroup(atomicNumber))
+            return 1;
+
+        int valence = ElementTable.getValenceElectrons(atomicNumber);
+        return Math.max(valence <= 4 ? valence : 8 - valence, 1);
     }
 
     private void setBindedAtoms() {
 
-        operationString = operationString.concat("Binded atoms:\n");
+        explanationLog.record(ExplanationLog.Step.BondedAtomsHeader, 0);
 
         // Check if molecule is Hydrogen molecule.
         if (GenericScientificAtomList.length == 2 && centralGenericScientificAtom.getClass() == HydrogenScientificAtom.class &&
             GenericScientificAtomList[1].getClass() == HydrogenScientificAtom.class) {
             bondedGenericScientificAtoms.add(GenericScientificAtomList[1]);
 
-            operationString = operationString.concat("H (Hydrogen)\n");
+            explanationLog.record(ExplanationLog.Step.BondedAtom, HydrogenScientificAtom.ATOMIC_NUMBER);
 
             return;
         }
 
         for (GenericScientificAtom GenericScientificAtom : GenericScientificAtomList) {
-            com.enrico.chemistry.atoms.scientific.GenericScientificAtom.checkIfUsable(GenericScientificAtom);
-
             if (GenericScientificAtom.getClass().equals(HydrogenScientificAtom.class)) {
                 hydrogenAtoms.add((HydrogenScientificAtom) GenericScientificAtom);
                 continue;
@@ -216,169 +385,97 @@ public class Molecule {
 
             if (!GenericScientificAtom.equals(centralGenericScientificAtom)) {
                 bondedGenericScientificAtoms.add(GenericScientificAtom);
-                operationString = operationString.concat(GenericScientificAtom.getSymbol() + " (" + GenericScientificAtom.getCompleteName() + ")\n");
+                explanationLog.record(ExplanationLog.Step.BondedAtom, GenericScientificAtom.getAtomicNumber());
             }
         }
 
         // All the bonded atoms are Hydrogen atoms.
         if (bondedGenericScientificAtoms.size() == 0) {
             bondedGenericScientificAtoms.addAll(hydrogenAtoms);
-            operationString = operationString.concat("added " + hydrogenAtoms.size() + " Hydrogen atoms\n");
+            explanationLog.record(ExplanationLog.Step.AddedHydrogens, hydrogenAtoms.size());
         }
     }
 
-    private boolean containsMetal() {
-        GenericScientificAtom.AtomClassType atomType;
+    /**
+     * This method finds the shape and the compound type of the molecule, without throwing any exception, and it
+     * collects the results inside an immutable analysis that can be shared between threads.
+     * @return the analysis of the molecule.
+     */
+    public MoleculeAnalysis analyze() {
+        ParseResult shapeResult = tryCalculateShape();
+        ParseResult compoundTypeResult = tryFindCompoundType();
 
-        for (GenericScientificAtom GenericScientificAtom : GenericScientificAtomList) {
-            atomType = GenericScientificAtom.getClassType();
-            if (atomType == GenericAtom.AtomClassType.AlkalineEarthMetals ||
-                atomType == GenericAtom.AtomClassType.AlkalineMetals ||
-                atomType == GenericAtom.AtomClassType.PBlockMetals ||
-                atomType == GenericAtom.AtomClassType.TransitionalMetals ||
-                atomType == GenericAtom.AtomClassType.SemiMetals)
-                return true;
-        }
+        return new MoleculeAnalysis(this, shapeResult, compoundTypeResult);
+    }
 
-        return false;
+    public void calculateShape() throws IllegalMoleculeException {
+        if (!tryCalculateShape().isValid())
+            throw new IllegalMoleculeException(this);
     }
 
-    private boolean containsNonMetal() {
-        GenericScientificAtom.AtomClassType atomType;
+    /**
+     * This method calculates the shape of the molecule, without throwing any exception.
+     * @return the result of the calculation, it is not valid if the shape is not supported.
+     */
+    public ParseResult tryCalculateShape() {
+        ShapeEnum shape = VseprShapeResolver.resolve(bondedGenericScientificAtoms.size(), doubletsNumber);
 
-        for (GenericScientificAtom GenericScientificAtom : GenericScientificAtomList) {
-            atomType = GenericScientificAtom.getClassType();
-            if (atomType == GenericAtom.AtomClassType.NotMetals ||
-                atomType == GenericAtom.AtomClassType.NobleGasses)
-                return true;
+        if (shape == null) {
+            explanationLog.record(ExplanationLog.Step.Shape, ExplanationLog.UNSUPPORTED_SHAPE);
+            return invalidMoleculeResult(formula);
         }
 
-        return false;
-    }
+        moleculeShape = shape;
+        explanationLog.record(ExplanationLog.Step.Shape, moleculeShape.ordinal());
 
-    public void calculateShape() throws IllegalMoleculeException {
-        operationString = operationString.concat("Found shape of molecule: ");
-
-        if ((bondedGenericScientificAtoms.size() == 4 && doubletsNumber == 0) ||
-            (bondedGenericScientificAtoms.size() == 4 && doubletsNumber == 2)) {
-            moleculeShape = ShapeEnum.SquareShape;
-            operationString = operationString.concat("Square shape.\n");
-        } else if ((bondedGenericScientificAtoms.size() == 2 && doubletsNumber == 2) ||
-                 (bondedGenericScientificAtoms.size() == 2 && doubletsNumber == 5) ||
-                 (bondedGenericScientificAtoms.size() == 3 && doubletsNumber == 1)) {
-            moleculeShape = ShapeEnum.PyramidShape;
-            operationString = operationString.concat("Pyramid shape.\n");
-        } else if ((bondedGenericScientificAtoms.size() == 2 && doubletsNumber == 0) ||
-                 (bondedGenericScientificAtoms.size() == 1 && doubletsNumber == 0) ||
-                 (bondedGenericScientificAtoms.size() == 2 && doubletsNumber == 1) ||
-                 (bondedGenericScientificAtoms.size() == 1 && doubletsNumber == 3) ||
-                 (bondedGenericScientificAtoms.size() == 1 && doubletsNumber == 2)) {
-            moleculeShape = ShapeEnum.LineShape;
-            operationString = operationString.concat("Line shape.\n");
-        } else if ((bondedGenericScientificAtoms.size() == 3 && doubletsNumber == 2) ||
-                 (bondedGenericScientificAtoms.size() == 3 && doubletsNumber == 0) ||
-                 (bondedGenericScientificAtoms.size() == 3 && doubletsNumber == 3)) {
-            moleculeShape = ShapeEnum.TriangularShape;
-            operationString = operationString.concat("Triangular shape.\n");
-        } else if ((bondedGenericScientificAtoms.size() == 5 && doubletsNumber == 2)) {
-            moleculeShape = ShapeEnum.FivePointedStar;
-            operationString = operationString.concat("Five pointed star shape.\n");
-        } else if ((bondedGenericScientificAtoms.size() == 6 && doubletsNumber == 2)) {
-            moleculeShape = ShapeEnum.SixPointedStar;
-            operationString = operationString.concat("Six pointed star shape.\n");
-        } else {
-            throw new IllegalMoleculeException(this);
-        }
+        return ParseResult.VALID;
     }
 
+    /**
+     * @return true if the molecule is only made of the central atom and of Hydrogen atoms.
+     */
     public boolean isMoleculeSimple() {
-        for (GenericScientificAtom GenericScientificAtom : GenericScientificAtomList) {
-            if (GenericScientificAtom.getSymbol().equals(centralGenericScientificAtom.getSymbol()))
-                continue;
-
-            if (!GenericScientificAtom.getSymbol().equals(HydrogenScientificAtom.ATOM_SYMBOL))
-                return false;
-        }
-        return true;
+        return compositionSummary.isOnlyCentralAndHydrogen(centralGenericScientificAtom.getAtomicNumber());
     }
 
     public boolean containsHydrogen() {
-        for (GenericScientificAtom GenericScientificAtom : GenericScientificAtomList)
-            if (GenericScientificAtom.getSymbol().equals(HydrogenScientificAtom.ATOM_SYMBOL))
-                return true;
-        return false;
-    }
-
-    private boolean containsOxygen() {
-        for (GenericScientificAtom GenericScientificAtom : GenericScientificAtomList)
-            if (GenericScientificAtom.getSymbol().equals(OxygenScientificAtom.ATOM_SYMBOL))
-                return true;
-
-        return false;
+        return compositionSummary.containsHydrogen();
     }
 
-    private boolean containsWater() {
-        return containsOxygen() && containsHydrogen();
+    public CompositionSummary getCompositionSummary() {
+        return compositionSummary;
     }
 
-    private boolean isPeroxide() {
-        int oxygenNumber = 0;
-        for (GenericScientificAtom GenericScientificAtom : GenericScientificAtomList) {
-            if (GenericScientificAtom.getSymbol().equals(OxygenScientificAtom.ATOM_SYMBOL))
-                oxygenNumber++;
-        }
-
-        return oxygenNumber == 2;
+    public void findCompoundType() throws IllegalMoleculeException {
+        if (!tryFindCompoundType().isValid())
+            throw new IllegalMoleculeException(this);
     }
 
-    private int getNumberOfElements() {
-        int elementsNum = 1;
-        String[] atomSymbols = new String[118];
-        atomSymbols[0] = centralGenericScientificAtom.getSymbol();
-
-        if (containsHydrogen() && !isMoleculeSimple()) {
-            atomSymbols[1] = HydrogenScientificAtom.ATOM_SYMBOL;
-            elementsNum++;
-        }
-
-        for (GenericScientificAtom bondedGenericScientificAtom : bondedGenericScientificAtoms) {
-            if (!Arrays.asList(atomSymbols).contains(bondedGenericScientificAtom.getSymbol())) {
-                atomSymbols[elementsNum] = bondedGenericScientificAtom.getSymbol();
-                elementsNum++;
-            }
-        }
-
-        return elementsNum;
+    /**
+     * This method finds the compound type of the molecule, without throwing any exception.
+     * @return the result of the search, it is not valid if the compound type is not supported.
+     */
+    public ParseResult tryFindCompoundType() {
+        byte type = CompoundTypeClassifier.classify(numberOfElements,
+                compositionSummary.containsMetal(),
+                compositionSummary.containsNonMetal(),
+                compositionSummary.getHydrogenNumber(),
+                compositionSummary.getOxygenNumber());
+
+        if (type == CompoundTypeClassifier.UNCLASSIFIED)
+            return invalidMoleculeResult(formula);
+
+        compoundType = CompoundTypeClassifier.toCompoundType(type);
+        return ParseResult.VALID;
     }
 
-    public void findCompoundType() throws IllegalMoleculeException {
-        if (numberOfElements == 2) {
-            if (containsMetal() && containsHydrogen())
-                compoundType = CompoundType.Hydride;
-            else if (isPeroxide())
-                compoundType = CompoundType.Peroxide;
-            else if (containsNonMetal() && containsHydrogen())
-                compoundType = CompoundType.BinaryAcid;
-            else if (containsMetal() && containsOxygen())
-                compoundType = CompoundType.BasicOxide;
-            else if (containsNonMetal() && containsOxygen())
-                compoundType = CompoundType.Anhydride;
-            else if (containsMetal() && containsNonMetal())
-                compoundType = CompoundType.BinaryRooms;
-            else
-                throw new IllegalMoleculeException(this);
-
-        } else if (numberOfElements == 3 || numberOfElements == 4) {
-            if (containsWater() && containsMetal())
-                compoundType = CompoundType.Hydroxide;
-            else if (containsWater() && containsNonMetal())
-                compoundType = CompoundType.Oxoacid;
-            else if (containsNonMetal() && containsMetal() && containsOxygen())
-                compoundType = CompoundType.TernarySalt;
-            else
-                throw new IllegalMoleculeException(this);
-        } else {
-            throw new IllegalMoleculeException(this);
-        }
+    /**
+     * This method finds the compound types of a whole batch of molecules stored as columns, splitting the work across
+     * the cores. It is meant for classifying large sets of compounds without building a Molecule for every one of them.
+     * @param columns The compositions of the molecules.
+     * @return the ordinals of the compound types, CompoundTypeClassifier.UNCLASSIFIED for the unsupported ones.
+     */
+    public static byte[] findCompoundTypes(CompositionColumns columns) {
+        return CompoundTypeClassifier.classify(columns);
     }
 }
@@ -0,0 +1,157 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.molecule;
+
+import com.enrico.chemistry.Composition;
+import com.enrico.chemistry.atoms.scientific.GenericScientificAtom;
+import com.enrico.chemistry.atoms.scientific.HydrogenScientificAtom;
+import com.enrico.chemistry.formulaparser.ParseResult;
+
+import java.util.List;
+
+/**
+ * This class holds the results of the analysis of a molecule: its AXE parameters, its shape and its compound type.
+ *
+ * An analysis is built once from a molecule (see Molecule.analyze()) and it is immutable: every member is final and
+ * the atom lists are unmodifiable, so it can be published to worker threads, caches and the event dispatch thread
+ * without copying or locking. When the shape or the compound type can't be found, the error message is stored instead
+ * of the result.
+ */
+public final class MoleculeAnalysis {
+    private final String formula;
+    private final Composition composition;
+
+    private final GenericScientificAtom centralGenericScientificAtom;
+    private final List<GenericScientificAtom> bondedGenericScientificAtoms;
+    private final List<HydrogenScientificAtom> hydrogenAtoms;
+    private final int doubletsNumber;
+    private final int elementsNum;
+
+    private final boolean moleculeSimple;
+    private final boolean hydrogenContained;
+
+    private final Molecule.ShapeEnum moleculeShape;
+    private final String shapeError;
+
+    private final Molecule.CompoundType compoundType;
+    private final String compoundTypeError;
+
+    private final String operationString;
+
+    /**
+     * @param molecule The molecule, whose shape and compound type have already been searched.
+     * @param shapeResult The result of the search of the shape.
+     * @param compoundTypeResult The result of the search of the compound type.
+     */
+    MoleculeAnalysis(Molecule molecule, ParseResult shapeResult, ParseResult compoundTypeResult) {
+        formula = molecule.getFormula();
+        composition = molecule.getComposition();
+
+        centralGenericScientificAtom = molecule.getCentralGenericScientificAtom();
+        bondedGenericScientificAtoms = List.copyOf(molecule.getBindedGenericScientificAtoms());
+        hydrogenAtoms = List.copyOf(molecule.getHydrogenAtoms());
+        doubletsNumber = molecule.getDoubletsNumber();
+        elementsNum = molecule.getElementsNum();
+
+        moleculeSimple = molecule.isMoleculeSimple();
+        hydrogenContained = molecule.containsHydrogen();
+
+        moleculeShape = shapeResult.isValid() ? molecule.getMoleculeShape() : null;
+        shapeError = shapeResult.isValid() ? null : shapeResult.getMessage();
+
+        compoundType = compoundTypeResult.isValid() ? molecule.getCompoundType() : null;
+        compoundTypeError = compoundTypeResult.isValid() ? null : compoundTypeResult.getMessage();
+
+        operationString = molecule.getOperationString();
+    }
+
+    public String getFormula() {
+        return formula;
+    }
+
+    public Composition getComposition() {
+        return composition;
+    }
+
+    public GenericScientificAtom getCentralGenericScientificAtom() {
+        return centralGenericScientificAtom;
+    }
+
+    /**
+     * @return the atoms bonded to the central atom, the list is unmodifiable.
+     */
+    public List<GenericScientificAtom> getBindedGenericScientificAtoms() {
+        return bondedGenericScientificAtoms;
+    }
+
+    /**
+     * @return the Hydrogen atoms of the molecule, the list is unmodifiable.
+     */
+    public List<HydrogenScientificAtom> getHydrogenAtoms() {
+        return hydrogenAtoms;
+    }
+
+    public int getDoubletsNumber() {
+        return doubletsNumber;
+    }
+
+    public int getElementsNum() {
+        return elementsNum;
+    }
+
+    public boolean isMoleculeSimple() {
+        return moleculeSimple;
+    }
+
+    public boolean containsHydrogen() {
+        return hydrogenContained;
+    }
+
+    public boolean isShapeSolved() {
+        return moleculeShape != null;
+    }
+
+    public Molecule.ShapeEnum getMoleculeShape() {
+        return moleculeShape;
+    }
+
+    public String getShapeError() {
+        return shapeError;
+    }
+
+    public boolean isCompoundTypeSolved() {
+        return compoundType != null;
+    }
+
+    public Molecule.CompoundType getCompoundType() {
+        return compoundType;
+    }
+
+    public String getCompoundTypeError() {
+        return compoundTypeError;
+    }
+
+    /**
+     * @return the explanation of the steps done to solve the molecule, empty if the molecule was not explained.
+     */
+    public String getOperationString() {
+        return operationString;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.molecule;
+
+import com.enrico.chemistry.atoms.ElementTable;
+import com.enrico.chemistry.atoms.scientific.HydrogenScientificAtom;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class writes a molecular graph as a SMILES string (eg: "CC(C)O" for propan-2-ol), so that molecules with
+ * many centres can be shown as text.
+ *
+ * Hydrogen atoms bonded to another element are written implicitly: the elements of the organic subset are written
+ * bare when their Hydrogen atoms fill their usual valence, every other atom is written inside brackets with its
+ * Hydrogen atoms (eg: "[SiH4]"). Rings are closed with numbers, disconnected parts are separated by dots.
+ */
+public final class SmilesWriter {
+    private SmilesWriter() {
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @return the valence of the element if it belongs to the organic subset of SMILES, -1 otherwise.
+     */
+    private static int getOrganicSubsetValence(int atomicNumber) {
+        switch (atomicNumber) {
+            case 5:
+            case 7:
+            case 15:
+                return 3;
+            case 6:
+                return 4;
+            case 8:
+            case 16:
+                return 2;
+            case 9:
+            case 17:
+            case 35:
+            case 53:
+                return 1;
+            default:
+                return -1;
+        }
+    }
+
+    public static String write(MolecularGraph graph) {
+        return new Writer(graph).write();
+    }
+
+    private static final class Writer {
+        private final MolecularGraph graph;
+        private final boolean[] implicit;
+        private final int[] hydrogenCounts;
+        private final int[] visitOrder;
+        private final int[] parents;
+        private final HashMap<Long, Integer> ringNumbers = new HashMap<>();
+        private final boolean[] usedRingNumbers = new boolean[100];
+        private final StringBuilder smiles = new StringBuilder();
+        private int visitedNumber = 0;
+
+        Writer(MolecularGraph graph) {
+            int atomsNumber = graph.getAtomsNumber();
+
+            this.graph = graph;
+            implicit = new boolean[atomsNumber];
+            hydrogenCounts = new int[atomsNumber];
+            visitOrder = new int[atomsNumber];
+            parents = new int[atomsNumber];
+
+            Arrays.fill(visitOrder, -1);
+            Arrays.fill(parents, -1);
+
+            for (int atom = 0; atom < atomsNumber; atom++) {
+                if (graph.getElement(atom) != HydrogenScientificAtom.ATOMIC_NUMBER || graph.getDegree(atom) != 1)
+                    continue;
+
+                int neighbour = graph.getNeighbour(graph.getBondsStart(atom));
+                if (graph.getElement(neighbour) != HydrogenScientificAtom.ATOMIC_NUMBER) {
+                    implicit[atom] = true;
+                    hydrogenCounts[neighbour]++;
+                }
+            }
+        }
+
+        String write() {
+            for (int atom = 0; atom < graph.getAtomsNumber(); atom++) {
+                if (implicit[atom] || visitOrder[atom] >= 0)
+                    continue;
+
+                if (smiles.length() > 0)
+                    smiles.append('.');
+
+                visit(atom);
+                writeAtom(atom);
+            }
+
+            return smiles.toString();
+        }
+
+        // Finds the spanning tree, the bonds left out of it close the rings.
+        private void visit(int atom) {
+            visitOrder[atom] = visitedNumber++;
+
+            for (int entry = graph.getBondsStart(atom); entry < graph.getBondsEnd(atom); entry++) {
+                int neighbour = graph.getNeighbour(entry);
+
+                if (!implicit[neighbour] && visitOrder[neighbour] < 0) {
+                    parents[neighbour] = atom;
+                    visit(neighbour);
+                }
+            }
+        }
+
+        private void writeAtom(int atom) {
+            int element = graph.getElement(atom);
+            int organicSubsetValence = getOrganicSubsetValence(element);
+            String symbol = ElementTable.getSymbol(element);
+
+            if (organicSubsetValence >= 0 && graph.getBondOrderSum(atom) == organicSubsetValence) {
+                smiles.append(symbol);
+            } else {
+                smiles.append('[').append(symbol);
+                if (hydrogenCounts[atom] > 0)
+                    smiles.append('H');
+                if (hydrogenCounts[atom] > 1)
+                    smiles.append(hydrogenCounts[atom]);
+                smiles.append(']');
+            }
+
+            for (int entry = graph.getBondsStart(atom); entry < graph.getBondsEnd(atom); entry++) {
+                int neighbour = graph.getNeighbour(entry);
+                if (implicit[neighbour] || parents[neighbour] == atom || parents[atom] == neighbour)
+                    continue;
+
+                long bond = (long) Math.min(atom, neighbour) * graph.getAtomsNumber() + Math.max(atom, neighbour);
+
+                if (visitOrder[neighbour] < visitOrder[atom]) {
+                    int ringNumber = ringNumbers.remove(bond);
+                    usedRingNumbers[ringNumber] = false;
+
+                    smiles.append(getBondSymbol(graph.getEntryBondOrder(entry)));
+                    appendRingNumber(ringNumber);
+                } else {
+                    int ringNumber = 1;
+                    while (usedRingNumbers[ringNumber])
+                        ringNumber++;
+
+                    usedRingNumbers[ringNumber] = true;
+                    ringNumbers.put(bond, ringNumber);
+                    appendRingNumber(ringNumber);
+                }
+            }
+
+            int lastChild = -1;
+            for (int entry = graph.getBondsStart(atom); entry < graph.getBondsEnd(atom); entry++) {
+                if (parents[graph.getNeighbour(entry)] == atom)
+                    lastChild = entry;
+            }
+
+            // Every branch but the last one goes inside parentheses.
+            for (int entry = graph.getBondsStart(atom); entry <= lastChild; entry++) {
+                int neighbour = graph.getNeighbour(entry);
+                if (parents[neighbour] != atom)
+                    continue;
+
+                if (entry != lastChild)
+                    smiles.append('(');
+
+                smiles.append(getBondSymbol(graph.getEntryBondOrder(entry)));
+                writeAtom(neighbour);
+
+                if (entry != lastChild)
+                    smiles.append(')');
+            }
+        }
+
+        private void appendRingNumber(int ringNumber) {
+            if (ringNumber >= 10)
+                smiles.append('%');
+
+            smiles.append(ringNumber);
+        }
+
+        private static String getBondSymbol(int bondOrder) {
+            switch (bondOrder) {
+                case 2:
+                    return "=";
+                case 3:
+                    return "#";
+                default:
+                    return "";
+            }
+        }
+    }
+}
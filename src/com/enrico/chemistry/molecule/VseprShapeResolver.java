@@ -0,0 +1,88 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.molecule;
+
+import com.enrico.chemistry.molecule.Molecule.ShapeEnum;
+
+/**
+ * This class finds the shape of a molecule from the number of atoms bonded to its central atom and from the free
+ * doublets of the central atom (the AXnEm notation of the VSEPR theory). The doublets are the ones left to the central
+ * atom once it is bonded, see Molecule.findDoublets().
+ *
+ * All of the shapes are precomputed inside a flat table indexed by (bonded atoms, doublets), so resolving a shape is a
+ * single array load. The table only holds the shapes of the VSEPR classification, the shapes they are drawn with
+ * are found by Molecule.ShapeEnum.getDrawingShape(). The table is never modified after the class is loaded, so the
+ * resolver can be used by many threads at the same time.
+ */
+public final class VseprShapeResolver {
+    public static final int MAX_BONDED_ATOMS = 7;
+    public static final int MAX_DOUBLETS = 9;
+
+    private static final int ROW_SIZE = MAX_DOUBLETS + 1;
+    private static final ShapeEnum[] shapes = new ShapeEnum[(MAX_BONDED_ATOMS + 1) * ROW_SIZE];
+
+    static {
+        // A single bonded atom is always on a line with the central atom.
+        for (int doublets = 0; doublets <= MAX_DOUBLETS; doublets++)
+            put(1, doublets, ShapeEnum.Linear);
+
+        // The three doublets of AX2E3 (eg: XeF2) are on the equator, so the bonded atoms are on a line again.
+        put(2, 0, ShapeEnum.Linear);
+        put(2, 1, ShapeEnum.Bent);
+        put(2, 2, ShapeEnum.Bent);
+        put(2, 3, ShapeEnum.Linear);
+
+        put(3, 0, ShapeEnum.TrigonalPlanar);
+        put(3, 1, ShapeEnum.TrigonalPyramidal);
+        put(3, 2, ShapeEnum.TShaped);
+
+        put(4, 0, ShapeEnum.Tetrahedral);
+        put(4, 1, ShapeEnum.Seesaw);
+        put(4, 2, ShapeEnum.SquarePlanar);
+
+        put(5, 0, ShapeEnum.TrigonalBipyramidal);
+        put(5, 1, ShapeEnum.SquarePyramid);
+        put(5, 2, ShapeEnum.PentagonalPlanar);
+
+        put(6, 0, ShapeEnum.Octahedral);
+        put(6, 1, ShapeEnum.PentagonalPyramid);
+
+        put(7, 0, ShapeEnum.PentagonalBipyramid);
+    }
+
+    private VseprShapeResolver() {
+    }
+
+    private static void put(int bondedAtoms, int doublets, ShapeEnum shape) {
+        shapes[bondedAtoms * ROW_SIZE + doublets] = shape;
+    }
+
+    /**
+     * @param bondedAtoms The number of atoms bonded to the central atom.
+     * @param doublets The free doublets of the central atom.
+     * @return the shape of the molecule, or null if no shape is known for that combination.
+     */
+    public static ShapeEnum resolve(int bondedAtoms, int doublets) {
+        if (bondedAtoms < 0 || bondedAtoms > MAX_BONDED_ATOMS || doublets < 0 || doublets > MAX_DOUBLETS)
+            return null;
+
+        return shapes[bondedAtoms * ROW_SIZE + doublets];
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.molecule.classification;
+
+import com.enrico.chemistry.molecule.CompositionSummary;
+
+import java.util.Arrays;
+
+/**
+ * This class stores the compositions of many molecules as columns, so that they can be classified in bulk by the
+ * CompoundTypeClassifier.
+ *
+ * Every column is a primitive array with a row for every molecule: the number of distinct elements, the metal and
+ * non-metal flags and the number of Hydrogen and Oxygen atoms. The rows must describe valid molecules (see
+ * Molecule.validate()). Columns are filled by a single thread, then they can be read by many threads.
+ */
+public final class CompositionColumns {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private int[] distinctElements;
+    private boolean[] metalFlags;
+    private boolean[] nonMetalFlags;
+    private int[] hydrogenCounts;
+    private int[] oxygenCounts;
+
+    private int size = 0;
+
+    public CompositionColumns() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CompositionColumns(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("The capacity of the columns can't be negative.");
+
+        distinctElements = new int[capacity];
+        metalFlags = new boolean[capacity];
+        nonMetalFlags = new boolean[capacity];
+        hydrogenCounts = new int[capacity];
+        oxygenCounts = new int[capacity];
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, distinctElements.length * 2);
+
+        distinctElements = Arrays.copyOf(distinctElements, capacity);
+        metalFlags = Arrays.copyOf(metalFlags, capacity);
+        nonMetalFlags = Arrays.copyOf(nonMetalFlags, capacity);
+        hydrogenCounts = Arrays.copyOf(hydrogenCounts, capacity);
+        oxygenCounts = Arrays.copyOf(oxygenCounts, capacity);
+    }
+
+    /**
+     * This method adds a row.
+     * @param distinctElementsNumber The number of distinct elements of the molecule.
+     * @param containsMetal true if the molecule contains a metal.
+     * @param containsNonMetal true if the molecule contains a non-metal.
+     * @param hydrogenNumber The number of Hydrogen atoms.
+     * @param oxygenNumber The number of Oxygen atoms.
+     * @return the index of the row.
+     */
+    public int add(int distinctElementsNumber, boolean containsMetal, boolean containsNonMetal,
+                   int hydrogenNumber, int oxygenNumber) {
+        if (size == distinctElements.length)
+            grow();
+
+        distinctElements[size] = distinctElementsNumber;
+        metalFlags[size] = containsMetal;
+        nonMetalFlags[size] = containsNonMetal;
+        hydrogenCounts[size] = hydrogenNumber;
+        oxygenCounts[size] = oxygenNumber;
+
+        return size++;
+    }
+
+    /**
+     * @param summary The summary of the atoms of a valid molecule.
+     * @return the index of the row.
+     */
+    public int add(CompositionSummary summary) {
+        return add(summary.getDistinctElementsNumber(), summary.containsMetal(), summary.containsNonMetal(),
+                summary.getHydrogenNumber(), summary.getOxygenNumber());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // The columns are read directly by the classifier, the arrays can be longer than size.
+
+    int[] getDistinctElements() {
+        return distinctElements;
+    }
+
+    boolean[] getMetalFlags() {
+        return metalFlags;
+    }
+
+    boolean[] getNonMetalFlags() {
+        return nonMetalFlags;
+    }
+
+    int[] getHydrogenCounts() {
+        return hydrogenCounts;
+    }
+
+    int[] getOxygenCounts() {
+        return oxygenCounts;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.molecule.classification;
+
+import com.enrico.chemistry.molecule.Molecule.CompoundType;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class finds the compound type of molecules from their composition.
+ *
+ * The same rules are used for a single molecule (see Molecule.tryFindCompoundType()) and for whole batches stored as
+ * CompositionColumns. Every rule is evaluated without short circuits and the first matching one is chosen with
+ * conditional selects, so the loop over a batch is free of unpredictable branches. Batches are split across the cores
+ * with fork-join, every task writes its own range of the output array.
+ */
+public final class CompoundTypeClassifier {
+    // The value stored for the molecules whose compound type is not supported.
+    public static final byte UNCLASSIFIED = -1;
+
+    // Batches smaller than this are classified by a single task.
+    static final int TASK_ROWS_THRESHOLD = 1 << 14;
+
+    private static final CompoundType[] COMPOUND_TYPES = CompoundType.values();
+
+    private static final byte HYDRIDE = (byte) CompoundType.Hydride.ordinal();
+    private static final byte PEROXIDE = (byte) CompoundType.Peroxide.ordinal();
+    private static final byte BINARY_ACID = (byte) CompoundType.BinaryAcid.ordinal();
+    private static final byte BASIC_OXIDE = (byte) CompoundType.BasicOxide.ordinal();
+    private static final byte ANHYDRIDE = (byte) CompoundType.Anhydride.ordinal();
+    private static final byte BINARY_ROOMS = (byte) CompoundType.BinaryRooms.ordinal();
+    private static final byte HYDROXIDE = (byte) CompoundType.Hydroxide.ordinal();
+    private static final byte OXOACID = (byte) CompoundType.Oxoacid.ordinal();
+    private static final byte TERNARY_SALT = (byte) CompoundType.TernarySalt.ordinal();
+
+    private CompoundTypeClassifier() {
+    }
+
+    /**
+     * This method finds the compound type of a single molecule.
+     * @param distinctElements The number of distinct elements of the molecule.
+     * @param metal true if the molecule contains a metal.
+     * @param nonMetal true if the molecule contains a non-metal.
+     * @param hydrogenNumber The number of Hydrogen atoms.
+     * @param oxygenNumber The number of Oxygen atoms.
+     * @return the ordinal of the compound type, or UNCLASSIFIED.
+     */
+    public static byte classify(int distinctElements, boolean metal, boolean nonMetal,
+                                int hydrogenNumber, int oxygenNumber) {
+        boolean binary = distinctElements == 2;
+        boolean ternary = (distinctElements == 3) | (distinctElements == 4);
+        boolean hydrogen = hydrogenNumber > 0;
+        boolean oxygen = oxygenNumber > 0;
+
+        // The rules are applied from the last one to the first one, so the first rule that matches wins.
+        byte type = UNCLASSIFIED;
+        type = ternary & nonMetal & metal & oxygen ? TERNARY_SALT : type;
+        type = ternary & hydrogen & oxygen & nonMetal ? OXOACID : type;
+        type = ternary & hydrogen & oxygen & metal ? HYDROXIDE : type;
+        type = binary & metal & nonMetal ? BINARY_ROOMS : type;
+        type = binary & nonMetal & oxygen ? ANHYDRIDE : type;
+        type = binary & metal & oxygen ? BASIC_OXIDE : type;
+        type = binary & nonMetal & hydrogen ? BINARY_ACID : type;
+        type = binary & (oxygenNumber == 2) ? PEROXIDE : type;
+        type = binary & metal & hydrogen ? HYDRIDE : type;
+
+        return type;
+    }
+
+    /**
+     * @param ordinal The ordinal of a compound type, or UNCLASSIFIED.
+     * @return the compound type, or null if the ordinal is UNCLASSIFIED.
+     */
+    public static CompoundType toCompoundType(byte ordinal) {
+        return ordinal == UNCLASSIFIED ? null : COMPOUND_TYPES[ordinal];
+    }
+
+    private static void classifyRange(CompositionColumns columns, int from, int to, byte[] types) {
+        int[] distinctElements = columns.getDistinctElements();
+        boolean[] metalFlags = columns.getMetalFlags();
+        boolean[] nonMetalFlags = columns.getNonMetalFlags();
+        int[] hydrogenCounts = columns.getHydrogenCounts();
+        int[] oxygenCounts = columns.getOxygenCounts();
+
+        for (int i = from; i < to; i++)
+            types[i] = classify(distinctElements[i], metalFlags[i], nonMetalFlags[i], hydrogenCounts[i], oxygenCounts[i]);
+    }
+
+    /**
+     * This method finds the compound types of a whole batch, using the common fork-join pool.
+     * @param columns The compositions of the molecules.
+     * @return the ordinals of the compound types, one for every row of the columns (UNCLASSIFIED if the compound
+     * type is not supported).
+     */
+    public static byte[] classify(CompositionColumns columns) {
+        return classify(columns, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param columns The compositions of the molecules.
+     * @param pool The pool the batch is split on.
+     * @return the ordinals of the compound types, one for every row of the columns.
+     */
+    public static byte[] classify(CompositionColumns columns, ForkJoinPool pool) {
+        byte[] types = new byte[columns.size()];
+
+        if (types.length <= TASK_ROWS_THRESHOLD)
+            classifyRange(columns, 0, types.length, types);
+        else
+            pool.invoke(new ClassificationTask(columns, 0, types.length, types));
+
+        return types;
+    }
+
+    private static final class ClassificationTask extends RecursiveAction {
+        private final CompositionColumns columns;
+        private final int from;
+        private final int to;
+        private final byte[] types;
+
+        ClassificationTask(CompositionColumns columns, int from, int to, byte[] types) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+            this.types = types;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TASK_ROWS_THRESHOLD) {
+                classifyRange(columns, from, to, types);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ClassificationTask(columns, from, middle, types),
+                    new ClassificationTask(columns, middle, to, types));
+        }
+    }
+}
@@ -23,6 +23,10 @@ import com.enrico.chemistry.molecule.Molecule;
 
 public class IllegalMoleculeException extends IllegalArgumentException {
     public IllegalMoleculeException(Molecule m) {
-        super("Molecule: " + m.getFormula() + " is not a valid molecule.");
+        super(createMessage(m.getFormula()));
+    }
+
+    public static String createMessage(String formula) {
+        return "Molecule: " + formula + " is not a valid molecule.";
     }
 }
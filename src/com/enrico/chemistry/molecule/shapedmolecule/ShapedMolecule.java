@@ -22,10 +22,12 @@ package com.enrico.chemistry.molecule.shapedmolecule;
 import com.enrico.chemistry.atoms.scientific.GenericScientificAtom;
 import com.enrico.chemistry.atoms.scientific.HydrogenScientificAtom;
 import com.enrico.chemistry.molecule.Molecule;
+import com.enrico.chemistry.molecule.MoleculeAnalysis;
 import com.enrico.chemistry.molecule.atomgroup.AtomGroup;
 import com.enrico.drawing.Line;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class represents an entire molecule, except that it keeps track of the position of every single
@@ -38,14 +40,18 @@ public final class ShapedMolecule {
     private ArrayList<AtomGroup> atomGroups = new ArrayList<>();
     private ArrayList<Line> lineGroups = new ArrayList<>();
     private ArrayList<HydrogenAtomPlaceCard> placeCardsForHydrogen = new ArrayList<>();
-    private final Molecule molecule;
+    private final MoleculeAnalysis molecule;
 
-    public ShapedMolecule(Molecule molecule, int xCenter, int yCenter) {
+    // The shape the molecule is drawn with, see Molecule.ShapeEnum.getDrawingShape().
+    private final Molecule.ShapeEnum drawingShape;
 
-        ArrayList<HydrogenScientificAtom> hydrogenAtoms = molecule.getHydrogenAtoms();
+    public ShapedMolecule(MoleculeAnalysis molecule, int xCenter, int yCenter) {
+
+        List<HydrogenScientificAtom> hydrogenAtoms = molecule.getHydrogenAtoms();
         int hydrogenAtomsSize = hydrogenAtoms.size();
         int hydrogenAtomIndex = 0;
         this.molecule = molecule;
+        this.drawingShape = molecule.getMoleculeShape().getDrawingShape();
 
         /*
          * Every algorithm from now on follows the same basic structure.
@@ -71,10 +77,13 @@ public final class ShapedMolecule {
          *
          * After finishing this, we just add the lines to the LineGroups and exit the constructor.
          */
-        switch (molecule.getMoleculeShape()) {
+        if (drawingShape == null)
+            return;
+
+        switch (drawingShape) {
             case SquareShape:
 
-                ArrayList<GenericScientificAtom> bondedGenericScientificAtoms = molecule.getBindedGenericScientificAtoms();
+                List<GenericScientificAtom> bondedGenericScientificAtoms = molecule.getBindedGenericScientificAtoms();
 
                 if (bondedGenericScientificAtoms.size() == 4) {
                     ArrayList<AtomPlaceCard> atoms = new ArrayList<>();
@@ -121,7 +130,7 @@ public final class ShapedMolecule {
             break;
 
             case LineShape:
-                ArrayList<GenericScientificAtom> bondedAtomsLine = molecule.getBindedGenericScientificAtoms();
+                List<GenericScientificAtom> bondedAtomsLine = molecule.getBindedGenericScientificAtoms();
                 if (bondedAtomsLine.size() >= 1) {
                     ArrayList<AtomPlaceCard> atoms = new ArrayList<>();
 
@@ -160,7 +169,7 @@ public final class ShapedMolecule {
             break;
 
             case PyramidShape:
-                ArrayList<GenericScientificAtom> bondedAtomsPyramid = molecule.getBindedGenericScientificAtoms();
+                List<GenericScientificAtom> bondedAtomsPyramid = molecule.getBindedGenericScientificAtoms();
 
                 if (bondedAtomsPyramid.size() >= 2) {
                     ArrayList<AtomPlaceCard> atoms = new ArrayList<>();
@@ -198,7 +207,7 @@ public final class ShapedMolecule {
             break;
 
             case TriangularShape:
-                ArrayList<GenericScientificAtom> bondedAtomsTriangular = molecule.getBindedGenericScientificAtoms();
+                List<GenericScientificAtom> bondedAtomsTriangular = molecule.getBindedGenericScientificAtoms();
 
                 if (bondedAtomsTriangular.size() == 3) {
                     ArrayList<AtomPlaceCard> atoms = new ArrayList<>();
@@ -240,7 +249,7 @@ public final class ShapedMolecule {
             break;
 
             case FivePointedStar:
-                ArrayList<GenericScientificAtom> bondedAtomsFiveStar = molecule.getBindedGenericScientificAtoms();
+                List<GenericScientificAtom> bondedAtomsFiveStar = molecule.getBindedGenericScientificAtoms();
 
                 if (bondedAtomsFiveStar.size() == 5) {
                     ArrayList<AtomPlaceCard> atoms = new ArrayList<>();
@@ -285,7 +294,7 @@ public final class ShapedMolecule {
             break;
 
             case SixPointedStar:
-                ArrayList<GenericScientificAtom> bondedAtomsSixStar = molecule.getBindedGenericScientificAtoms();
+                List<GenericScientificAtom> bondedAtomsSixStar = molecule.getBindedGenericScientificAtoms();
 
                 if (bondedAtomsSixStar.size() == 6) {
                     ArrayList<AtomPlaceCard> atoms = new ArrayList<>();
@@ -394,7 +403,7 @@ public final class ShapedMolecule {
                 break;
 
                 case BottomLeft:
-                    if (molecule.getMoleculeShape() == Molecule.ShapeEnum.FivePointedStar)
+                    if (drawingShape == Molecule.ShapeEnum.FivePointedStar)
                         lineGroups.add(new Line(placeCard.x - 3, currentCentralAtomPlaceCard.x + 5,
                                 placeCard.y - 5, currentCentralAtomPlaceCard.y + 3));
                     else
@@ -403,7 +412,7 @@ public final class ShapedMolecule {
                 break;
 
                 case BottomRight:
-                    if (molecule.getMoleculeShape() == Molecule.ShapeEnum.FivePointedStar)
+                    if (drawingShape == Molecule.ShapeEnum.FivePointedStar)
                         lineGroups.add(new Line(placeCard.x + 3, currentCentralAtomPlaceCard.x - 5,
                                 placeCard.y - 10, currentCentralAtomPlaceCard.y + 3));
                     else
@@ -489,8 +498,8 @@ public final class ShapedMolecule {
         }
     }
 
-    private boolean hydrogenLoopCondition(int hydrogenAtomsSize, ArrayList<GenericScientificAtom> bondedList,
-                                          ArrayList<HydrogenScientificAtom> hydrogenAtoms) {
+    private boolean hydrogenLoopCondition(int hydrogenAtomsSize, List<GenericScientificAtom> bondedList,
+                                          List<HydrogenScientificAtom> hydrogenAtoms) {
         return hydrogenAtomsSize > 0 && !bondedList.containsAll(hydrogenAtoms);
     }
 
@@ -0,0 +1,424 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.oxidation;
+
+import com.enrico.chemistry.Composition;
+import com.enrico.chemistry.atoms.ElementTable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * This class assigns an oxidation state to every element of a composition, so that the states of all the atoms add up
+ * to the charge of the formula.
+ *
+ * Every element starts with the states of the OxidationStateTable as its domain. The domains are pruned by bounds
+ * propagation on the charge equation (a state is removed when the other elements can't make up for it), then the
+ * remaining choices are searched with branch and bound. Among the assignments found, the one with the fewest states
+ * against the electronegativity (a positive element more electronegative than a negative one) is chosen, then the one
+ * with the most common states, compared from the most electronegative element: this gives F -1, O -2 apart from
+ * peroxides, H +1 with non metals and -1 in metal hydrides.
+ * When no integer assignment exists (eg: Fe3O4), one element is given the average of its states instead.
+ */
+public final class OxidationStateSolver {
+    // Batches smaller than this are solved by a single task.
+    static final int TASK_COMPOSITIONS_THRESHOLD = 256;
+
+    // The search is stopped after this number of nodes, keeping the best assignment found.
+    static final int MAX_SEARCH_STATES = 1 << 20;
+
+    // Elements whose electronegativities differ less than this are not ordered (eg: P and H).
+    private static final double ELECTRONEGATIVITY_MARGIN = 0.1;
+
+    private final Composition composition;
+    private final int elementsNumber;
+    private final int[] atomicNumbers;
+    private final int[] counts;
+    private final int charge;
+    // The positions of the elements, from the most electronegative one.
+    private final int[] electronegativityOrder;
+
+    // The element that gets the average of its states, -1 while integer states are searched.
+    private int freeElement = -1;
+    private int searchStates = 0;
+
+    private int[] bestStates = null;
+    private int bestFreeNumerator;
+    private int bestFreeElement;
+    // The number of states against the electronegativity, followed by the ranks of the states in electronegativity
+    // order. Costs are compared lexicographically.
+    private int[] bestCost = null;
+
+    private OxidationStateSolver(Composition composition) {
+        this.composition = composition;
+        this.elementsNumber = composition.getElementsNumber();
+        this.atomicNumbers = new int[elementsNumber];
+        this.counts = new int[elementsNumber];
+        this.charge = composition.getCharge();
+
+        for (int i = 0; i < elementsNumber; i++) {
+            atomicNumbers[i] = composition.getAtomicNumberAt(i);
+            counts[i] = composition.getCountAt(i);
+        }
+
+        electronegativityOrder = IntStream.range(0, elementsNumber).boxed()
+                .sorted(Comparator.comparingDouble(i -> -ElementTable.getElectronegativity(atomicNumbers[i])))
+                .mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @param composition The composition of the formula.
+     * @return the oxidation states of the elements of the composition, or the error if they can't be assigned.
+     */
+    public static OxidationStates solve(Composition composition) {
+        return new OxidationStateSolver(composition).solve();
+    }
+
+    private OxidationStates solve() {
+        // Elemental substances have state 0, monatomic ions share their charge between the atoms.
+        if (elementsNumber == 1) {
+            int divisor = gcd(Math.abs(charge), counts[0]);
+            return new OxidationStates(composition, new int[]{charge / divisor}, new int[]{counts[0] / divisor});
+        }
+
+        int[] masks = new int[elementsNumber];
+        for (int i = 0; i < elementsNumber; i++)
+            masks[i] = OxidationStateTable.getStateMask(atomicNumbers[i]);
+
+        search(masks.clone());
+
+        // Every element is tried as the one with the average state, the cheapest assignment wins. The less
+        // electronegative elements are tried first, so that ties give the average to the metals.
+        if (bestStates == null) {
+            for (int i = elementsNumber - 1; i >= 0; i--) {
+                freeElement = electronegativityOrder[i];
+                search(masks.clone());
+            }
+        }
+
+        if (bestStates == null)
+            return new OxidationStates(composition,
+                    "No oxidation states of the elements of " + composition + " balance its charge.");
+
+        int[] numerators = new int[elementsNumber];
+        int[] denominators = new int[elementsNumber];
+
+        for (int i = 0; i < elementsNumber; i++) {
+            if (i == bestFreeElement) {
+                int divisor = gcd(Math.abs(bestFreeNumerator), counts[i]);
+                numerators[i] = bestFreeNumerator / divisor;
+                denominators[i] = counts[i] / divisor;
+            } else {
+                numerators[i] = bestStates[i];
+                denominators[i] = 1;
+            }
+        }
+
+        return new OxidationStates(composition, numerators, denominators);
+    }
+
+    private void search(int[] masks) {
+        if (++searchStates > MAX_SEARCH_STATES || !propagate(masks))
+            return;
+
+        // The most electronegative element with more than one state left is branched on.
+        int branchElement = -1;
+        int[] lowerBound = new int[elementsNumber + 1];
+
+        for (int i = 0; i < elementsNumber; i++) {
+            int element = electronegativityOrder[i];
+            if (element == freeElement)
+                continue;
+
+            lowerBound[i + 1] = getMinRank(element, masks[element]);
+
+            if (branchElement == -1 && Integer.bitCount(masks[element]) > 1)
+                branchElement = element;
+        }
+
+        // Ties keep the assignment found first.
+        if (bestCost != null && Arrays.compare(lowerBound, bestCost) >= 0)
+            return;
+
+        if (branchElement == -1) {
+            evaluate(masks);
+            return;
+        }
+
+        // The most common states are tried first, so that ties keep them.
+        for (int state : OxidationStateTable.getStates(atomicNumbers[branchElement])) {
+            int bit = OxidationStateTable.toBit(state);
+            if ((masks[branchElement] & bit) == 0)
+                continue;
+
+            int[] branchMasks = masks.clone();
+            branchMasks[branchElement] = bit;
+            search(branchMasks);
+        }
+    }
+
+    /**
+     * This method removes the states that can't satisfy the charge of the formula, whatever the states of the other
+     * elements are, until nothing changes.
+     * @param masks The domains of the elements, pruned in place.
+     * @return false if a domain is left empty.
+     */
+    private boolean propagate(int[] masks) {
+        long[] lows = new long[elementsNumber];
+        long[] highs = new long[elementsNumber];
+        boolean changed = true;
+
+        while (changed) {
+            changed = false;
+
+            long lowSum = 0;
+            long highSum = 0;
+
+            for (int i = 0; i < elementsNumber; i++) {
+                int atomicNumber = atomicNumbers[i];
+
+                if (i == freeElement) {
+                    lows[i] = (long) counts[i] * OxidationStateTable.getMinState(atomicNumber);
+                    highs[i] = (long) counts[i] * OxidationStateTable.getMaxState(atomicNumber);
+                } else {
+                    lows[i] = (long) counts[i] * getMinState(masks[i]);
+                    highs[i] = (long) counts[i] * getMaxState(masks[i]);
+                }
+
+                lowSum += lows[i];
+                highSum += highs[i];
+            }
+
+            for (int i = 0; i < elementsNumber; i++) {
+                // The atoms of this element must hold what the other elements leave of the charge.
+                long minAmount = charge - (highSum - highs[i]);
+                long maxAmount = charge - (lowSum - lows[i]);
+
+                if (i == freeElement) {
+                    if (highs[i] < minAmount || lows[i] > maxAmount)
+                        return false;
+
+                    continue;
+                }
+
+                int mask = masks[i];
+                for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                    int bit = Integer.lowestOneBit(remaining);
+                    long amount = (long) counts[i] * getMinState(bit);
+
+                    if (amount < minAmount || amount > maxAmount)
+                        mask &= ~bit;
+                }
+
+                if (mask == 0)
+                    return false;
+
+                // The sums of the following elements are a bit loose until the next pass, which is still correct.
+                if (mask != masks[i]) {
+                    masks[i] = mask;
+                    changed = true;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void evaluate(int[] masks) {
+        int[] states = new int[elementsNumber];
+        int freeNumerator = charge;
+        int[] cost = new int[elementsNumber + 1];
+
+        for (int i = 0; i < elementsNumber; i++) {
+            int element = electronegativityOrder[i];
+            if (element == freeElement)
+                continue;
+
+            states[element] = getMinState(masks[element]);
+            freeNumerator -= counts[element] * states[element];
+            cost[i + 1] = OxidationStateTable.getRank(atomicNumbers[element], states[element]);
+        }
+
+        for (int i = 0; i < elementsNumber; i++) {
+            if (electronegativityOrder[i] != freeElement)
+                continue;
+
+            // The average is ranked as the most common of the two states around it. An average between a negative
+            // and a positive state (eg: H in C3H8) is only used when nothing else fits.
+            int atomicNumber = atomicNumbers[freeElement];
+            int[] brackets = getAverageBrackets(freeElement, freeNumerator);
+
+            cost[i + 1] = Math.min(OxidationStateTable.getRank(atomicNumber, brackets[0]),
+                                   OxidationStateTable.getRank(atomicNumber, brackets[1]));
+            if (brackets[0] < 0 && brackets[1] > 0)
+                cost[0]++;
+        }
+
+        for (int i = 0; i < elementsNumber; i++) {
+            for (int j = i + 1; j < elementsNumber; j++) {
+                double iElectronegativity = ElementTable.getElectronegativity(atomicNumbers[i]);
+                double jElectronegativity = ElementTable.getElectronegativity(atomicNumbers[j]);
+                double electronegativityDifference = iElectronegativity - jElectronegativity;
+
+                // The electronegativity of the noble gases is not known.
+                if (iElectronegativity <= 0 || jElectronegativity <= 0 ||
+                    Math.abs(electronegativityDifference) < ELECTRONEGATIVITY_MARGIN)
+                    continue;
+
+                // Only the signs matter, the denominators are positive.
+                int iSign = Integer.signum(i == freeElement ? freeNumerator : states[i]);
+                int jSign = Integer.signum(j == freeElement ? freeNumerator : states[j]);
+
+                if (electronegativityDifference > 0 ? iSign > 0 && jSign < 0 : jSign > 0 && iSign < 0)
+                    cost[0]++;
+            }
+        }
+
+        if (bestCost == null || Arrays.compare(cost, bestCost) < 0) {
+            bestCost = cost;
+            bestStates = states;
+            bestFreeElement = freeElement;
+            bestFreeNumerator = freeNumerator;
+        }
+    }
+
+    /**
+     * @param element The element.
+     * @param mask The remaining states of the element.
+     * @return the rank of the most common state left.
+     */
+    private int getMinRank(int element, int mask) {
+        int[] states = OxidationStateTable.getStates(atomicNumbers[element]);
+
+        for (int i = 0; i < states.length; i++) {
+            if ((mask & OxidationStateTable.toBit(states[i])) != 0)
+                return i;
+        }
+
+        return states.length;
+    }
+
+    /**
+     * @param element The element whose atoms have different states.
+     * @param numerator The sum of the states of its atoms.
+     * @return the highest state below the average and the lowest state above it.
+     */
+    private int[] getAverageBrackets(int element, int numerator) {
+        int atomicNumber = atomicNumbers[element];
+        int lower = Integer.MIN_VALUE;
+        int upper = Integer.MAX_VALUE;
+
+        for (int state : OxidationStateTable.getStates(atomicNumber)) {
+            long amount = (long) state * counts[element];
+
+            if (amount <= numerator && state > lower)
+                lower = state;
+            if (amount >= numerator && state < upper)
+                upper = state;
+        }
+
+        return new int[]{lower, upper};
+    }
+
+    private static int getMinState(int mask) {
+        return Integer.numberOfTrailingZeros(mask) + OxidationStateTable.MIN_STATE;
+    }
+
+    private static int getMaxState(int mask) {
+        return 31 - Integer.numberOfLeadingZeros(mask) + OxidationStateTable.MIN_STATE;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+
+        return a;
+    }
+
+    private static void solveRange(List<Composition> compositions, int from, int to, OxidationStates[] results,
+                                   ConcurrentHashMap<Composition, OxidationStates> solved) {
+        for (int i = from; i < to; i++)
+            results[i] = solved.computeIfAbsent(compositions.get(i), OxidationStateSolver::solve);
+    }
+
+    /**
+     * This method assigns the oxidation states of a whole list of compositions, using the common fork-join pool.
+     * @param compositions The compositions.
+     * @return the oxidation states, one for every composition of the list.
+     */
+    public static OxidationStates[] solve(List<Composition> compositions) {
+        return solve(compositions, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Equal compositions inside the list are solved only once.
+     * @param compositions The compositions, the list must support fast random access.
+     * @param pool The pool the list is split on.
+     * @return the oxidation states, one for every composition of the list.
+     */
+    public static OxidationStates[] solve(List<Composition> compositions, ForkJoinPool pool) {
+        OxidationStates[] results = new OxidationStates[compositions.size()];
+        ConcurrentHashMap<Composition, OxidationStates> solved = new ConcurrentHashMap<>();
+
+        if (results.length <= TASK_COMPOSITIONS_THRESHOLD)
+            solveRange(compositions, 0, results.length, results, solved);
+        else
+            pool.invoke(new SolveTask(compositions, 0, results.length, results, solved));
+
+        return results;
+    }
+
+    private static final class SolveTask extends RecursiveAction {
+        private final List<Composition> compositions;
+        private final int from;
+        private final int to;
+        private final OxidationStates[] results;
+        private final ConcurrentHashMap<Composition, OxidationStates> solved;
+
+        SolveTask(List<Composition> compositions, int from, int to, OxidationStates[] results,
+                  ConcurrentHashMap<Composition, OxidationStates> solved) {
+            this.compositions = compositions;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+            this.solved = solved;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TASK_COMPOSITIONS_THRESHOLD) {
+                solveRange(compositions, from, to, results, solved);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new SolveTask(compositions, from, middle, results, solved),
+                    new SolveTask(compositions, middle, to, results, solved));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.oxidation;
+
+import com.enrico.chemistry.atoms.ElementTable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class holds the oxidation states that every element can have, loaded once from a resource.
+ *
+ * The states of an element are kept both as a list, ordered from the most common one, and as a bit mask (bit i set if
+ * the state MIN_STATE + i is allowed), so that the solver can prune and copy whole domains with a single int.
+ */
+public final class OxidationStateTable {
+    public static final String STATES_RESOURCE = "elements/oxidation_states.csv";
+
+    public static final int MIN_STATE = -4;
+    public static final int MAX_STATE = 8;
+
+    private static final int STATES_COLUMNS = 3;
+
+    private static final int[][] states = new int[ElementTable.ELEMENTS_NUMBER + 1][];
+    private static final int[] stateMasks = new int[ElementTable.ELEMENTS_NUMBER + 1];
+
+    static {
+        try (InputStream stream = OxidationStateTable.class.getClassLoader().getResourceAsStream(STATES_RESOURCE)) {
+            if (stream == null)
+                throw new IllegalStateException("Oxidation state table " + STATES_RESOURCE + " not found.");
+
+            loadStates(new BufferedReader(new InputStreamReader(stream, StandardCharsets.US_ASCII)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't read the oxidation state table: " + e.getMessage(), e);
+        }
+    }
+
+    private OxidationStateTable() {
+    }
+
+    private static void loadStates(BufferedReader reader) throws IOException {
+        String line;
+        int lineNumber = 0;
+        int elementsLoaded = 0;
+        boolean headerFound = false;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+
+            // The first line that is not a comment holds the names of the columns.
+            if (!headerFound) {
+                headerFound = true;
+                continue;
+            }
+
+            String[] columns = line.split(",", -1);
+            if (columns.length != STATES_COLUMNS)
+                throw new IllegalStateException("Oxidation state table, line " + lineNumber + ": expected " +
+                                                STATES_COLUMNS + " columns, found " + columns.length + ".");
+
+            try {
+                int atomicNumber = Integer.parseInt(columns[0]);
+                if (!ElementTable.isElement(atomicNumber) || states[atomicNumber] != null ||
+                    !columns[1].equals(ElementTable.getSymbol(atomicNumber)))
+                    throw new IllegalStateException("Oxidation state table, line " + lineNumber +
+                                                    ": invalid element " + columns[0] + " " + columns[1] + ".");
+
+                String[] stateTexts = columns[2].trim().split(" +");
+                int[] elementStates = new int[stateTexts.length];
+                int mask = 0;
+
+                for (int i = 0; i < stateTexts.length; i++) {
+                    // Integer.parseInt() accepts the leading plus sign.
+                    int state = Integer.parseInt(stateTexts[i]);
+                    if (state < MIN_STATE || state > MAX_STATE || (mask & toBit(state)) != 0)
+                        throw new IllegalStateException("Oxidation state table, line " + lineNumber +
+                                                        ": invalid oxidation state " + stateTexts[i] + ".");
+
+                    elementStates[i] = state;
+                    mask |= toBit(state);
+                }
+
+                states[atomicNumber] = elementStates;
+                stateMasks[atomicNumber] = mask;
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException is an IllegalArgumentException too.
+                throw new IllegalStateException("Oxidation state table, line " + lineNumber + ": " + e.getMessage(),
+                                                e);
+            }
+
+            elementsLoaded++;
+        }
+
+        if (elementsLoaded != ElementTable.ELEMENTS_NUMBER)
+            throw new IllegalStateException("Oxidation state table: expected " + ElementTable.ELEMENTS_NUMBER +
+                                            " elements, found " + elementsLoaded + ".");
+    }
+
+    /**
+     * @param state An oxidation state between MIN_STATE and MAX_STATE.
+     * @return the bit of the state inside the masks of this table.
+     */
+    public static int toBit(int state) {
+        return 1 << (state - MIN_STATE);
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @return a copy of the oxidation states of the element, from the most common one.
+     */
+    public static int[] getStates(int atomicNumber) {
+        return states[atomicNumber].clone();
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @return the mask of the oxidation states of the element, see toBit().
+     */
+    public static int getStateMask(int atomicNumber) {
+        return stateMasks[atomicNumber];
+    }
+
+    public static boolean isAllowed(int atomicNumber, int state) {
+        return state >= MIN_STATE && state <= MAX_STATE && (stateMasks[atomicNumber] & toBit(state)) != 0;
+    }
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @param state The oxidation state.
+     * @return the position of the state inside the states of the element (0 for the most common one), or -1 if the
+     * element can't have that state.
+     */
+    public static int getRank(int atomicNumber, int state) {
+        int[] elementStates = states[atomicNumber];
+
+        for (int i = 0; i < elementStates.length; i++) {
+            if (elementStates[i] == state)
+                return i;
+        }
+
+        return -1;
+    }
+
+    public static int getMinState(int atomicNumber) {
+        return Integer.numberOfTrailingZeros(stateMasks[atomicNumber]) + MIN_STATE;
+    }
+
+    public static int getMaxState(int atomicNumber) {
+        return 31 - Integer.numberOfLeadingZeros(stateMasks[atomicNumber]) + MIN_STATE;
+    }
+}
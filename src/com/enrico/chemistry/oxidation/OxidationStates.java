@@ -0,0 +1,127 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.oxidation;
+
+import com.enrico.chemistry.Composition;
+import com.enrico.chemistry.atoms.ElementTable;
+
+/**
+ * This class holds the oxidation states assigned to the elements of a composition, in the same order as the elements
+ * of the composition.
+ *
+ * Every atom of an element gets the same state. When the atoms of an element have different states (eg: Fe3O4 holds
+ * both Fe(+2) and Fe(+3)) their average is stored instead, as a fraction.
+ */
+public final class OxidationStates {
+    private final Composition composition;
+    private final int[] numerators;
+    private final int[] denominators;
+    private final String error;
+
+    /**
+     * @param composition The composition.
+     * @param numerators The numerators of the states, one for every element of the composition.
+     * @param denominators The denominators of the states, already reduced and positive.
+     */
+    OxidationStates(Composition composition, int[] numerators, int[] denominators) {
+        this.composition = composition;
+        this.numerators = numerators;
+        this.denominators = denominators;
+        this.error = null;
+    }
+
+    /**
+     * @param composition The composition.
+     * @param error The reason why no state could be assigned.
+     */
+    OxidationStates(Composition composition, String error) {
+        this.composition = composition;
+        this.numerators = null;
+        this.denominators = null;
+        this.error = error;
+    }
+
+    public Composition getComposition() {
+        return composition;
+    }
+
+    public boolean isSolved() {
+        return error == null;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public int getElementsNumber() {
+        return composition.getElementsNumber();
+    }
+
+    public int getAtomicNumberAt(int position) {
+        return composition.getAtomicNumberAt(position);
+    }
+
+    /**
+     * @param position The position of the element inside the composition.
+     * @return the oxidation state of the element, that is not an integer if it's the average of different states.
+     */
+    public double getStateAt(int position) {
+        return (double) numerators[position] / denominators[position];
+    }
+
+    /**
+     * @param position The position of the element inside the composition.
+     * @return true if the state of the element is the average of different states.
+     */
+    public boolean isAverageAt(int position) {
+        return denominators[position] != 1;
+    }
+
+    /**
+     * @param position The position of the element inside the composition.
+     * @return the state of the element with its sign, eg: "+3", "-2", "0" or "+8/3".
+     */
+    public String getStateStringAt(int position) {
+        int numerator = numerators[position];
+        String state = numerator > 0 ? "+" + numerator : String.valueOf(numerator);
+
+        return isAverageAt(position) ? state + "/" + denominators[position] : state;
+    }
+
+    /**
+     * @return the states of all the elements, eg: "Fe: +3, O: -2", or the error if they couldn't be assigned.
+     */
+    @Override
+    public String toString() {
+        if (!isSolved())
+            return error;
+
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < getElementsNumber(); i++) {
+            if (i > 0)
+                builder.append(", ");
+
+            builder.append(ElementTable.getSymbol(getAtomicNumberAt(i))).append(": ").append(getStateStringAt(i));
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.periodictrends;
+
+import com.enrico.chemistry.atoms.ElementTable;
+
+/**
+ * This enum lists the numeric properties of the elements that can be queried for periodic trends.
+ */
+public enum ElementProperty {
+    AtomicMass {
+        @Override
+        public double getValue(int atomicNumber) {
+            return ElementTable.getAtomicMass(atomicNumber);
+        }
+
+        @Override
+        public String toString() {
+            return "Atomic mass (u)";
+        }
+    },
+    Electronegativity {
+        @Override
+        public double getValue(int atomicNumber) {
+            return ElementTable.getElectronegativity(atomicNumber);
+        }
+
+        @Override
+        public boolean isKnown(int atomicNumber) {
+            return getValue(atomicNumber) != 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Electronegativity";
+        }
+    },
+    IonizationEnergy {
+        @Override
+        public double getValue(int atomicNumber) {
+            return ElementTable.getIonizationEnergy(atomicNumber);
+        }
+
+        @Override
+        public boolean isKnown(int atomicNumber) {
+            return getValue(atomicNumber) != 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Ionization energy (kJ/mol)";
+        }
+    },
+    BondElectrons {
+        @Override
+        public double getValue(int atomicNumber) {
+            return ElementTable.getBondElectronsNumber(atomicNumber);
+        }
+
+        @Override
+        public String toString() {
+            return "Bonding electrons";
+        }
+    },
+    Doublets {
+        @Override
+        public double getValue(int atomicNumber) {
+            return ElementTable.getDoublets(atomicNumber);
+        }
+
+        @Override
+        public String toString() {
+            return "Doublets";
+        }
+    };
+
+    /**
+     * @param atomicNumber The atomic number of the element.
+     * @return the value of the property for the element.
+     */
+    public abstract double getValue(int atomicNumber);
+
+    /**
+     * Some properties are not known for all of the elements (eg: the electronegativity of the noble gasses), the
+     * catalogue stores 0 for them.
+     * @param atomicNumber The atomic number of the element.
+     * @return true if the value of the property is known for the element.
+     */
+    public boolean isKnown(int atomicNumber) {
+        return true;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.periodictrends;
+
+import com.enrico.chemistry.atoms.ElementTable;
+
+import java.util.Arrays;
+
+/**
+ * This class is a column of a single element property, sorted by value.
+ *
+ * The values and the atomic numbers are kept in two parallel primitive arrays, sorted by value (and by atomic number
+ * for equal values), so range and nearest value queries are binary searches over a double array. Only the elements
+ * whose value is known are inside the column. Columns are immutable and they can be shared between threads.
+ */
+public final class ElementPropertyColumn {
+    private final ElementProperty property;
+
+    private final double[] values;
+    private final int[] atomicNumbers;
+
+    ElementPropertyColumn(ElementProperty property) {
+        this.property = property;
+
+        int knownElements = 0;
+        for (int atomicNumber = 1; atomicNumber <= ElementTable.ELEMENTS_NUMBER; atomicNumber++)
+            if (property.isKnown(atomicNumber))
+                knownElements++;
+
+        values = new double[knownElements];
+        atomicNumbers = new int[knownElements];
+
+        // The elements are inserted in order of atomic number, so an insertion sort on the value keeps equal values
+        // ordered by atomic number. There are only a few elements and the column is built once.
+        int size = 0;
+        for (int atomicNumber = 1; atomicNumber <= ElementTable.ELEMENTS_NUMBER; atomicNumber++) {
+            if (!property.isKnown(atomicNumber))
+                continue;
+
+            double value = property.getValue(atomicNumber);
+            int index = size++;
+
+            while (index > 0 && values[index - 1] > value) {
+                values[index] = values[index - 1];
+                atomicNumbers[index] = atomicNumbers[index - 1];
+                index--;
+            }
+
+            values[index] = value;
+            atomicNumbers[index] = atomicNumber;
+        }
+    }
+
+    public ElementProperty getProperty() {
+        return property;
+    }
+
+    /**
+     * @return the number of elements inside the column.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    public double getValueAt(int index) {
+        return values[index];
+    }
+
+    public int getAtomicNumberAt(int index) {
+        return atomicNumbers[index];
+    }
+
+    public double getMinimum() {
+        return values.length == 0 ? Double.NaN : values[0];
+    }
+
+    public double getMaximum() {
+        return values.length == 0 ? Double.NaN : values[values.length - 1];
+    }
+
+    // Returns the index of the first value that is greater or equal than the value.
+    private int lowerBound(double value) {
+        int low = 0;
+        int high = values.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < value)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+
+        return low;
+    }
+
+    // Returns the index of the first value that is greater than the value.
+    private int upperBound(double value) {
+        int low = 0;
+        int high = values.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] <= value)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+
+        return low;
+    }
+
+    /**
+     * This method finds all of the elements whose value is inside a range, bounds included.
+     * @param minimum The minimum value.
+     * @param maximum The maximum value.
+     * @return the atomic numbers of the elements, sorted by value. The array is empty if no element is found.
+     */
+    public int[] findInRange(double minimum, double maximum) {
+        if (Double.isNaN(minimum) || Double.isNaN(maximum) || minimum > maximum)
+            return new int[0];
+
+        return Arrays.copyOfRange(atomicNumbers, lowerBound(minimum), upperBound(maximum));
+    }
+
+    /**
+     * @param value The value to look for.
+     * @return the atomic number of the element whose value is the closest one, or 0 if the column is empty. When two
+     * elements are equally close, the one with the lower value is returned.
+     */
+    public int findNearest(double value) {
+        int[] nearest = findNearest(value, 1);
+        return nearest.length == 0 ? 0 : nearest[0];
+    }
+
+    /**
+     * This method finds the elements whose values are the closest ones to a value.
+     * @param value The value to look for.
+     * @param count The number of elements to find.
+     * @return the atomic numbers of the elements, sorted from the closest one. The array holds less than count
+     * elements if the column is smaller.
+     */
+    public int[] findNearest(double value, int count) {
+        if (Double.isNaN(value) || count <= 0)
+            return new int[0];
+
+        int[] nearest = new int[Math.min(count, values.length)];
+
+        // The closest values are around the insertion point, they are merged by moving outwards from it.
+        int right = lowerBound(value);
+        int left = right - 1;
+
+        for (int i = 0; i < nearest.length; i++) {
+            if (right >= values.length || (left >= 0 && value - values[left] <= values[right] - value))
+                nearest[i] = atomicNumbers[left--];
+            else
+                nearest[i] = atomicNumbers[right++];
+        }
+
+        return nearest;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.periodictrends;
+
+import java.util.EnumMap;
+
+/**
+ * This class answers periodic trend queries (eg: "all elements with electronegativity between 1.8 and 2.2" or "the
+ * element whose ionization energy is closest to 1000 kJ/mol") over the properties of the elements.
+ *
+ * A sorted column is built once for every property when the class is loaded.
+ */
+public final class ElementPropertyStore {
+    private static final EnumMap<ElementProperty, ElementPropertyColumn> columns = new EnumMap<>(ElementProperty.class);
+
+    static {
+        for (ElementProperty property : ElementProperty.values())
+            columns.put(property, new ElementPropertyColumn(property));
+    }
+
+    private ElementPropertyStore() {
+    }
+
+    public static ElementPropertyColumn getColumn(ElementProperty property) {
+        return columns.get(property);
+    }
+
+    /**
+     * @param property The property to query.
+     * @param minimum The minimum value, included.
+     * @param maximum The maximum value, included.
+     * @return the atomic numbers of the elements whose value is inside the range, sorted by value.
+     */
+    public static int[] findInRange(ElementProperty property, double minimum, double maximum) {
+        return getColumn(property).findInRange(minimum, maximum);
+    }
+
+    /**
+     * @param property The property to query.
+     * @param value The value to look for.
+     * @return the atomic number of the element whose value is the closest one, or 0 if no value is known.
+     */
+    public static int findNearest(ElementProperty property, double value) {
+        return getColumn(property).findNearest(value);
+    }
+
+    /**
+     * @param property The property to query.
+     * @param value The value to look for.
+     * @param count The number of elements to find.
+     * @return the atomic numbers of the elements whose values are the closest ones, sorted from the closest one.
+     */
+    public static int[] findNearest(ElementProperty property, double value, int count) {
+        return getColumn(property).findNearest(value, count);
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.solvedformula;
+
+import com.enrico.chemistry.Composition;
+import com.enrico.chemistry.atoms.scientific.GenericScientificAtom;
+import com.enrico.chemistry.formulaparser.FormulaParser;
+import com.enrico.chemistry.formulaparser.ParseResult;
+import com.enrico.chemistry.lewis.LewisStructure;
+import com.enrico.chemistry.lewis.LewisStructureGenerator;
+import com.enrico.chemistry.molecule.Molecule;
+import com.enrico.chemistry.molecule.MoleculeAnalysis;
+import com.enrico.chemistry.molecule.exceptions.IllegalMoleculeException;
+
+/**
+ * This class holds everything that can be found out from a formula: the parsed atoms and the analysis of the molecule,
+ * with its shape and its compound type.
+ *
+ * Every member is computed only once, inside the constructor, so a SolvedFormula can be shared between threads and
+ * windows without any locking. When something can't be found out (eg: the shape of a molecule that is not supported)
+ * the error message is stored instead of the result.
+ * The molecule is solved without recording its explanation, which is only built the first time it is asked for.
+ */
+public final class SolvedFormula {
+    private final String formula;
+    private final Composition composition;
+    private final String canonicalFormula;
+
+    private final GenericScientificAtom[] atoms;
+    private final MoleculeAnalysis analysis;
+    private final ParseResult parseResult;
+
+    private final Molecule.ShapeEnum moleculeShape;
+    private final String shapeError;
+    // Built on demand, see getOperationString().
+    private volatile String operationString;
+
+    private final Molecule.CompoundType compoundType;
+    private final String compoundTypeError;
+    private final int elementsNum;
+
+    // Built on demand and shared by the formulas with the same composition, see getLewisStructure().
+    private final LewisStructureSearch lewisStructureSearch;
+
+    /**
+     * @param formula The formula.
+     * @param parseResult The syntax error found inside the formula.
+     */
+    SolvedFormula(String formula, ParseResult parseResult) {
+        this.formula = formula;
+        this.composition = null;
+        this.canonicalFormula = null;
+        this.atoms = null;
+        this.analysis = null;
+        this.parseResult = parseResult;
+
+        moleculeShape = null;
+        shapeError = parseResult.getMessage();
+        operationString = "";
+
+        compoundType = null;
+        compoundTypeError = parseResult.getMessage();
+        elementsNum = 0;
+        lewisStructureSearch = LewisStructureSearch.NONE;
+    }
+
+    /**
+     * @param parser The parser of the formula, already scanned without errors.
+     * @param composition The composition of the formula.
+     */
+    SolvedFormula(FormulaParser parser, Composition composition) {
+        this.formula = parser.getFormula();
+        this.composition = composition;
+        this.canonicalFormula = composition.toString();
+
+        // Nothing is thrown here: the molecule is validated before being built and solved.
+        GenericScientificAtom[] parsedAtoms = parser.getAtoms();
+        ParseResult moleculeResult = Molecule.validate(parsedAtoms, formula);
+        MoleculeAnalysis moleculeAnalysis = moleculeResult.isValid() ?
+                new Molecule(parsedAtoms, formula, false, composition.getCharge()).analyze() : null;
+
+        atoms = parsedAtoms;
+        analysis = moleculeAnalysis;
+        parseResult = moleculeResult;
+        lewisStructureSearch = new LewisStructureSearch();
+
+        if (moleculeAnalysis != null) {
+            moleculeShape = moleculeAnalysis.getMoleculeShape();
+            shapeError = moleculeAnalysis.getShapeError();
+            operationString = null;
+
+            compoundType = moleculeAnalysis.getCompoundType();
+            compoundTypeError = moleculeAnalysis.getCompoundTypeError();
+            elementsNum = moleculeAnalysis.getElementsNum();
+        } else {
+            moleculeShape = null;
+            shapeError = moleculeResult.getMessage();
+            operationString = "";
+
+            compoundType = null;
+            compoundTypeError = moleculeResult.getMessage();
+            elementsNum = 0;
+        }
+    }
+
+    /**
+     * This constructor gives an already solved formula to another formula with the same composition (eg: "F4Xe" for
+     * "XeF4"). Everything that only depends on the composition is shared, while the messages, which quote the formula,
+     * are built again for the new one.
+     * @param solvedFormula The solved formula with the same composition.
+     * @param formula The new formula.
+     */
+    SolvedFormula(SolvedFormula solvedFormula, String formula) {
+        this.formula = formula;
+        this.composition = solvedFormula.composition;
+        this.canonicalFormula = solvedFormula.canonicalFormula;
+        this.atoms = solvedFormula.atoms;
+        this.analysis = solvedFormula.analysis;
+        this.parseResult = solvedFormula.parseResult.isValid() ? solvedFormula.parseResult :
+                Molecule.validate(atoms, formula);
+
+        // The shape and the compound type are only missing when the molecule is invalid or not supported, which are
+        // both reported with the message of an invalid molecule.
+        String moleculeError = parseResult.isValid() ? IllegalMoleculeException.createMessage(formula) :
+                parseResult.getMessage();
+
+        moleculeShape = solvedFormula.moleculeShape;
+        shapeError = moleculeShape != null ? null : moleculeError;
+        // Neither the explanation nor the Lewis structure quote the formula, the structure is only searched once.
+        operationString = solvedFormula.operationString;
+
+        compoundType = solvedFormula.compoundType;
+        compoundTypeError = compoundType != null ? null : moleculeError;
+        elementsNum = solvedFormula.elementsNum;
+        lewisStructureSearch = solvedFormula.lewisStructureSearch;
+    }
+
+    public String getFormula() {
+        return formula;
+    }
+
+    public String getCanonicalFormula() {
+        return canonicalFormula;
+    }
+
+    /**
+     * @return the composition of the formula, or null if the formula contains syntax errors.
+     */
+    public Composition getComposition() {
+        return composition;
+    }
+
+    /**
+     * @return a copy of the atoms of the formula, or null if the formula contains syntax errors.
+     */
+    public GenericScientificAtom[] getAtoms() {
+        return atoms != null ? atoms.clone() : null;
+    }
+
+    /**
+     * @return the immutable analysis of the molecule of the formula, or null if the formula couldn't be parsed. The
+     * analysis is shared by the formulas with the same composition, so its formula and its messages are the ones of
+     * the first formula solved: use the ones of this class instead.
+     */
+    public MoleculeAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    public boolean isParsed() {
+        return analysis != null;
+    }
+
+    public String getParseError() {
+        return parseResult.isValid() ? null : parseResult.getMessage();
+    }
+
+    /**
+     * @return the result of the validation of the formula and of its molecule.
+     */
+    public ParseResult getParseResult() {
+        return parseResult;
+    }
+
+    public boolean isShapeSolved() {
+        return moleculeShape != null;
+    }
+
+    public Molecule.ShapeEnum getMoleculeShape() {
+        return moleculeShape;
+    }
+
+    public String getShapeError() {
+        return shapeError;
+    }
+
+    /**
+     * This method returns the explanation of the steps done to solve the molecule. The first call solves the molecule
+     * again while recording its steps, so formulas that are never explained (eg: when a whole file is solved) don't
+     * pay for it.
+     * @return the explanation of the molecule, or an empty string if the formula couldn't be parsed.
+     */
+    public String getOperationString() {
+        String explanation = operationString;
+
+        if (explanation == null) {
+            // Two threads could build the explanation at the same time, they build the same string.
+            Molecule explainedMolecule = new Molecule(atoms, formula, true, composition.getCharge());
+            explainedMolecule.tryCalculateShape();
+
+            explanation = explainedMolecule.getOperationString();
+            operationString = explanation;
+        }
+
+        return explanation;
+    }
+
+    /**
+     * This method returns the best Lewis structure of the formula. The first call searches the structure, which can
+     * take a while for big molecules, so it should be done by a worker thread: the following calls return the same
+     * structure at once.
+     * The structure only depends on the composition, so it is shared with the other formulas with the same one.
+     * @return the Lewis structure, or null if the formula couldn't be parsed or no structure was found.
+     */
+    public LewisStructure getLewisStructure() {
+        return lewisStructureSearch.get(formula);
+    }
+
+    public boolean isCompoundTypeSolved() {
+        return compoundType != null;
+    }
+
+    public Molecule.CompoundType getCompoundType() {
+        return compoundType;
+    }
+
+    public String getCompoundTypeError() {
+        return compoundTypeError;
+    }
+
+    public int getElementsNum() {
+        return elementsNum;
+    }
+
+    /*
+     * The Lewis structure of a composition, searched the first time it is asked for by any of its formulas.
+     */
+    private static final class LewisStructureSearch {
+        // The search of a formula with a syntax error, which finds nothing.
+        static final LewisStructureSearch NONE = new LewisStructureSearch(true);
+
+        // The structure is written before the flag.
+        private volatile LewisStructure structure = null;
+        private volatile boolean searched;
+
+        LewisStructureSearch() {
+            this(false);
+        }
+
+        private LewisStructureSearch(boolean searched) {
+            this.searched = searched;
+        }
+
+        LewisStructure get(String formula) {
+            if (!searched) {
+                // Two threads could search the structure at the same time, they find the same one.
+                LewisStructureGenerator generator = new LewisStructureGenerator(new FormulaParser(formula));
+                structure = generator.tryGenerate().isValid() ? generator.getStructure() : null;
+                searched = true;
+            }
+
+            return structure;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.chemistry.solvedformula;
+
+import com.enrico.chemistry.Composition;
+import com.enrico.chemistry.formulaparser.FormulaParser;
+import com.enrico.chemistry.formulaparser.ParseResult;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class is a size bounded cache of solved formulas, shared by all of the problem windows.
+ *
+ * Formulas are keyed by their composition, so "C,O2", "O2,C" and "CO2" are solved only once: a formula found in the
+ * cache under another way of writing it gets a copy whose messages quote the formula asked for. When the cache is
+ * full, the least recently used formula is evicted.
+ * The cache is thread safe: lookups are done under a lock, while formulas are solved outside of it so that a slow
+ * solve never blocks other threads.
+ */
+public final class SolvedFormulaCache {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // The cache used by the problem windows.
+    public static final SolvedFormulaCache SHARED_CACHE = new SolvedFormulaCache(DEFAULT_CAPACITY);
+
+    private final int capacity;
+    private final LinkedHashMap<Composition, SolvedFormula> solvedFormulas;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public SolvedFormulaCache(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The capacity of the cache must be positive.");
+
+        this.capacity = capacity;
+
+        // Access ordered map, the eldest entry is the least recently used one.
+        solvedFormulas = new LinkedHashMap<Composition, SolvedFormula>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Composition, SolvedFormula> eldest) {
+                if (size() > SolvedFormulaCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * This method returns the solution of a formula, solving it only if it is not already cached.
+     * @param formula The formula to solve.
+     * @return the solved formula.
+     *
+     * @throws IllegalArgumentException if the formula can't be parsed.
+     */
+    public SolvedFormula solve(String formula) throws IllegalArgumentException {
+        SolvedFormula solvedFormula = trySolve(formula);
+        solvedFormula.getParseResult().throwIfSyntaxError();
+
+        return solvedFormula;
+    }
+
+    /**
+     * This method returns the solution of a formula without throwing any exception. Formulas with syntax errors are
+     * never cached, their solution only holds the error found.
+     * @param formula The formula to solve.
+     * @return the solved formula.
+     */
+    public SolvedFormula trySolve(String formula) {
+        FormulaParser parser = new FormulaParser(formula);
+
+        ParseResult parseResult = parser.validate();
+        if (!parseResult.isValid())
+            return new SolvedFormula(formula, parseResult);
+
+        Composition composition = parser.getComposition();
+
+        synchronized (this) {
+            SolvedFormula solvedFormula = solvedFormulas.get(composition);
+            if (solvedFormula != null) {
+                hits++;
+                return withFormula(solvedFormula, formula);
+            }
+
+            misses++;
+        }
+
+        SolvedFormula solvedFormula = new SolvedFormula(parser, composition);
+
+        synchronized (this) {
+            // Another thread could have solved the same formula in the meantime, the first one wins.
+            SolvedFormula alreadySolved = solvedFormulas.putIfAbsent(composition, solvedFormula);
+            return alreadySolved != null ? withFormula(alreadySolved, formula) : solvedFormula;
+        }
+    }
+
+    private static SolvedFormula withFormula(SolvedFormula solvedFormula, String formula) {
+        return solvedFormula.getFormula().equals(formula) ? solvedFormula : new SolvedFormula(solvedFormula, formula);
+    }
+
+    public synchronized void clear() {
+        solvedFormulas.clear();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return solvedFormulas.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.drawing;
+
+import com.enrico.chemistry.atoms.ElementTable;
+import com.enrico.chemistry.lewis.LewisStructure;
+import com.enrico.chemistry.lewis.LewisStructureLayout;
+import com.enrico.chemistry.molecule.MolecularGraph;
+
+import java.awt.*;
+
+/**
+ * This class draws Lewis structures placed by a LewisStructureLayout, it is shared by all of the canvases that show
+ * them.
+ */
+public final class LewisStructurePainter {
+    // The distance between the atoms, to be given to the layout.
+    public static final int BOND_LENGTH = 40;
+
+    // Space left around the symbols of the atoms.
+    public static final int SYMBOL_RADIUS = 9;
+    private static final int BOND_SPACING = 4;
+    private static final int LONE_PAIR_DISTANCE = 11;
+    private static final int DOT_SIZE = 3;
+
+    private LewisStructurePainter() {
+    }
+
+    /**
+     * This method draws a Lewis structure, with a line for every electron pair of the bonds, two dots for every lone
+     * pair and the formal charges next to the atoms.
+     * @param g The graphics to draw on.
+     * @param layout The position of the atoms of the structure.
+     */
+    public static void paint(Graphics g, LewisStructureLayout layout) {
+        LewisStructure lewisStructure = layout.getStructure();
+        MolecularGraph graph = lewisStructure.getGraph();
+        FontMetrics metrics = g.getFontMetrics();
+
+        // Bonds, with a parallel line for every electron pair.
+        for (int atom = 0; atom < graph.getAtomsNumber(); atom++) {
+            for (int entry = graph.getBondsStart(atom); entry < graph.getBondsEnd(atom); entry++) {
+                int neighbour = graph.getNeighbour(entry);
+                if (neighbour < atom)
+                    continue;
+
+                double dx = layout.getX(neighbour) - layout.getX(atom);
+                double dy = layout.getY(neighbour) - layout.getY(atom);
+                double length = Math.hypot(dx, dy);
+                if (length <= 2 * SYMBOL_RADIUS)
+                    continue;
+
+                double ux = dx / length;
+                double uy = dy / length;
+                int bondOrder = graph.getEntryBondOrder(entry);
+
+                for (int line = 0; line < bondOrder; line++) {
+                    double offset = (line - (bondOrder - 1) / 2.0) * BOND_SPACING;
+
+                    g.drawLine((int) Math.round(layout.getX(atom) + ux * SYMBOL_RADIUS - uy * offset),
+                            (int) Math.round(layout.getY(atom) + uy * SYMBOL_RADIUS + ux * offset),
+                            (int) Math.round(layout.getX(neighbour) - ux * SYMBOL_RADIUS - uy * offset),
+                            (int) Math.round(layout.getY(neighbour) - uy * SYMBOL_RADIUS + ux * offset));
+                }
+            }
+        }
+
+        for (int atom = 0; atom < graph.getAtomsNumber(); atom++) {
+            int x = layout.getX(atom);
+            int y = layout.getY(atom);
+            String symbol = ElementTable.getSymbol(graph.getElement(atom));
+
+            g.drawString(symbol, x - metrics.stringWidth(symbol) / 2, y + metrics.getAscent() / 2 - 1);
+
+            // Lone pairs, two dots side by side.
+            for (double angle : layout.getLonePairAngles(atom)) {
+                double ux = Math.cos(angle);
+                double uy = -Math.sin(angle);
+                int pairX = x + (int) Math.round(ux * LONE_PAIR_DISTANCE);
+                int pairY = y + (int) Math.round(uy * LONE_PAIR_DISTANCE);
+
+                for (int side = -1; side <= 1; side += 2) {
+                    int dotX = pairX + (int) Math.round(-uy * side * DOT_SIZE);
+                    int dotY = pairY + (int) Math.round(ux * side * DOT_SIZE);
+                    g.fillOval(dotX - DOT_SIZE / 2, dotY - DOT_SIZE / 2, DOT_SIZE, DOT_SIZE);
+                }
+            }
+
+            int formalCharge = lewisStructure.getFormalCharge(atom);
+            if (formalCharge != 0) {
+                String charge = (Math.abs(formalCharge) > 1 ? Integer.toString(Math.abs(formalCharge)) : "") +
+                        (formalCharge > 0 ? "+" : "-");
+                g.drawString(charge, x + SYMBOL_RADIUS, y - SYMBOL_RADIUS);
+            }
+        }
+    }
+}
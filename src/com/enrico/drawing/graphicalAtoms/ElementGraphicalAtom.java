@@ -0,0 +1,61 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.drawing.graphicalAtoms;
+
+import com.enrico.chemistry.atoms.ElementTable;
+
+/**
+ * This class is the graphical atom of every element that can be drawn.
+ *
+ * Everything that changes from an element to another (the icon, the standard bonds, the ability to do double and
+ * triple bonds) is read from the element catalogue, so no class is needed for the single elements.
+ */
+public final class ElementGraphicalAtom extends GenericGraphicalAtom {
+
+    /**
+     * @param atomicNumber The atomic number of the atom.
+     * @param startX The start X position of this atom.
+     * @param startY The start Y position of this atom.
+     * @param endX The end X position of this atom.
+     * @param endY The end Y position of this atom.
+     * @param atomId The unique identifier of the atom.
+     *
+     * @throws IllegalArgumentException if the element can't be drawn.
+     */
+    public ElementGraphicalAtom(int atomicNumber, int startX, int startY, int endX, int endY, String atomId)
+            throws IllegalArgumentException {
+        super(checkDrawable(atomicNumber), startX, startY, endX, endY, ElementTable.getMaxValence(atomicNumber),
+              ElementTable.getIconPath(atomicNumber), atomId);
+
+        if (ElementTable.canDoubleBond(atomicNumber))
+            doubleBondList = new com.enrico.drawing.graphicalAtoms.bond.GenericGraphicalBondList<>();
+
+        if (ElementTable.canTripleBond(atomicNumber))
+            tripleBondList = new com.enrico.drawing.graphicalAtoms.bond.GenericGraphicalBondList<>();
+    }
+
+    // The check is done before calling the super constructor, which reads the data of the element.
+    private static int checkDrawable(int atomicNumber) throws IllegalArgumentException {
+        if (!ElementTable.isDrawable(atomicNumber))
+            throw new IllegalArgumentException("The atom with atomic number " + atomicNumber + " can't be drawn.");
+
+        return atomicNumber;
+    }
+}
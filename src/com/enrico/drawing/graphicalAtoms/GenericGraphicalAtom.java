@@ -65,16 +65,9 @@ public abstract class GenericGraphicalAtom extends GenericAtom {
 
     /**
      * This is the only constructor of this class.
-     * NB: many of these parameters are only to satisfy the super constructor.
-     * @param symbol The symbol that represents this atom.
-     * @param completeName The complete name fo the atom.
+     * NB: the data of the element (symbol, mass, electronegativity etc...) is not copied inside the atom, it is read
+     * from the element table by atomic number.
      * @param atomicNumber The atomic number of the atom.
-     * @param atomicMass The atomic mass of the atom.
-     * @param electronegativity The electronegativity of the atom.
-     * @param bondElectronsNumber The bond electrons of the atom.
-     * @param doublets The doublets of electrons that this atoms possess.
-     * @param ionizationEnergy The ionization energy of this atom.
-     * @param classType The type of class of this atom (nonmetal, halogen, semi-metal etc...).
      * @param startX The start X position of this atom.
      * @param startY The start Y position of this atom.
      * @param endX The end X position of this atom.
@@ -83,12 +76,9 @@ public abstract class GenericGraphicalAtom extends GenericAtom {
      * @param imagePath The path of the image to bre drawn on the canvas.
      * @param atomId The unique identifier of the atom.
      */
-    public GenericGraphicalAtom(String symbol, String completeName, int atomicNumber, double atomicMass, double electronegativity,
-                                int bondElectronsNumber, int doublets, int ionizationEnergy, AtomClassType classType,
-                                int startX, int startY, int endX, int endY, int bondsRemaining, String imagePath,
-                                String atomId) {
-        super(symbol, completeName, atomicNumber, atomicMass, electronegativity, bondElectronsNumber, doublets,
-              ionizationEnergy, classType);
+    public GenericGraphicalAtom(int atomicNumber, int startX, int startY, int endX, int endY, int bondsRemaining,
+                                String imagePath, String atomId) {
+        super(atomicNumber);
 
         this.startX = startX;
         this.endX = endX;
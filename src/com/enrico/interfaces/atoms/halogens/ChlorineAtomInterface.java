@@ -19,16 +19,9 @@
 
 package com.enrico.interfaces.atoms.halogens;
 
-import com.enrico.chemistry.atoms.GenericAtom;
-
+// The data of the element is inside the element catalogue, only the constants that identify it are kept here.
 public interface ChlorineAtomInterface {
     String ATOM_SYMBOL = "Cl";
     String ATOM_NAME = "Chlorine";
     int ATOMIC_NUMBER = 17;
-    int BONDING_ELECTRONS = 1;
-    int IONIZATION_NUMBER = 1251;
-    int DOUBLETS = 3;
-    double ATOMIC_MASS = 35.45;
-    double ELECTRONEGATIVITY = 3.16;
-    GenericAtom.AtomClassType CLASS_TYPE = GenericAtom.AtomClassType.Halogens;
 }
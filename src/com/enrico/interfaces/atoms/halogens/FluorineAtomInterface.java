@@ -19,16 +19,9 @@
 
 package com.enrico.interfaces.atoms.halogens;
 
-import com.enrico.chemistry.atoms.GenericAtom;
-
+// The data of the element is inside the element catalogue, only the constants that identify it are kept here.
 public interface FluorineAtomInterface {
     String ATOM_SYMBOL = "F";
     String ATOM_NAME = "Fluorine";
     int ATOMIC_NUMBER = 9;
-    int BONDING_ELECTRONS = 1;
-    int IONIZATION_NUMBER = 1681;
-    int DOUBLETS = 3;
-    double ATOMIC_MASS = 19.0;
-    double ELECTRONEGATIVITY = 3.98;
-    GenericAtom.AtomClassType CLASS_TYPE = GenericAtom.AtomClassType.Halogens;
 }
@@ -19,16 +19,9 @@
 
 package com.enrico.interfaces.atoms.noblegasses;
 
-import com.enrico.chemistry.atoms.GenericAtom;
-
+// The data of the element is inside the element catalogue, only the constants that identify it are kept here.
 public interface HeliumAtomInterface {
     String ATOM_SYMBOL = "He";
     String ATOM_NAME = "Helium";
     int ATOMIC_NUMBER = 2;
-    int BONDING_ELECTRONS = 0;
-    int DOUBLETS = 0;
-    int IONIZATION_ENERGY = 0;
-    double ATOMIC_MASS = 4.003;
-    double ELECTRONEGATIVITY = 0;
-    GenericAtom.AtomClassType CLASS_TYPE = GenericAtom.AtomClassType.NobleGasses;
 }
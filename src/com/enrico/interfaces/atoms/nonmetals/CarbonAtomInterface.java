@@ -19,16 +19,9 @@
 
 package com.enrico.interfaces.atoms.nonmetals;
 
-import com.enrico.chemistry.atoms.GenericAtom;
-
+// The data of the element is inside the element catalogue, only the constants that identify it are kept here.
 public interface CarbonAtomInterface {
     String ATOM_SYMBOL = "C";
     String ATOM_NAME = "Carbon";
     int ATOMIC_NUMBER = 6;
-    int BONDING_ELECTRONS = 4;
-    int IONIZATION_NUMBER = 1086;
-    int DOUBLETS = 2;
-    double ATOMIC_MASS = 12.01;
-    double ELECTRONEGATIVITY = 2.55;
-    GenericAtom.AtomClassType CLASS_TYPE = GenericAtom.AtomClassType.NotMetals;
 }
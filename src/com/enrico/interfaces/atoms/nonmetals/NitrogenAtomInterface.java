@@ -19,16 +19,9 @@
 
 package com.enrico.interfaces.atoms.nonmetals;
 
-import com.enrico.chemistry.atoms.GenericAtom;
-
+// The data of the element is inside the element catalogue, only the constants that identify it are kept here.
 public interface NitrogenAtomInterface {
     String ATOM_SYMBOL = "N";
     String ATOM_NAME = "Nitrogen";
     int ATOMIC_NUMBER = 7;
-    int BONDING_ELECTRONS = 3;
-    int IONIZATION_ENERGY = 1402;
-    int DOUBLETS = 1;
-    double ATOMIC_MASS = 14.01;
-    double ELECTRONEGATIVITY = 3.04;
-    GenericAtom.AtomClassType CLASS_TYPE = GenericAtom.AtomClassType.NotMetals;
 }
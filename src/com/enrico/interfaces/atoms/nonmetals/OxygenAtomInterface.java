@@ -19,16 +19,9 @@
 
 package com.enrico.interfaces.atoms.nonmetals;
 
-import com.enrico.chemistry.atoms.GenericAtom;
-
+// The data of the element is inside the element catalogue, only the constants that identify it are kept here.
 public interface OxygenAtomInterface {
     String ATOM_SYMBOL = "O";
     String ATOM_NAME = "Oxygen";
     int ATOMIC_NUMBER = 8;
-    int BONDING_ELECTRONS = 2;
-    int IONIZATION_ENERGY = 1314;
-    int DOUBLETS = 2;
-    double ATOMIC_MASS = 16;
-    double ELECTRONEGATIVITY = 3.44;
-    GenericAtom.AtomClassType CLASS_TYPE = GenericAtom.AtomClassType.NotMetals;
 }
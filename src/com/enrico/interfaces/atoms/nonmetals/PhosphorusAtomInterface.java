@@ -19,16 +19,9 @@
 
 package com.enrico.interfaces.atoms.nonmetals;
 
-import com.enrico.chemistry.atoms.GenericAtom;
-
+// The data of the element is inside the element catalogue, only the constants that identify it are kept here.
 public interface PhosphorusAtomInterface {
     String ATOM_SYMBOL = "P";
     String ATOM_NAME = "Phosphor";
     int ATOMIC_NUMBER = 15;
-    int BONDING_ELECTRONS = 3;
-    int IONIZATION_ENERGY = 1012;
-    int DOUBLETS = 2;
-    double ATOMIC_MASS = 30.97;
-    double ELECTRONEGATIVITY = 2.19;
-    GenericAtom.AtomClassType CLASS_TYPE = GenericAtom.AtomClassType.NotMetals;
 }
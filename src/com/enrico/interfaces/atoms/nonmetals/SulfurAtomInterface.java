@@ -19,16 +19,9 @@
 
 package com.enrico.interfaces.atoms.nonmetals;
 
-import com.enrico.chemistry.atoms.GenericAtom;
-
+// The data of the element is inside the element catalogue, only the constants that identify it are kept here.
 public interface SulfurAtomInterface {
     String ATOM_SYMBOL = "S";
     String ATOM_NAME = "Sulfur";
     int ATOMIC_NUMBER = 16;
-    int BONDING_ELECTRONS = 2;
-    int IONIZATION_ENERGY = 1000;
-    int DOUBLETS = 2;
-    double ATOMIC_MASS = 32.07;
-    double ELECTRONEGATIVITY = 2.58;
-    GenericAtom.AtomClassType CLASS_TYPE = GenericAtom.AtomClassType.NotMetals;
 }
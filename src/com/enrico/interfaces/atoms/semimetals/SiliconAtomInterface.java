@@ -19,16 +19,9 @@
 
 package com.enrico.interfaces.atoms.semimetals;
 
-import com.enrico.chemistry.atoms.GenericAtom;
-
+// The data of the element is inside the element catalogue, only the constants that identify it are kept here.
 public interface SiliconAtomInterface {
     String ATOM_SYMBOL = "Si";
     String ATOM_NAME = "Silicon";
     int ATOMIC_NUMBER = 14;
-    int BONDING_ELECTRONS = 4;
-    int IONIZATION_NUMBER = 786;
-    int DOUBLETS = 2;
-    double ATOMIC_MASS = 28.09;
-    double ELECTRONEGATIVITY = 1.9;
-    GenericAtom.AtomClassType CLASS_TYPE = GenericAtom.AtomClassType.SemiMetals;
 }
@@ -19,9 +19,10 @@
 
 package com.enrico.widgets.canvas.moleculedrawingcanvas;
 
+import com.enrico.chemistry.atoms.ElementTable;
 import com.enrico.chemistry.atoms.GenericAtom;
 import com.enrico.drawing.graphicalAtoms.GenericGraphicalAtom;
-import com.enrico.drawing.graphicalAtoms.halogens.GraphicalFluorineAtom;
+import com.enrico.drawing.graphicalAtoms.ElementGraphicalAtom;
 import com.enrico.widgets.canvas.GenericCanvas;
 import com.enrico.widgets.menu.popupmenu.GraphicalAtomPopupMenu;
 
@@ -36,8 +37,6 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Objects;
 import java.util.stream.Stream;
@@ -70,8 +69,8 @@ public final class MoleculeDrawingCanvas extends GenericCanvas {
     // This member keeps track of the last atom that we clicked.
     private GenericGraphicalAtom lastSelectedAtom;
 
-    // This member contains the class path of the atom that we're currently drawing.
-    private String currentClassPath;
+    // The atomic number of the atom to draw, 0 if no atom has been selected yet.
+    private int currentAtomicNumber;
 
     // This member is used only to generate atom IDs.
     private int atomsInserted = 0;
@@ -132,22 +131,22 @@ public final class MoleculeDrawingCanvas extends GenericCanvas {
         setCursor(drawingCursor);
         cursorState = CursorStates.CursorDrawing;
 
-        currentClassPath = "";
+        currentAtomicNumber = 0;
 
         addMouseListener(new MouseListenerImpl());
         addMouseMotionListener(new MouseMotionAdapterImpl());
     }
 
     /**
-     * This method sets the current class path to change the atom to draw, it works only if we're not in the selecting
-     * mode.
-     * @param currentClassPath the class path of the atom to draw
+     * This method sets the current atom to draw, it works only if we're not in the selecting mode.
+     * @param atomicNumber the atomic number of the atom to draw.
      */
-    public void setCurrentClassPath(String currentClassPath) {
+    public void setCurrentAtom(int atomicNumber) {
         if (cursorState == CursorStates.CursorSelecting)
             return;
 
-        this.currentClassPath = currentClassPath;
+        if (ElementTable.isDrawable(atomicNumber))
+            currentAtomicNumber = atomicNumber;
     }
 
     public void setCursorState(CursorStates state) {
@@ -651,7 +650,7 @@ public final class MoleculeDrawingCanvas extends GenericCanvas {
             }
 
             if (cursorState == CursorStates.CursorDoubleBond) {
-                if (selectedAtom.getDoubleBondList() == null) {
+                if (!selectedAtom.hasCapabilities(ElementTable.CAPABILITY_DOUBLE_BOND)) {
                     String msg = "Can't double bond " + lastSelectedAtom.getAtomId() + " to " + selectedAtom.getAtomId();
                     JOptionPane.showMessageDialog(null, msg, "Can't double bond atoms.", JOptionPane.ERROR_MESSAGE);
                     return true;
@@ -659,7 +658,7 @@ public final class MoleculeDrawingCanvas extends GenericCanvas {
             }
 
             if (cursorState == CursorStates.CursorTripleBond) {
-                if (selectedAtom.getTripleBondList() == null) {
+                if (!selectedAtom.hasCapabilities(ElementTable.CAPABILITY_TRIPLE_BOND)) {
                     String msg = "Can't triple bond " + lastSelectedAtom.getAtomId() + " to " + selectedAtom.getAtomId();
                     JOptionPane.showMessageDialog(null, msg, "Can't triple bond atoms.", JOptionPane.ERROR_MESSAGE);
                     return true;
@@ -674,16 +673,16 @@ public final class MoleculeDrawingCanvas extends GenericCanvas {
             }
 
             // Can't bond noble gasses if not to halogens.
-            if ((selectedAtom.getClassType() == GenericAtom.AtomClassType.NobleGasses &&
-                 !(lastSelectedAtom instanceof GraphicalFluorineAtom)) ||
-                 (!(selectedAtom instanceof GraphicalFluorineAtom) &&
-                  lastSelectedAtom.getClassType() == GenericAtom.AtomClassType.NobleGasses)) {
+            if ((selectedAtom.hasCapabilities(ElementTable.CAPABILITY_NOBLE_GAS) &&
+                 !lastSelectedAtom.hasCapabilities(ElementTable.CAPABILITY_NOBLE_GAS_BOND)) ||
+                 (!selectedAtom.hasCapabilities(ElementTable.CAPABILITY_NOBLE_GAS_BOND) &&
+                  lastSelectedAtom.hasCapabilities(ElementTable.CAPABILITY_NOBLE_GAS))) {
                 String msg = "Noble gasses can only be bonded to Fluorine.";
                 JOptionPane.showMessageDialog(null, msg, msg, JOptionPane.ERROR_MESSAGE);
                 return true;
             }
 
-            if (selectedAtom.getClassType() == GenericAtom.AtomClassType.NobleGasses && lastSelectedAtom.getClassType() == GenericAtom.AtomClassType.NobleGasses) {
+            if (selectedAtom.hasCapabilities(ElementTable.CAPABILITY_NOBLE_GAS) && lastSelectedAtom.hasCapabilities(ElementTable.CAPABILITY_NOBLE_GAS)) {
                 String msg = "Can't bond two noble gasses.";
                 JOptionPane.showMessageDialog(null, msg, msg, JOptionPane.ERROR_MESSAGE);
                 return true;
@@ -837,7 +836,7 @@ public final class MoleculeDrawingCanvas extends GenericCanvas {
      * @param y The clicked Y (startY of the atom).
      */
     private void addNewAtom(int x, int y) {
-        if (currentClassPath.isEmpty()) {
+        if (currentAtomicNumber == 0) {
             JOptionPane.showMessageDialog(this, "Please select an atom.", "No atom selected", JOptionPane.ERROR_MESSAGE);
             return;
         }
@@ -847,17 +846,8 @@ public final class MoleculeDrawingCanvas extends GenericCanvas {
         if (overlappedAtom != null)
             return;
 
-        GenericGraphicalAtom atomToAdd = getAtomFromClassPath(x, y);
-
-        if (atomToAdd != null) {
-            graphicalAtomsList.add(atomToAdd);
-            atomsInserted++;
-        } else {
-            JOptionPane.showMessageDialog(this,
-                                          "Atom not found.",
-                                          "Atom class: " + currentClassPath + " not found." ,
-                                          JOptionPane.ERROR_MESSAGE);
-        }
+        graphicalAtomsList.add(new ElementGraphicalAtom(currentAtomicNumber, x, y, x + 45, y + 45, "ATOM_" + atomsInserted));
+        atomsInserted++;
     }
 
     /**
@@ -996,23 +986,4 @@ public final class MoleculeDrawingCanvas extends GenericCanvas {
             atomBond.setEndXR(bondedAtom.getCenterX() + 10);
         }
     }
-
-    /**
-     * Using reflection we get the atom by using the class path, we get the constructor
-     * and we generate a new instance to add.
-     * @param x the startX of the atom.
-     * @param y the startY of the atom.
-     * @return returns the newly created atom on success, or false in case of error.
-     */
-    @Nullable
-    private GenericGraphicalAtom getAtomFromClassPath(int x, int y) {
-        try {
-            Class<?> baseClass = Class.forName(currentClassPath);
-            Constructor<?> constructor = baseClass.getConstructor(int.class, int.class, int.class, int.class, String.class);
-            return (GenericGraphicalAtom) constructor.newInstance(x, y, x + 45, y + 45, "ATOM_" + atomsInserted);
-        } catch (InstantiationException | InvocationTargetException | NoSuchMethodException | IllegalAccessException | ClassNotFoundException e) {
-            e.printStackTrace();
-            return null;
-        }
-    }
 }
@@ -20,9 +20,12 @@
 package com.enrico.widgets.canvas.moleculeshapecanvas;
 
 import com.enrico.chemistry.atoms.scientific.GenericScientificAtom;
-import com.enrico.chemistry.molecule.Molecule;
+import com.enrico.chemistry.lewis.LewisStructure;
+import com.enrico.chemistry.lewis.LewisStructureLayout;
+import com.enrico.chemistry.molecule.MoleculeAnalysis;
 import com.enrico.chemistry.molecule.atomgroup.AtomGroup;
 import com.enrico.chemistry.molecule.shapedmolecule.ShapedMolecule;
+import com.enrico.drawing.LewisStructurePainter;
 import com.enrico.drawing.Line;
 import com.enrico.widgets.canvas.GenericCanvas;
 
@@ -32,7 +35,8 @@ import java.util.ArrayList;
 public final class MoleculeShapeCanvas extends GenericCanvas {
     private GenericScientificAtom[] GenericScientificAtomList = null;
     private GenericScientificAtom centralGenericScientificAtom = null;
-    private Molecule molecule = null;
+    private MoleculeAnalysis molecule = null;
+    private LewisStructure lewisStructure = null;
 
     public MoleculeShapeCanvas() {
         super();
@@ -46,7 +50,8 @@ public final class MoleculeShapeCanvas extends GenericCanvas {
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        int centerWidth = getWidth() / 2;
+        // When the Lewis structure is known, the shape is drawn on the left and the structure on the right.
+        int centerWidth = lewisStructure != null ? getWidth() / 4 : getWidth() / 2;
         int centerHeight = getHeight() / 2;
 
         if (GenericScientificAtomList != null && centralGenericScientificAtom != null && molecule != null) {
@@ -66,6 +71,9 @@ public final class MoleculeShapeCanvas extends GenericCanvas {
             }
         }
 
+        if (lewisStructure != null)
+            LewisStructurePainter.paint(g, new LewisStructureLayout(lewisStructure, getWidth() * 3 / 4, centerHeight,
+                    LewisStructurePainter.BOND_LENGTH));
     }
 
     public void createUIComponents() {
@@ -79,8 +87,16 @@ public final class MoleculeShapeCanvas extends GenericCanvas {
         this.centralGenericScientificAtom = centralGenericScientificAtom;
     }
 
-    public void setMolecule(Molecule molecule) {
+    public void setMolecule(MoleculeAnalysis molecule) {
         this.molecule = molecule;
     }
 
+    /**
+     * @param lewisStructure The Lewis structure of the molecule, drawn with its lone pairs, multiple bonds and formal
+     *                       charges, or null if it's not known.
+     */
+    public void setLewisStructure(LewisStructure lewisStructure) {
+        this.lewisStructure = lewisStructure;
+    }
+
 }
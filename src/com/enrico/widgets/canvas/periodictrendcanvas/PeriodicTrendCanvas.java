@@ -0,0 +1,128 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.widgets.canvas.periodictrendcanvas;
+
+import com.enrico.chemistry.atoms.ElementTable;
+import com.enrico.chemistry.periodictrends.ElementProperty;
+import com.enrico.chemistry.periodictrends.ElementPropertyColumn;
+import com.enrico.chemistry.periodictrends.ElementPropertyStore;
+import com.enrico.widgets.canvas.GenericCanvas;
+
+import java.awt.*;
+
+/**
+ * This canvas charts a property of the elements against their atomic number, highlighting the elements found by a
+ * periodic trend query.
+ */
+public final class PeriodicTrendCanvas extends GenericCanvas {
+    private static final int MARGIN = 30;
+    private static final int POINT_SIZE = 4;
+    private static final int HIGHLIGHT_SIZE = 8;
+
+    private static final Color TREND_COLOR = new Color(0x404040);
+    private static final Color HIGHLIGHT_COLOR = new Color(0xC00000);
+
+    private ElementProperty property = null;
+    private int[] highlightedElements = new int[0];
+
+    public PeriodicTrendCanvas() {
+        super();
+
+        setPreferredSize(new Dimension(400, 250));
+    }
+
+    /**
+     * @param property The property to chart.
+     * @param highlightedElements The atomic numbers of the elements to highlight.
+     */
+    public void setData(ElementProperty property, int[] highlightedElements) {
+        this.property = property;
+        this.highlightedElements = highlightedElements != null ? highlightedElements.clone() : new int[0];
+
+        repaint();
+    }
+
+    private int getX(int atomicNumber) {
+        return MARGIN + (getWidth() - 2 * MARGIN) * (atomicNumber - 1) / (ElementTable.ELEMENTS_NUMBER - 1);
+    }
+
+    private int getY(double value, double minimum, double maximum) {
+        double range = maximum - minimum;
+        double position = range == 0 ? 0.5 : (value - minimum) / range;
+
+        return getHeight() - MARGIN - (int) Math.round(position * (getHeight() - 2 * MARGIN));
+    }
+
+    @Override
+    public void paintComponent(Graphics g) {
+        super.paintComponent(g);
+
+        if (property == null)
+            return;
+
+        ElementPropertyColumn column = ElementPropertyStore.getColumn(property);
+        if (column.size() == 0)
+            return;
+
+        double minimum = column.getMinimum();
+        double maximum = column.getMaximum();
+
+        // Axes, with the value range on the left and the atomic number range at the bottom.
+        g.setColor(Color.BLACK);
+        g.drawLine(MARGIN, MARGIN, MARGIN, getHeight() - MARGIN);
+        g.drawLine(MARGIN, getHeight() - MARGIN, getWidth() - MARGIN, getHeight() - MARGIN);
+        g.drawString(property.toString(), MARGIN, MARGIN - 15);
+        g.drawString(String.format("%.4g", maximum), 2, MARGIN);
+        g.drawString(String.format("%.4g", minimum), 2, getHeight() - MARGIN);
+        g.drawString("1", MARGIN, getHeight() - MARGIN + 15);
+        g.drawString(String.valueOf(ElementTable.ELEMENTS_NUMBER), getWidth() - MARGIN - 10, getHeight() - MARGIN + 15);
+
+        // The trend line skips the elements whose value is not known.
+        g.setColor(TREND_COLOR);
+        int lastX = -1;
+        int lastY = -1;
+
+        for (int atomicNumber = 1; atomicNumber <= ElementTable.ELEMENTS_NUMBER; atomicNumber++) {
+            if (!property.isKnown(atomicNumber)) {
+                lastX = -1;
+                continue;
+            }
+
+            int x = getX(atomicNumber);
+            int y = getY(property.getValue(atomicNumber), minimum, maximum);
+
+            if (lastX >= 0)
+                g.drawLine(lastX, lastY, x, y);
+            g.fillOval(x - POINT_SIZE / 2, y - POINT_SIZE / 2, POINT_SIZE, POINT_SIZE);
+
+            lastX = x;
+            lastY = y;
+        }
+
+        g.setColor(HIGHLIGHT_COLOR);
+        for (int atomicNumber : highlightedElements) {
+            int x = getX(atomicNumber);
+            int y = getY(property.getValue(atomicNumber), minimum, maximum);
+
+            g.fillOval(x - HIGHLIGHT_SIZE / 2, y - HIGHLIGHT_SIZE / 2, HIGHLIGHT_SIZE, HIGHLIGHT_SIZE);
+            g.drawString(ElementTable.getSymbol(atomicNumber), x + HIGHLIGHT_SIZE / 2, y - HIGHLIGHT_SIZE / 2);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.widgets.canvas.resonancestripcanvas;
+
+import com.enrico.chemistry.lewis.LewisStructure;
+import com.enrico.chemistry.lewis.LewisStructureLayout;
+import com.enrico.drawing.LewisStructurePainter;
+import com.enrico.widgets.canvas.GenericCanvas;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This canvas draws resonance structures side by side, separated by resonance arrows. Its preferred width grows with
+ * the number of structures, so it is meant to be placed inside a scroll pane; only the structures inside the visible
+ * area are drawn.
+ */
+public final class ResonanceStripCanvas extends GenericCanvas {
+    private static final int CELL_MARGIN = 30;
+    private static final int MIN_CELL_SIZE = 120;
+    private static final int ARROW_HEAD_SIZE = 4;
+
+    private final ArrayList<LewisStructureLayout> layouts = new ArrayList<>();
+    private int cellWidth = MIN_CELL_SIZE;
+    private int cellHeight = MIN_CELL_SIZE;
+
+    public ResonanceStripCanvas() {
+        super();
+    }
+
+    /**
+     * @param structures The resonance structures to draw, they all have the same atoms and bonds.
+     */
+    public void setStructures(List<LewisStructure> structures) {
+        layouts.clear();
+        cellWidth = MIN_CELL_SIZE;
+        cellHeight = MIN_CELL_SIZE;
+
+        int[] xOffsets = new int[structures.size()];
+        int[] yOffsets = new int[structures.size()];
+
+        // Every structure is placed once around the origin to find its size, then moved to the center of its cell.
+        for (int i = 0; i < structures.size(); i++) {
+            LewisStructureLayout layout = new LewisStructureLayout(structures.get(i), 0, 0,
+                    LewisStructurePainter.BOND_LENGTH);
+
+            int minX = 0, maxX = 0, minY = 0, maxY = 0;
+            for (int atom = 0; atom < structures.get(i).getAtomsNumber(); atom++) {
+                minX = Math.min(minX, layout.getX(atom));
+                maxX = Math.max(maxX, layout.getX(atom));
+                minY = Math.min(minY, layout.getY(atom));
+                maxY = Math.max(maxY, layout.getY(atom));
+            }
+
+            cellWidth = Math.max(cellWidth, maxX - minX + 2 * CELL_MARGIN);
+            cellHeight = Math.max(cellHeight, maxY - minY + 2 * CELL_MARGIN);
+            xOffsets[i] = -(minX + maxX) / 2;
+            yOffsets[i] = -(minY + maxY) / 2;
+        }
+
+        for (int i = 0; i < structures.size(); i++) {
+            layouts.add(new LewisStructureLayout(structures.get(i), i * cellWidth + cellWidth / 2 + xOffsets[i],
+                    cellHeight / 2 + yOffsets[i], LewisStructurePainter.BOND_LENGTH));
+        }
+
+        setPreferredSize(new Dimension(Math.max(MIN_CELL_SIZE, layouts.size() * cellWidth), cellHeight));
+        revalidate();
+        repaint();
+    }
+
+    public int getStructuresNumber() {
+        return layouts.size();
+    }
+
+    @Override
+    public void paintComponent(Graphics g) {
+        super.paintComponent(g);
+
+        Rectangle clip = g.getClipBounds();
+        int firstCell = clip != null ? Math.max(0, clip.x / cellWidth) : 0;
+        int lastCell = clip != null ? Math.min(layouts.size() - 1, (clip.x + clip.width) / cellWidth) :
+                layouts.size() - 1;
+
+        FontMetrics metrics = g.getFontMetrics();
+
+        for (int cell = firstCell; cell <= lastCell; cell++) {
+            LewisStructurePainter.paint(g, layouts.get(cell));
+
+            String number = (cell + 1) + "/" + layouts.size();
+            g.drawString(number, cell * cellWidth + (cellWidth - metrics.stringWidth(number)) / 2,
+                    cellHeight - metrics.getDescent() - 2);
+
+            // A resonance arrow between this structure and the next one.
+            if (cell + 1 < layouts.size()) {
+                int arrowX = (cell + 1) * cellWidth;
+                int arrowY = cellHeight / 2;
+                int halfLength = CELL_MARGIN / 3;
+
+                g.drawLine(arrowX - halfLength, arrowY, arrowX + halfLength, arrowY);
+                g.drawLine(arrowX - halfLength, arrowY, arrowX - halfLength + ARROW_HEAD_SIZE, arrowY - ARROW_HEAD_SIZE);
+                g.drawLine(arrowX - halfLength, arrowY, arrowX - halfLength + ARROW_HEAD_SIZE, arrowY + ARROW_HEAD_SIZE);
+                g.drawLine(arrowX + halfLength, arrowY, arrowX + halfLength - ARROW_HEAD_SIZE, arrowY - ARROW_HEAD_SIZE);
+                g.drawLine(arrowX + halfLength, arrowY, arrowX + halfLength - ARROW_HEAD_SIZE, arrowY + ARROW_HEAD_SIZE);
+            }
+        }
+    }
+}
@@ -21,8 +21,13 @@ package com.enrico.windows.dialogs;
 
 import com.enrico.windows.main.problems.biology.monosaccharidestypes.BiologyMonosaccharidesTypesProblemWindow;
 import com.enrico.windows.main.problems.chemistry.compoundclassification.CompoundClassificationProblemWindow;
+import com.enrico.windows.main.problems.chemistry.equationbalancing.EquationBalancingProblemWindow;
+import com.enrico.windows.main.problems.chemistry.isomers.IsomerProblemWindow;
+import com.enrico.windows.main.problems.chemistry.molarmass.MolarMassProblemWindow;
 import com.enrico.windows.main.problems.chemistry.molecularshape.MolecularShapeProblemWindow;
 import com.enrico.windows.main.problems.chemistry.moleculebuilder.MoleculeBuilderWindow;
+import com.enrico.windows.main.problems.chemistry.periodictrends.PeriodicTrendProblemWindow;
+import com.enrico.windows.main.problems.chemistry.resonance.ResonanceProblemWindow;
 
 import javax.swing.*;
 
@@ -36,6 +41,11 @@ public final class ProblemListModel extends DefaultListModel {
             BiologyMonosaccharidesTypesProblemWindow.TITLE,
             CompoundClassificationProblemWindow.TITLE,
             MoleculeBuilderWindow.TITLE,
+            MolarMassProblemWindow.TITLE,
+            EquationBalancingProblemWindow.TITLE,
+            PeriodicTrendProblemWindow.TITLE,
+            ResonanceProblemWindow.TITLE,
+            IsomerProblemWindow.TITLE,
     };
 
     public static final String[] physProblems = new String[] {
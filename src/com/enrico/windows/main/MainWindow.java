@@ -45,8 +45,13 @@ import com.enrico.windows.dialogs.ProblemChooserDialog;
 import com.enrico.windows.dialogs.ProblemListModel;
 import com.enrico.windows.main.problems.biology.monosaccharidestypes.BiologyMonosaccharidesTypesProblemWindow;
 import com.enrico.windows.main.problems.chemistry.compoundclassification.CompoundClassificationProblemWindow;
+import com.enrico.windows.main.problems.chemistry.equationbalancing.EquationBalancingProblemWindow;
+import com.enrico.windows.main.problems.chemistry.isomers.IsomerProblemWindow;
+import com.enrico.windows.main.problems.chemistry.molarmass.MolarMassProblemWindow;
 import com.enrico.windows.main.problems.chemistry.molecularshape.MolecularShapeProblemWindow;
 import com.enrico.windows.main.problems.chemistry.moleculebuilder.MoleculeBuilderWindow;
+import com.enrico.windows.main.problems.chemistry.periodictrends.PeriodicTrendProblemWindow;
+import com.enrico.windows.main.problems.chemistry.resonance.ResonanceProblemWindow;
 import com.enrico.widgets.label.ProgramLabel;
 
 import javax.swing.*;
@@ -111,6 +116,26 @@ public final class MainWindow extends BasicWindow {
                     win = new MoleculeBuilderWindow();
                     break;
 
+                case MolarMassProblemWindow.TITLE:
+                    win = new MolarMassProblemWindow();
+                    break;
+
+                case EquationBalancingProblemWindow.TITLE:
+                    win = new EquationBalancingProblemWindow();
+                    break;
+
+                case PeriodicTrendProblemWindow.TITLE:
+                    win = new PeriodicTrendProblemWindow();
+                    break;
+
+                case ResonanceProblemWindow.TITLE:
+                    win = new ResonanceProblemWindow();
+                    break;
+
+                case IsomerProblemWindow.TITLE:
+                    win = new IsomerProblemWindow();
+                    break;
+
                 case ProblemChooserDialog.NO_PROBLEM_CHOOSED:
                     return;
             }
@@ -19,9 +19,9 @@
 
 package com.enrico.windows.main.problems.chemistry.compoundclassification;
 
-import com.enrico.chemistry.atoms.scientific.GenericScientificAtom;
-import com.enrico.chemistry.formulaparser.FormulaParser;
-import com.enrico.chemistry.molecule.Molecule;
+import com.enrico.chemistry.oxidation.OxidationStateSolver;
+import com.enrico.chemistry.solvedformula.SolvedFormula;
+import com.enrico.chemistry.solvedformula.SolvedFormulaCache;
 import com.enrico.programresources.FontResources;
 import com.enrico.widgets.menu.ProblemWindowMenuBar;
 import com.enrico.windows.main.problems.GenericProblemWindow;
@@ -40,6 +40,8 @@ public final class CompoundClassificationProblemWindow extends GenericProblemWin
     private ProgramLabel formulaTxtLbl;
     private ProgramLabel numOfElementsLbl;
     private ProgramLabel typeLbl;
+    private ProgramLabel oxidationTxtLbl;
+    private ProgramLabel oxidationStatesLbl;
 
     public CompoundClassificationProblemWindow() {
         super(TITLE);
@@ -67,16 +69,10 @@ public final class CompoundClassificationProblemWindow extends GenericProblemWin
             return;
         }
 
-        FormulaParser parser;
-        GenericScientificAtom[] GenericScientificAtomList;
-        Molecule molecule;
+        SolvedFormula solvedFormula;
 
         try {
-            parser = new FormulaParser(formula);
-
-            GenericScientificAtomList = parser.getAtoms();
-            molecule = new Molecule(GenericScientificAtomList, formula);
-            molecule.findCompoundType();
+            solvedFormula = SolvedFormulaCache.SHARED_CACHE.solve(formula);
         } catch (IllegalArgumentException e) {
             JOptionPane.showMessageDialog(this,
                     e.getMessage(),
@@ -85,8 +81,17 @@ public final class CompoundClassificationProblemWindow extends GenericProblemWin
             return;
         }
 
-        int elementsNum = molecule.getElementsNum();
+        if (!solvedFormula.isCompoundTypeSolved()) {
+            JOptionPane.showMessageDialog(this,
+                    solvedFormula.getCompoundTypeError(),
+                    "Formula error.",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        int elementsNum = solvedFormula.getElementsNum();
         numberOfElementsLbl.setText(String.valueOf(elementsNum));
-        moleculeTypeLbl.setText("Compound type: " + molecule.getCompoundType().toString());
+        moleculeTypeLbl.setText("Compound type: " + solvedFormula.getCompoundType().toString());
+        oxidationStatesLbl.setText(OxidationStateSolver.solve(solvedFormula.getComposition()).toString());
     }
 }
@@ -0,0 +1,78 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.windows.main.problems.chemistry.equationbalancing;
+
+import com.enrico.chemistry.equation.BalancedEquation;
+import com.enrico.chemistry.equation.EquationBalancer;
+import com.enrico.widgets.menu.ProblemWindowMenuBar;
+import com.enrico.windows.main.problems.GenericProblemWindow;
+import com.enrico.widgets.label.ProgramLabel;
+import com.enrico.widgets.textfiled.ProgramTextField;
+
+import javax.swing.*;
+
+public final class EquationBalancingProblemWindow extends GenericProblemWindow {
+    public static final String TITLE = "Equation balancing";
+
+    private ProgramTextField equationField;
+    private JTextPane resultPane;
+    private JPanel mainPane;
+    private ProgramLabel equationTxtLbl;
+    private ProgramLabel resultTxtLbl;
+
+    public EquationBalancingProblemWindow() {
+        super(TITLE);
+
+        ProblemWindowMenuBar problemWindowMenuBar = new ProblemWindowMenuBar(this);
+        setJMenuBar(problemWindowMenuBar);
+
+        setResizable(false);
+
+        setContentPane(mainPane);
+    }
+
+    @Override
+    public void saveProject() {
+    }
+
+    @Override
+    public void solveProblem() {
+        String equation = equationField.getText();
+        if (equation.isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                    "Please insert an equation to balance (eg: H2 + O2 -> H2O).",
+                    "No equation found.",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        BalancedEquation balancedEquation = EquationBalancer.balance(equation);
+
+        if (!balancedEquation.isBalanced()) {
+            JOptionPane.showMessageDialog(this,
+                    balancedEquation.getError(),
+                    "Equation error.",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        resultPane.setText(balancedEquation.toString());
+    }
+}
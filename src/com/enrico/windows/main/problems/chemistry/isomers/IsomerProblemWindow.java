@@ -0,0 +1,156 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.windows.main.problems.chemistry.isomers;
+
+import com.enrico.chemistry.formulaparser.FormulaParser;
+import com.enrico.chemistry.formulaparser.ParseResult;
+import com.enrico.chemistry.isomers.IsomerGenerator;
+import com.enrico.chemistry.isomers.IsomerIterator;
+import com.enrico.chemistry.molecule.SmilesWriter;
+import com.enrico.widgets.label.ProgramLabel;
+import com.enrico.widgets.menu.ProblemWindowMenuBar;
+import com.enrico.widgets.textfiled.ProgramTextField;
+import com.enrico.windows.main.problems.GenericProblemWindow;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+public final class IsomerProblemWindow extends GenericProblemWindow {
+    public static final String TITLE = "Structural isomers";
+
+    // The isomers listed, the other ones are only counted.
+    private static final int MAX_LISTED_ISOMERS = 1000;
+
+    private JPanel mainPane;
+    private ProgramTextField formulaField;
+    private JTextPane resultPane;
+    private ProgramLabel formulaTxtLbl;
+    private ProgramLabel countLbl;
+
+    // The search in progress, a new search stops it.
+    private SwingWorker<Long, String> isomerWorker = null;
+
+    public IsomerProblemWindow() {
+        super(TITLE);
+
+        ProblemWindowMenuBar problemWindowMenuBar = new ProblemWindowMenuBar(this);
+        setJMenuBar(problemWindowMenuBar);
+
+        setResizable(false);
+
+        setContentPane(mainPane);
+    }
+
+    @Override
+    public void saveProject() {
+    }
+
+    @Override
+    public void solveProblem() {
+        String formula = formulaField.getText();
+        if (formula.isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                    "Please insert a formula to evaluate.",
+                    "No formula found.",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        IsomerGenerator generator = new IsomerGenerator(new FormulaParser(formula));
+        ParseResult result = generator.validate();
+
+        if (!result.isValid()) {
+            JOptionPane.showMessageDialog(this,
+                    result.getMessage(),
+                    "Formula error.",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        if (isomerWorker != null)
+            isomerWorker.cancel(false);
+
+        resultPane.setText("");
+        countLbl.setText("Searching the isomers of " + formula + "...");
+
+        // The isomers are listed while they are found.
+        isomerWorker = new SwingWorker<Long, String>() {
+            private final StringBuilder listedIsomers = new StringBuilder();
+
+            @Override
+            protected Long doInBackground() {
+                long isomersNumber = 0;
+
+                try (IsomerIterator isomers = generator.iterator()) {
+                    while (!isCancelled() && isomers.hasNext()) {
+                        String smiles = SmilesWriter.write(isomers.next());
+                        if (isomersNumber < MAX_LISTED_ISOMERS)
+                            publish(smiles);
+
+                        isomersNumber++;
+                    }
+                }
+
+                return isomersNumber;
+            }
+
+            @Override
+            protected void process(List<String> chunks) {
+                if (isCancelled())
+                    return;
+
+                for (String smiles : chunks)
+                    listedIsomers.append(smiles).append('\n');
+
+                resultPane.setText(listedIsomers.toString());
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled())
+                    return;
+
+                try {
+                    long isomersNumber = get();
+                    String count = isomersNumber == 1 ? "1 isomer found" : isomersNumber + " isomers found";
+
+                    if (isomersNumber > MAX_LISTED_ISOMERS)
+                        count += ", the first " + MAX_LISTED_ISOMERS + " are listed";
+
+                    countLbl.setText(count + ".");
+                    resultPane.setCaretPosition(0);
+                } catch (InterruptedException | ExecutionException | CancellationException ignored) {
+                }
+            }
+        };
+
+        isomerWorker.execute();
+    }
+
+    @Override
+    public void dispose() {
+        if (isomerWorker != null)
+            isomerWorker.cancel(false);
+
+        super.dispose();
+    }
+}
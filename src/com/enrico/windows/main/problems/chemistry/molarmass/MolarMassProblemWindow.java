@@ -0,0 +1,98 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.windows.main.problems.chemistry.molarmass;
+
+import com.enrico.chemistry.Composition;
+import com.enrico.chemistry.atoms.scientific.ScientificAtomRegistry;
+import com.enrico.chemistry.formulaparser.FormulaParser;
+import com.enrico.chemistry.formulaparser.ParseResult;
+import com.enrico.chemistry.molarmass.MolarMassCalculator;
+import com.enrico.widgets.menu.ProblemWindowMenuBar;
+import com.enrico.windows.main.problems.GenericProblemWindow;
+import com.enrico.widgets.label.ProgramLabel;
+import com.enrico.widgets.textfiled.ProgramTextField;
+
+import javax.swing.*;
+
+public final class MolarMassProblemWindow extends GenericProblemWindow {
+    public static final String TITLE = "Molar mass";
+
+    private ProgramTextField formulaField;
+    private ProgramLabel molarMassLbl;
+    private JTextPane dataPane;
+    private JPanel mainPane;
+    private ProgramLabel formulaTxtLbl;
+    private ProgramLabel massTxtLbl;
+    private ProgramLabel percentTxtLbl;
+
+    public MolarMassProblemWindow() {
+        super(TITLE);
+
+        ProblemWindowMenuBar problemWindowMenuBar = new ProblemWindowMenuBar(this);
+        setJMenuBar(problemWindowMenuBar);
+
+        setResizable(false);
+
+        setContentPane(mainPane);
+    }
+
+    @Override
+    public void saveProject() {
+    }
+
+    @Override
+    public void solveProblem() {
+        String formula = formulaField.getText();
+        if (formula.isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                    "Please insert a formula to evaluate.",
+                    "No formula found.",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        FormulaParser parser = new FormulaParser(formula);
+        ParseResult parseResult = parser.validate();
+
+        if (!parseResult.isValid()) {
+            JOptionPane.showMessageDialog(this,
+                    parseResult.getMessage(),
+                    "Formula error.",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        Composition composition = parser.getComposition();
+        molarMassLbl.setText(String.format("%.3f g/mol", MolarMassCalculator.getMolarMass(composition)));
+
+        // Mass percent of every element, in Hill order.
+        StringBuilder percentComposition = new StringBuilder();
+        for (int i = 0; i < composition.getElementsNumber(); i++) {
+            int atomicNumber = composition.getAtomicNumberAt(i);
+
+            percentComposition.append(String.format("%s (%s): %.2f %%\n",
+                    ScientificAtomRegistry.getSymbol(atomicNumber),
+                    ScientificAtomRegistry.getAtom(atomicNumber).getCompleteName(),
+                    MolarMassCalculator.getMassPercent(composition, atomicNumber)));
+        }
+
+        dataPane.setText(percentComposition.toString());
+    }
+}
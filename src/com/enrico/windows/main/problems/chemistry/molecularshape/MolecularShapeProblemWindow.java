@@ -19,9 +19,10 @@
 
 package com.enrico.windows.main.problems.chemistry.molecularshape;
 
-import com.enrico.chemistry.atoms.scientific.GenericScientificAtom;
-import com.enrico.chemistry.formulaparser.FormulaParser;
-import com.enrico.chemistry.molecule.Molecule;
+import com.enrico.chemistry.lewis.LewisStructure;
+import com.enrico.chemistry.molecule.MoleculeAnalysis;
+import com.enrico.chemistry.solvedformula.SolvedFormula;
+import com.enrico.chemistry.solvedformula.SolvedFormulaCache;
 import com.enrico.interfaces.windows.ImageSavingInterface;
 import com.enrico.programresources.FontResources;
 import com.enrico.project.saver.FormulaShapeProjectSaver;
@@ -39,10 +40,13 @@ import com.enrico.widgets.textfiled.ProgramTextField;
 import com.enrico.widgets.label.ProgramLabel;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
 
 public final class MolecularShapeProblemWindow extends GenericProblemWindow implements ImageSavingInterface {
     private JPanel mainPanel;
@@ -51,6 +55,15 @@ public final class MolecularShapeProblemWindow extends GenericProblemWindow impl
     private JTextPane dataPane;
     private ProgramLabel formulaLbl;
     private ProgramLabel resultLbl;
+    private JCheckBox liveCheckBox;
+
+    // Time to wait after the last keystroke before solving the formula in live mode.
+    private static final int LIVE_SOLVE_DELAY = 250;
+
+    private final Timer liveSolveTimer;
+
+    // Incremented for every live solve, only the result of the last one is shown.
+    private long liveSolveId = 0;
 
     public static final String MOLECULAR_RETURN_STATUS = "Molecular shape";
     public static final String MOLECULAR_SHAPE_WINDOW_IDENTIFIER = "MOLECULAR_SHAPE_WINDOW_IDENTIFIER";
@@ -68,6 +81,91 @@ public final class MolecularShapeProblemWindow extends GenericProblemWindow impl
         setJMenuBar(problemWindowMenuBar);
 
         addSaveImageItem(problemWindowMenuBar, () -> {saveImage(this, mainMoleculeShapeCanvas); return null;});
+
+        // Live mode: the formula is solved when the user stops typing.
+        liveSolveTimer = new Timer(LIVE_SOLVE_DELAY, e -> startLiveSolve());
+        liveSolveTimer.setRepeats(false);
+
+        textFieldFormula.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                formulaEdited();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                formulaEdited();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+
+        liveCheckBox.addActionListener(e -> {
+            if (liveCheckBox.isSelected()) {
+                startLiveSolve();
+            } else {
+                // Discarding the live solve in progress, if any.
+                liveSolveTimer.stop();
+                liveSolveId++;
+            }
+        });
+    }
+
+    private void formulaEdited() {
+        if (liveCheckBox.isSelected())
+            liveSolveTimer.restart();
+    }
+
+    private void startLiveSolve() {
+        String formula = textFieldFormula.getText();
+        long solveId = ++liveSolveId;
+
+        if (formula.isEmpty()) {
+            dataPane.setText("");
+            return;
+        }
+
+        // The whole formula is solved again, formulas already solved are found inside the cache.
+        new SwingWorker<SolvedFormula, Void>() {
+            @Override
+            protected SolvedFormula doInBackground() {
+                return solveInBackground(formula);
+            }
+
+            @Override
+            protected void done() {
+                // The result is shown only if the formula hasn't changed in the meantime.
+                if (solveId != liveSolveId || !formula.equals(textFieldFormula.getText()))
+                    return;
+
+                try {
+                    SolvedFormula solvedFormula = get();
+
+                    if (solvedFormula.isShapeSolved())
+                        showSolvedFormula(solvedFormula);
+                    else
+                        dataPane.setText(solvedFormula.getShapeError());
+                } catch (InterruptedException | ExecutionException ignored) {
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * This method solves a formula and searches its Lewis structure, which can take a while, so that the event
+     * dispatch thread only has to show them.
+     * @param formula The formula.
+     * @return the solved formula, whose Lewis structure has already been searched if its shape is solved.
+     */
+    private static SolvedFormula solveInBackground(String formula) {
+        SolvedFormula solvedFormula = SolvedFormulaCache.SHARED_CACHE.trySolve(formula);
+
+        if (solvedFormula.isShapeSolved())
+            solvedFormula.getLewisStructure();
+
+        return solvedFormula;
     }
 
     public void setFormulaOnTextField(String formula) {
@@ -85,34 +183,61 @@ public final class MolecularShapeProblemWindow extends GenericProblemWindow impl
             return;
         }
 
-        FormulaParser parser;
-        GenericScientificAtom[] GenericScientificAtomList;
-        Molecule molecule;
-        GenericScientificAtom centralGenericScientificAtom;
+        new SwingWorker<SolvedFormula, Void>() {
+            @Override
+            protected SolvedFormula doInBackground() {
+                return solveInBackground(formula);
+            }
 
-        try {
-            parser = new FormulaParser(formula);
+            @Override
+            protected void done() {
+                SolvedFormula solvedFormula;
 
-            GenericScientificAtomList = parser.getAtoms();
-            molecule = new Molecule(GenericScientificAtomList, formula);
-            centralGenericScientificAtom = molecule.getCentralGenericScientificAtom();
+                try {
+                    solvedFormula = get();
+                    solvedFormula.getParseResult().throwIfSyntaxError();
+                } catch (InterruptedException | ExecutionException e) {
+                    return;
+                } catch (IllegalArgumentException e) {
+                    JOptionPane.showMessageDialog(MolecularShapeProblemWindow.this,
+                            e.getMessage(),
+                            "Formula error.",
+                            JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
 
-            molecule.calculateShape();
-        } catch (IllegalArgumentException e) {
-            JOptionPane.showMessageDialog(this,
-                    e.getMessage(),
-                    "Formula error.",
-                    JOptionPane.ERROR_MESSAGE);
-            return;
-        }
+                if (!solvedFormula.isShapeSolved()) {
+                    JOptionPane.showMessageDialog(MolecularShapeProblemWindow.this,
+                            solvedFormula.getShapeError(),
+                            "Formula error.",
+                            JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+
+                showSolvedFormula(solvedFormula);
+            }
+        }.execute();
+    }
+
+    private void showSolvedFormula(SolvedFormula solvedFormula) {
+        MoleculeAnalysis molecule = solvedFormula.getAnalysis();
 
-        mainMoleculeShapeCanvas.setGenericScientificAtomList(GenericScientificAtomList);
-        mainMoleculeShapeCanvas.setCentralGenericScientificAtom(centralGenericScientificAtom);
+        mainMoleculeShapeCanvas.setGenericScientificAtomList(solvedFormula.getAtoms());
+        mainMoleculeShapeCanvas.setCentralGenericScientificAtom(molecule.getCentralGenericScientificAtom());
         mainMoleculeShapeCanvas.setMolecule(molecule);
 
+        // The Lewis structure is drawn next to the shape when it can be found, it has already been searched by the
+        // worker that solved the formula.
+        LewisStructure lewisStructure = solvedFormula.getLewisStructure();
+        mainMoleculeShapeCanvas.setLewisStructure(lewisStructure);
+
         mainMoleculeShapeCanvas.repaint();
 
-        dataPane.setText(molecule.getOperationString());
+        if (lewisStructure != null)
+            dataPane.setText(solvedFormula.getOperationString() + "\nLewis structure:\n" +
+                    lewisStructure.getDescription());
+        else
+            dataPane.setText(solvedFormula.getOperationString());
     }
 
     public void createUIComponents() {
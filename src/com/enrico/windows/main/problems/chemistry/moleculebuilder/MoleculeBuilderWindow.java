@@ -19,16 +19,8 @@
 
 package com.enrico.windows.main.problems.chemistry.moleculebuilder;
 
-import com.enrico.drawing.graphicalAtoms.actinides.*;
-import com.enrico.drawing.graphicalAtoms.alkalineearthmetals.*;
-import com.enrico.drawing.graphicalAtoms.alkalinemetals.*;
-import com.enrico.drawing.graphicalAtoms.halogens.*;
-import com.enrico.drawing.graphicalAtoms.lanthanides.*;
-import com.enrico.drawing.graphicalAtoms.noblegasses.*;
-import com.enrico.drawing.graphicalAtoms.nonmetals.*;
-import com.enrico.drawing.graphicalAtoms.pblockmetals.*;
-import com.enrico.drawing.graphicalAtoms.semimetals.*;
-import com.enrico.drawing.graphicalAtoms.transitionalmetals.*;
+import com.enrico.chemistry.atoms.ElementTable;
+import com.enrico.chemistry.atoms.scientific.ScientificAtomRegistry;
 import com.enrico.interfaces.windows.ImageSavingInterface;
 import com.enrico.programresources.FontResources;
 import com.enrico.widgets.canvas.FileTypeFilter;
@@ -270,338 +262,146 @@ public final class MoleculeBuilderWindow extends GenericProblemWindow implements
         }
     }
 
-    private void initializeAlkalineButtons() throws IOException {
-        URL imagePath;
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/alkaline_metals/atom_icon_lithium.png");
-        lithiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalLithiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/alkaline_metals/atom_icon_sodium.png");
-        sodiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalSodiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/alkaline_metals/atom_icon_potassium.png");
-        potassiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalPotassiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/alkaline_metals/atom_icon_rubidium.png");
-        rubidiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalRubidiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/alkaline_metals/atom_icon_cesium.png");
-        cesiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalCesiumAtom.class.getCanonicalName()); return null;});
+    /**
+     * This method creates the button of an atom, the icon of the atom is read from the element table.
+     * @param symbol The symbol of the atom.
+     * @return the button that selects the atom to draw.
+     *
+     * @throws IOException if the icon of the atom can't be read.
+     */
+    private ImageButton createAtomButton(String symbol) throws IOException {
+        int atomicNumber = ScientificAtomRegistry.getAtomicNumber(symbol);
+        URL imagePath = getClass().getClassLoader().getResource(ElementTable.getIconPath(atomicNumber));
+
+        return new ImageButton(imagePath, null, () -> {canvas.setCurrentAtom(atomicNumber); return null;});
+    }
 
-        imagePath = getClass().getClassLoader().getResource("atom_icons/alkaline_metals/atom_icon_francium.png");
-        franciumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalFranciumAtom.class.getCanonicalName()); return null;});
+    private void initializeAlkalineButtons() throws IOException {
+        lithiumBtn = createAtomButton("Li");
+        sodiumBtn = createAtomButton("Na");
+        potassiumBtn = createAtomButton("K");
+        rubidiumBtn = createAtomButton("Rb");
+        cesiumBtn = createAtomButton("Cs");
+        franciumBtn = createAtomButton("Fr");
     }
 
     private void initializeAlkalineEarthButtons() throws IOException {
-        URL imagePath;
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/alkaline_earth_metals/atom_icon_beryllium.png");
-        berylliumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalBerylliumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/alkaline_earth_metals/atom_icon_magnesium.png");
-        magnesiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalMagnesiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/alkaline_earth_metals/atom_icon_calcium.png");
-        calciumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalCalciumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/alkaline_earth_metals/atom_icon_strontium.png");
-        strontiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalStrontiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/alkaline_earth_metals/atom_icon_barium.png");
-        bariumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalBariumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/alkaline_earth_metals/atom_icon_radium.png");
-        radiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalRadiumAtom.class.getCanonicalName()); return null;});
+        berylliumBtn = createAtomButton("Be");
+        magnesiumBtn = createAtomButton("Mg");
+        calciumBtn = createAtomButton("Ca");
+        strontiumBtn = createAtomButton("Sr");
+        bariumBtn = createAtomButton("Ba");
+        radiumBtn = createAtomButton("Ra");
     }
 
     private void initializeTransitionMetalsButtons() throws IOException {
-        URL imagePath;
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_cadmium.png");
-        cadmiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalCadmiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_copper.png");
-        chopperBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalCopperAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_chromium.png");
-        chromiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalChromiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_cobalt.png");
-        cobaltBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalCobaltAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_gold.png");
-        goldBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalGoldAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_hafnium.png");
-        hafniumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalHafniumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_iridium.png");
-        iridiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalIridiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_iron.png");
-        ironBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalIronAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_manganese.png");
-        manganeseBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalManganeseAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_mercury.png");
-        mercuryBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalMercuryAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_molybdenum.png");
-        molybdenumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalMolybdenumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_nickel.png");
-        nickelBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalNickelAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_niobium.png");
-        niobiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalNiobiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_osmium.png");
-        osmiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalOsmiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_palladium.png");
-        palladiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalPalladiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_platinum.png");
-        platinumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalPlatinumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_rhenium.png");
-        rheniumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalRheniumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_rhodium.png");
-        rhodiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalRhodiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_ruthenium.png");
-        rutheniumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalRutheniumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_scandium.png");
-        scandiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalScandiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_silver.png");
-        silverBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalSilverAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_tantalum.png");
-        tantalumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalTantalumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_technetium.png");
-        technetiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalTechnetiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_titanium.png");
-        titaniumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalTitaniumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_tungsten.png");
-        tungstenBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalTungstenAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_vanadium.png");
-        vanadiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalVanadiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_yttrium.png");
-        yttriumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalYttriumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_zinc.png");
-        zincBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalZincAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/transition_metals/atom_icon_zirconium.png");
-        zirconiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalZirconiumAtom.class.getCanonicalName()); return null;});
+        cadmiumBtn = createAtomButton("Cd");
+        chopperBtn = createAtomButton("Cu");
+        chromiumBtn = createAtomButton("Cr");
+        cobaltBtn = createAtomButton("Co");
+        goldBtn = createAtomButton("Au");
+        hafniumBtn = createAtomButton("Hf");
+        iridiumBtn = createAtomButton("Ir");
+        ironBtn = createAtomButton("Fe");
+        manganeseBtn = createAtomButton("Mn");
+        mercuryBtn = createAtomButton("Hg");
+        molybdenumBtn = createAtomButton("Mo");
+        nickelBtn = createAtomButton("Ni");
+        niobiumBtn = createAtomButton("Nb");
+        osmiumBtn = createAtomButton("Os");
+        palladiumBtn = createAtomButton("Pd");
+        platinumBtn = createAtomButton("Pt");
+        rheniumBtn = createAtomButton("Re");
+        rhodiumBtn = createAtomButton("Rh");
+        rutheniumBtn = createAtomButton("Ru");
+        scandiumBtn = createAtomButton("Sc");
+        silverBtn = createAtomButton("Ag");
+        tantalumBtn = createAtomButton("Ta");
+        technetiumBtn = createAtomButton("Tc");
+        titaniumBtn = createAtomButton("Ti");
+        tungstenBtn = createAtomButton("W");
+        vanadiumBtn = createAtomButton("V");
+        yttriumBtn = createAtomButton("Y");
+        zincBtn = createAtomButton("Zn");
+        zirconiumBtn = createAtomButton("Zr");
     }
 
     private void initializeNonmetals() throws IOException {
-        URL imagePath;
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/nonmetals/atom_icon_carbon.png");
-        carbonBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalCarbonAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/nonmetals/atom_icon_hydrogen.png");
-        hydrogenBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalHydrogenAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/nonmetals/atom_icon_nitrogen.png");
-        nitrogenBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalNitrogenAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/nonmetals/atom_icon_oxygen.png");
-        oxygenBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalOxygenAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/nonmetals/atom_icon_phosphorus.png");
-        phosphorusBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalPhosphorusAtom.class.getProtectionDomain().getCodeSource().getLocation().getPath()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/nonmetals/atom_icon_selenium.png");
-        seleniumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalSeleniumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/nonmetals/atom_icon_sulfur.png");
-        sulfurBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalSulfurAtom.class.getCanonicalName()); return null;});
+        carbonBtn = createAtomButton("C");
+        hydrogenBtn = createAtomButton("H");
+        nitrogenBtn = createAtomButton("N");
+        oxygenBtn = createAtomButton("O");
+        phosphorusBtn = createAtomButton("P");
+        seleniumBtn = createAtomButton("Se");
+        sulfurBtn = createAtomButton("S");
     }
 
     private void initializeSemimetalsButtons() throws IOException {
-        URL imagePath;
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/semimetals/atom_icon_antimony.png");
-        antimonyBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalAntimonyAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/semimetals/atom_icon_arsenic.png");
-        arsenicBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalArsenicAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/semimetals/atom_icon_astatine.png");
-        astatineBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalAstatineAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/semimetals/atom_icon_boron.png");
-        boronBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalBoronAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/semimetals/atom_icon_germanium.png");
-        germaniumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalGermaniumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/semimetals/atom_icon_polonium.png");
-        poloniumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalPoloniumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/semimetals/atom_icon_silicon.png");
-        siliconBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalSiliconAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/semimetals/atom_icon_tellurium.png");
-        telluriumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalTelluriumAtom.class.getCanonicalName()); return null;});
+        antimonyBtn = createAtomButton("Sb");
+        arsenicBtn = createAtomButton("As");
+        astatineBtn = createAtomButton("At");
+        boronBtn = createAtomButton("B");
+        germaniumBtn = createAtomButton("Ge");
+        poloniumBtn = createAtomButton("Po");
+        siliconBtn = createAtomButton("Si");
+        telluriumBtn = createAtomButton("Te");
     }
 
     private void initializeHalogensButtons() throws IOException {
-        URL imagePath;
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/halogens/atom_icon_bromine.png");
-        bromineBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalBromineAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/halogens/atom_icon_chlorine.png");
-        chlorineBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalChlorineAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/halogens/atom_icon_fluorine.png");
-        fluorineBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalFluorineAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/halogens/atom_icon_iodine.png");
-        iodineBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalIodineAtom.class.getCanonicalName()); return null;});
+        bromineBtn = createAtomButton("Br");
+        chlorineBtn = createAtomButton("Cl");
+        fluorineBtn = createAtomButton("F");
+        iodineBtn = createAtomButton("I");
     }
 
     private void initializeNobleGassesButtons() throws IOException {
-        URL imagePath;
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/noble_gasses/atom_icon_krypton.png");
-        kryptonBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalKryptonAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/noble_gasses/atom_icon_xenon.png");
-        xenonBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalXenonAtom.class.getCanonicalName()); return null;});
+        kryptonBtn = createAtomButton("Kr");
+        xenonBtn = createAtomButton("Xe");
     }
 
     private void initializePBlockMetalsButtons() throws IOException {
-        URL imagePath;
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/pblock_metals/atom_icon_aluminium.png");
-        aluminiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalAluminiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/pblock_metals/atom_icon_bismuth.png");
-        bismuthBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalBismuthAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/pblock_metals/atom_icon_gallium.png");
-        galliumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalGalliumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/pblock_metals/atom_icon_indium.png");
-        indiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalIndiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/pblock_metals/atom_icon_lead.png");
-        leadBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalLeadAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/pblock_metals/atom_icon_thallium.png");
-        thalliumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalThalliumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/pblock_metals/atom_icon_tin.png");
-        tinBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalTinAtom.class.getCanonicalName()); return null;});
+        aluminiumBtn = createAtomButton("Al");
+        bismuthBtn = createAtomButton("Bi");
+        galliumBtn = createAtomButton("Ga");
+        indiumBtn = createAtomButton("In");
+        leadBtn = createAtomButton("Pb");
+        thalliumBtn = createAtomButton("Tl");
+        tinBtn = createAtomButton("Sn");
     }
 
     private void initializeLanthanidesButtons() throws IOException {
-        URL imagePath;
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_cerium.png");
-        ceriumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalCeriumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_dysprosium.png");
-        dysprosiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalDysprosiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_erbium.png");
-        erbiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalErbiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_europium.png");
-        europiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalEuropiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_gadolinium.png");
-        gadoliniumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalGadoliniumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_holmium.png");
-        holmiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalHolmiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_lanthanum.png");
-        lanthanumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalLanthanumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_lutetium.png");
-        lutetiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalLutetiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_neodymium.png");
-        neodymiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalNeodymiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_praseodymium.png");
-        praseodymiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalPraseodymiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_promethium.png");
-        promethiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalPromethiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_samarium.png");
-        samariumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalSamariumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_terbium.png");
-        terbiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalTerbiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_thulium.png");
-        thuliumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalThuliumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/lanthanides/atom_icon_ytterbium.png");
-        ytterbiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalYtterbiumAtom.class.getCanonicalName()); return null;});
+        ceriumBtn = createAtomButton("Ce");
+        dysprosiumBtn = createAtomButton("Dy");
+        erbiumBtn = createAtomButton("Er");
+        europiumBtn = createAtomButton("Eu");
+        gadoliniumBtn = createAtomButton("Gd");
+        holmiumBtn = createAtomButton("Ho");
+        lanthanumBtn = createAtomButton("La");
+        lutetiumBtn = createAtomButton("Lu");
+        neodymiumBtn = createAtomButton("Nd");
+        praseodymiumBtn = createAtomButton("Pr");
+        promethiumBtn = createAtomButton("Pm");
+        samariumBtn = createAtomButton("Sm");
+        terbiumBtn = createAtomButton("Tb");
+        thuliumBtn = createAtomButton("Tm");
+        ytterbiumBtn = createAtomButton("Yb");
     }
 
     private void initializeActinidesButtons() throws IOException {
-        URL imagePath;
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/actinides/atom_icon_actinium.png");
-        actiniumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalActiniumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/actinides/atom_icon_americium.png");
-        americiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalAmericiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/actinides/atom_icon_berkelium.png");
-        berkeliumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalBerkeliumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/actinides/atom_icon_californium.png");
-        californiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalCaliforniumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/actinides/atom_icon_curium.png");
-        curiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalCuriumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/actinides/atom_icon_einsteinium.png");
-        einsteiniumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalEinsteiniumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/actinides/atom_icon_fermium.png");
-        fermiumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalFermiumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/actinides/atom_icon_mendelevium.png");
-        mendeleviumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalMendeleviumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/actinides/atom_icon_neptunium.png");
-        neptuniumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalNeptuniumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/actinides/atom_icon_nobelium.png");
-        nobeliumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalNobeliumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/actinides/atom_icon_plutonium.png");
-        plutoniumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalPlutoniumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/actinides/atom_icon_protactinium.png");
-        protactiniumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalProtactiniumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/actinides/atom_icon_thorium.png");
-        thoriumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalThoriumAtom.class.getCanonicalName()); return null;});
-
-        imagePath = getClass().getClassLoader().getResource("atom_icons/actinides/atom_icon_uranium.png");
-        uraniumBtn = new ImageButton(imagePath, null, () -> {canvas.setCurrentClassPath(GraphicalUraniumAtom.class.getCanonicalName()); return null;});
+        actiniumBtn = createAtomButton("Ac");
+        americiumBtn = createAtomButton("Am");
+        berkeliumBtn = createAtomButton("Bk");
+        californiumBtn = createAtomButton("Cf");
+        curiumBtn = createAtomButton("Cm");
+        einsteiniumBtn = createAtomButton("Es");
+        fermiumBtn = createAtomButton("Fm");
+        mendeleviumBtn = createAtomButton("Md");
+        neptuniumBtn = createAtomButton("Np");
+        nobeliumBtn = createAtomButton("No");
+        plutoniumBtn = createAtomButton("Pu");
+        protactiniumBtn = createAtomButton("Pa");
+        thoriumBtn = createAtomButton("Th");
+        uraniumBtn = createAtomButton("U");
     }
 
     private void initializeDrawingButtons() throws IOException {
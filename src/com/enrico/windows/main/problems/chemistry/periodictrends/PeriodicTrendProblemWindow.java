@@ -0,0 +1,154 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.windows.main.problems.chemistry.periodictrends;
+
+import com.enrico.chemistry.atoms.ElementTable;
+import com.enrico.chemistry.periodictrends.ElementProperty;
+import com.enrico.chemistry.periodictrends.ElementPropertyColumn;
+import com.enrico.chemistry.periodictrends.ElementPropertyStore;
+import com.enrico.widgets.canvas.periodictrendcanvas.PeriodicTrendCanvas;
+import com.enrico.widgets.combobox.DefaultComboBox;
+import com.enrico.widgets.combobox.DefaultComboBoxItem;
+import com.enrico.widgets.label.ProgramLabel;
+import com.enrico.widgets.menu.ProblemWindowMenuBar;
+import com.enrico.widgets.textfiled.ProgramTextField;
+import com.enrico.windows.main.problems.GenericProblemWindow;
+
+import javax.swing.*;
+
+public final class PeriodicTrendProblemWindow extends GenericProblemWindow {
+    public static final String TITLE = "Periodic trends";
+
+    // The number of elements listed by a nearest value query.
+    private static final int NEAREST_ELEMENTS_NUMBER = 5;
+
+    private JPanel mainPane;
+    private DefaultComboBox propertyComboBox;
+    private ProgramTextField minimumField;
+    private ProgramTextField maximumField;
+    private ProgramTextField nearestField;
+    private PeriodicTrendCanvas trendCanvas;
+    private JTextPane resultPane;
+    private ProgramLabel propertyTxtLbl;
+    private ProgramLabel rangeTxtLbl;
+    private ProgramLabel nearestTxtLbl;
+
+    public PeriodicTrendProblemWindow() {
+        super(TITLE);
+
+        ProblemWindowMenuBar problemWindowMenuBar = new ProblemWindowMenuBar(this);
+        setJMenuBar(problemWindowMenuBar);
+
+        setResizable(false);
+
+        setContentPane(mainPane);
+    }
+
+    private void createUIComponents() {
+        ElementProperty[] properties = ElementProperty.values();
+        DefaultComboBoxItem[] propertyItems = new DefaultComboBoxItem[properties.length];
+
+        for (int i = 0; i < properties.length; i++)
+            propertyItems[i] = new DefaultComboBoxItem(properties[i].toString(), properties[i].name());
+
+        propertyComboBox = new DefaultComboBox(propertyItems);
+        trendCanvas = new PeriodicTrendCanvas();
+    }
+
+    @Override
+    public void saveProject() {
+    }
+
+    // Returns the value of a field, the default value if the field is empty or null if it is not a number.
+    private static Double parseField(ProgramTextField field, double defaultValue) {
+        String text = field.getText().trim();
+        if (text.isEmpty())
+            return defaultValue;
+
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void solveProblem() {
+        DefaultComboBoxItem selectedItem = (DefaultComboBoxItem) propertyComboBox.getSelectedItem();
+        if (selectedItem == null)
+            return;
+
+        ElementProperty property = ElementProperty.valueOf(selectedItem.getValue());
+        ElementPropertyColumn column = ElementPropertyStore.getColumn(property);
+
+        int[] foundElements;
+
+        if (!nearestField.getText().trim().isEmpty()) {
+            Double nearestValue = parseField(nearestField, 0);
+            if (nearestValue == null) {
+                JOptionPane.showMessageDialog(this,
+                        "The nearest value must be a number.",
+                        "Value error.",
+                        JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            foundElements = column.findNearest(nearestValue, NEAREST_ELEMENTS_NUMBER);
+        } else {
+            // An empty bound leaves the range open on that side.
+            Double minimum = parseField(minimumField, column.getMinimum());
+            Double maximum = parseField(maximumField, column.getMaximum());
+
+            if (minimum == null || maximum == null) {
+                JOptionPane.showMessageDialog(this,
+                        "The bounds of the range must be numbers.",
+                        "Value error.",
+                        JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            if (minimum > maximum) {
+                JOptionPane.showMessageDialog(this,
+                        "The minimum value can't be greater than the maximum value.",
+                        "Value error.",
+                        JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            foundElements = column.findInRange(minimum, maximum);
+        }
+
+        trendCanvas.setData(property, foundElements);
+
+        StringBuilder result = new StringBuilder();
+        if (foundElements.length == 0)
+            result.append("No element found.\n");
+
+        for (int atomicNumber : foundElements) {
+            result.append(String.format("%s (%s, Z = %d): %s\n",
+                    ElementTable.getSymbol(atomicNumber),
+                    ElementTable.getCompleteName(atomicNumber),
+                    atomicNumber,
+                    property.getValue(atomicNumber)));
+        }
+
+        resultPane.setText(result.toString());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Chem solver. A multi-platform chemistry and physics problem solver.
+ *  Copyright (C) 2019 - 2020  Giacalone Enrico
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.enrico.windows.main.problems.chemistry.resonance;
+
+import com.enrico.chemistry.formulaparser.FormulaParser;
+import com.enrico.chemistry.formulaparser.ParseResult;
+import com.enrico.chemistry.lewis.LewisStructure;
+import com.enrico.chemistry.lewis.LewisStructureGenerator;
+import com.enrico.chemistry.lewis.ResonanceEnumerator;
+import com.enrico.widgets.canvas.resonancestripcanvas.ResonanceStripCanvas;
+import com.enrico.widgets.label.ProgramLabel;
+import com.enrico.widgets.menu.ProblemWindowMenuBar;
+import com.enrico.widgets.textfiled.ProgramTextField;
+import com.enrico.windows.main.problems.GenericProblemWindow;
+
+import javax.swing.*;
+import java.util.List;
+
+public final class ResonanceProblemWindow extends GenericProblemWindow {
+    public static final String TITLE = "Resonance structures";
+
+    private JPanel mainPane;
+    private ProgramTextField formulaField;
+    private ResonanceStripCanvas resonanceCanvas;
+    private JTextPane resultPane;
+    private ProgramLabel formulaTxtLbl;
+
+    public ResonanceProblemWindow() {
+        super(TITLE);
+
+        ProblemWindowMenuBar problemWindowMenuBar = new ProblemWindowMenuBar(this);
+        setJMenuBar(problemWindowMenuBar);
+
+        setResizable(false);
+
+        setContentPane(mainPane);
+    }
+
+    private void createUIComponents() {
+        resonanceCanvas = new ResonanceStripCanvas();
+    }
+
+    @Override
+    public void saveProject() {
+    }
+
+    @Override
+    public void solveProblem() {
+        String formula = formulaField.getText();
+        if (formula.isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                    "Please insert a formula to evaluate.",
+                    "No formula found.",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        LewisStructureGenerator generator = new LewisStructureGenerator(new FormulaParser(formula));
+        ParseResult result = generator.tryGenerate();
+
+        if (!result.isValid()) {
+            showNoStructures();
+            JOptionPane.showMessageDialog(this,
+                    result.getMessage(),
+                    "Formula error.",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        List<LewisStructure> structures = new ResonanceEnumerator(generator.getStructure()).enumerate();
+        if (structures.isEmpty()) {
+            showNoStructures();
+            return;
+        }
+
+        resonanceCanvas.setStructures(structures);
+
+        StringBuilder text = new StringBuilder();
+        text.append(structures.size() == 1 ? "1 resonance structure found.\n" :
+                structures.size() + " resonance structures found.\n");
+
+        if (structures.size() == ResonanceEnumerator.MAX_STRUCTURES)
+            text.append("Only the first ").append(ResonanceEnumerator.MAX_STRUCTURES).append(" are shown.\n");
+
+        for (int i = 0; i < structures.size(); i++)
+            text.append('\n').append("Structure ").append(i + 1).append(":\n").append(structures.get(i).getDescription());
+
+        resultPane.setText(text.toString());
+        resultPane.setCaretPosition(0);
+    }
+
+    // The skeletons tried are chains, trees and single rings, so molecules with fused rings (eg: C60) are not found.
+    private void showNoStructures() {
+        resonanceCanvas.setStructures(List.of());
+        resultPane.setText("No resonance structure found.\n\n" +
+                           "The atoms are bonded as a chain, a tree or a single ring of six or five atoms (eg: " +
+                           "C6H6), so molecules with fused rings can't be found from the formula.");
+        resultPane.setCaretPosition(0);
+    }
+}